@@ -1,27 +1,152 @@
 package com.legends;
 
+import com.legends.game.BoardRenderer;
 import com.legends.game.Game;
 import com.legends.game.QuitGameException;
+import com.legends.io.BufferedOutput;
 import com.legends.io.ConsoleInput;
 import com.legends.io.ConsoleOutput;
+import com.legends.sim.AttackWeakestPolicy;
+import com.legends.sim.BattleSimulator;
+import com.legends.utils.GameRandom;
+
+import java.io.File;
+import java.io.IOException;
 
 /**
  * Main class to start the Legends: Monsters and Heroes game.
  */
 public class Main {
+    private static final int DEFAULT_SIMULATED_BATTLES = 10000;
+    private static final String USAGE = "Usage: java com.legends.Main [--seed <n>] [--journal] [--compress-saves]"
+            + " [--record-battles <dir>] [--simulate [battlesPerMatchup]]";
+
     /**
      * The entry point of the application.
+     * Supported options:
+     * {@code --seed <n>} fixes the master random seed,
+     * {@code --journal} saves sessions as an append-only journal,
+     * {@code --compress-saves} compresses saved games,
+     * {@code --record-battles <dir>} records every battle for {@code BattleReplay}, and
+     * {@code --simulate [battlesPerMatchup]} runs the headless balance
+     * simulation instead of the interactive game.
+     * Invalid options print the usage and exit.
      *
-     * @param args Command line arguments (not used).
+     * @param args Command line arguments.
      */
     public static void main(String[] args) {
+        GameRandom random = new GameRandom();
+        int simulateBattles = -1;
+        boolean journal = false;
+        boolean compressSaves = false;
+        File battleRecordDir = null;
+        for (int i = 0; i < args.length; i++) {
+            try {
+                if (args[i].equals("--seed") && i + 1 < args.length) {
+                    random = new GameRandom(Long.parseLong(args[++i]));
+                } else if (args[i].equals("--journal")) {
+                    journal = true;
+                } else if (args[i].equals("--compress-saves")) {
+                    compressSaves = true;
+                } else if (args[i].equals("--record-battles") && i + 1 < args.length) {
+                    battleRecordDir = new File(args[++i]);
+                } else if (args[i].equals("--simulate")) {
+                    simulateBattles = DEFAULT_SIMULATED_BATTLES;
+                    if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                        simulateBattles = Integer.parseInt(args[++i]);
+                        if (simulateBattles <= 0) {
+                            printUsage("The number of battles to simulate must be positive: " + args[i]);
+                            return;
+                        }
+                    }
+                } else {
+                    printUsage("Unknown option or missing value: " + args[i]);
+                    return;
+                }
+            } catch (NumberFormatException e) {
+                printUsage("Not a valid number for " + args[i - 1] + ": " + args[i]);
+                return;
+            }
+        }
+
+        if (simulateBattles > 0) {
+            runSimulation(simulateBattles, random.getSeed());
+            return;
+        }
+
+        // Output is batched and flushed whenever the game waits for the player
+        BufferedOutput output = new BufferedOutput();
         try {
-            Game game = new Game(new ConsoleInput(), new ConsoleOutput());
+            Game game = new Game(new ConsoleInput(output), output, random);
+            // Only redraw the board incrementally when attached to an interactive terminal
+            boolean interactive = System.console() != null;
+            game.setIncrementalRendering(interactive, interactive ? terminalColumns() : BoardRenderer.DEFAULT_COLUMNS);
+            game.setJournaling(journal);
+            game.setSaveCompression(compressSaves);
+            game.setBattleRecording(battleRecordDir);
             game.init();
             game.start();
         } catch (QuitGameException e) {
-            System.out.println("\n" + e.getMessage());
-            System.out.println("Goodbye!");
+            output.println("\n" + e.getMessage());
+            output.println("Goodbye!");
+        } finally {
+            output.flush();
+        }
+    }
+
+    /**
+     * Reports an invalid command line and prints the usage.
+     *
+     * @param problem What was wrong with the arguments.
+     */
+    private static void printUsage(String problem) {
+        ConsoleOutput output = new ConsoleOutput();
+        output.printError(problem);
+        output.printError(USAGE);
+    }
+
+    /**
+     * Gets the width of the terminal, from the COLUMNS variable when the shell exports it,
+     * otherwise by asking {@code stty}.
+     *
+     * @return The number of columns, or the common 80 if unknown.
+     */
+    private static int terminalColumns() {
+        String columns = System.getenv("COLUMNS");
+        try {
+            if (columns == null) {
+                ProcessBuilder stty = new ProcessBuilder("stty", "size");
+                stty.redirectInput(new File("/dev/tty"));
+                stty.redirectError(ProcessBuilder.Redirect.DISCARD);
+                Process process = stty.start();
+                String size = new String(process.getInputStream().readAllBytes()).trim();
+                process.waitFor();
+                columns = size.substring(size.indexOf(' ') + 1); // "rows columns"
+            }
+            int width = Integer.parseInt(columns.trim());
+            if (width > 0) return width;
+        } catch (IOException | NumberFormatException e) {
+            // Fall back to the default width
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return BoardRenderer.DEFAULT_COLUMNS;
+    }
+
+    /**
+     * Runs the headless battle simulation and prints its report.
+     *
+     * @param battlesPerMatchup The number of battles per hero/monster matchup.
+     * @param seed              The master random seed.
+     */
+    private static void runSimulation(int battlesPerMatchup, long seed) {
+        ConsoleOutput output = new ConsoleOutput();
+        try {
+            BattleSimulator simulator = BattleSimulator.fromGameData(new AttackWeakestPolicy(), seed);
+            simulator.run(battlesPerMatchup).print(output);
+            output.println("Seed: " + seed);
+        } catch (Exception e) {
+            output.printError("Simulation failed: " + e.getMessage());
         }
     }
 }
@@ -0,0 +1,162 @@
+package com.legends.game;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes save snapshots on a background thread so the game never waits on storage.
+ * Only the newest snapshot matters: one submitted while an earlier one is still
+ * queued replaces it. Saves are written to their slot with {@link SaveSlots#write},
+ * which replaces the file atomically.
+ * <p>
+ * Journal checkpoints and syncs run on the same thread, in the order they are queued,
+ * each followed by recording the slot's header in the save index.
+ */
+final class AutoSaver {
+    private final SaveSlots slots;
+    private final AtomicReference<PendingSave> pending = new AtomicReference<>();
+    private final AtomicReference<IOException> lastError = new AtomicReference<>();
+    private final ExecutorService writer;
+    private volatile boolean compress;
+
+    /**
+     * Constructs a new AutoSaver.
+     *
+     * @param slots The save slots to write to.
+     */
+    AutoSaver(SaveSlots slots) {
+        this.slots = slots;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "autosave");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sets whether saves are written compressed.
+     *
+     * @param compress True to compress saves.
+     */
+    void setCompression(boolean compress) {
+        this.compress = compress;
+    }
+
+    /**
+     * Queues a snapshot to be written. Returns immediately.
+     *
+     * @param header   The header describing the save, including its slot.
+     * @param snapshot A snapshot that is no longer modified by the game thread.
+     */
+    void submit(SaveHeader header, SaveData snapshot) {
+        // Only schedule a write if none is queued; a queued write picks up the newest snapshot
+        if (pending.getAndSet(new PendingSave(header, snapshot)) == null) {
+            writer.execute(this::writePending);
+        }
+    }
+
+    /**
+     * Queues a journal checkpoint to be written. Returns immediately.
+     *
+     * @param journal  The journal, on which {@link Journal#beginCheckpoint} has been called.
+     * @param header   The header describing the save, including its slot.
+     * @param snapshot A snapshot that is no longer modified by the game thread.
+     */
+    void checkpoint(Journal journal, SaveHeader header, SaveData snapshot) {
+        writer.execute(() -> {
+            if (journal.writeCheckpoint(header, snapshot)) {
+                updateIndex(header);
+            }
+        });
+    }
+
+    /**
+     * Queues forcing a journal's events to disk. Returns immediately.
+     *
+     * @param journal The journal.
+     * @param header  The header describing the session now, including its slot.
+     * @param close   True to close the journal afterwards, at the end of the session.
+     */
+    void syncJournal(Journal journal, SaveHeader header, boolean close) {
+        writer.execute(() -> {
+            if (close) {
+                journal.close();
+            } else {
+                journal.sync();
+            }
+            updateIndex(header);
+        });
+    }
+
+    /**
+     * Waits until every submitted snapshot has been written.
+     */
+    void flush() {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // The empty task cannot fail
+        }
+    }
+
+    /**
+     * Gets and clears the error from the last failed write, if any.
+     *
+     * @return The error, or null if no write has failed since the last call.
+     */
+    IOException pollError() {
+        return lastError.getAndSet(null);
+    }
+
+    /**
+     * Writes the newest pending snapshot, if it has not been written already.
+     */
+    private void writePending() {
+        PendingSave save = pending.getAndSet(null);
+        if (save == null) {
+            return;
+        }
+        try {
+            slots.write(save.header, SaveCodec.encode(save.snapshot, compress));
+        } catch (IOException e) {
+            lastError.set(e);
+        }
+    }
+
+    /**
+     * Records a slot's newer header in the save index.
+     *
+     * @param header The slot's header.
+     */
+    private void updateIndex(SaveHeader header) {
+        try {
+            slots.updateIndex(header);
+        } catch (IOException e) {
+            lastError.set(e);
+        }
+    }
+
+    /**
+     * A snapshot waiting to be written, with the header for its slot.
+     */
+    private static final class PendingSave {
+        final SaveHeader header;
+        final SaveData snapshot;
+
+        /**
+         * Constructs a new PendingSave.
+         *
+         * @param header   The save's header.
+         * @param snapshot The session snapshot.
+         */
+        PendingSave(SaveHeader header, SaveData snapshot) {
+            this.header = header;
+            this.snapshot = snapshot;
+        }
+    }
+}
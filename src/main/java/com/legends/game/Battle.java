@@ -3,22 +3,36 @@ package com.legends.game;
 import com.legends.model.*;
 import com.legends.io.Input;
 import com.legends.io.Output;
+import com.legends.utils.AliasTable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * Manages a battle encounter between heroes and monsters.
  * Handles turn-based combat, actions, and win/loss conditions.
  */
 public class Battle {
+    private static final int EFFECT_WHEEL_SPAN = 8; // Rounds ahead that effects are usually scheduled
     private Party party;
     private List<Monster> monsters;
+    private List<Monster> monstersView;
     private int initialMonsterCount;
     private int maxMonsterLevel;
     private Input input;
     private Output output;
+    private HeroPolicy policy;
+    private SplittableRandom rand;
     private boolean battleRunning;
+    private int rounds;
+    private Hero[] targetHeroes;
+    private double[] targetWeights;
+    private AliasTable targetTable;
+    private boolean targetsStale;
+    private TimingWheel<StatusEffect> effects; // Created when the first spell is cast
+    private BattleLog log;
+    private List<Monster> lineUp; // The monsters as the battle began, for the log's indices
 
     /**
      * Constructs a new Battle.
@@ -28,10 +42,12 @@ public class Battle {
      * @param input      The input interface.
      * @param output     The output interface.
      * @param difficulty The difficulty level ("Normal" or "Hard").
+     * @param rand       The random stream used for combat rolls.
      */
-    public Battle(Party party, List<Monster> monsters, Input input, Output output, String difficulty) {
+    public Battle(Party party, List<Monster> monsters, Input input, Output output, String difficulty, SplittableRandom rand) {
         this.party = party;
         this.monsters = monsters;
+        this.monstersView = Collections.unmodifiableList(monsters);
         this.initialMonsterCount = monsters.size();
         
         this.maxMonsterLevel = 0;
@@ -48,7 +64,40 @@ public class Battle {
 
         this.input = input;
         this.output = output;
+        this.rand = rand;
         this.battleRunning = true;
+
+        int partySize = party.getSize();
+        this.targetHeroes = new Hero[partySize];
+        this.targetWeights = new double[partySize];
+        this.targetTable = new AliasTable(partySize);
+        this.targetsStale = true;
+    }
+
+    /**
+     * Constructs a new headless Battle.
+     * Hero turns are decided by the given policy and no output is produced.
+     *
+     * @param party      The party of heroes.
+     * @param monsters   The list of monsters to fight.
+     * @param policy     The policy choosing each hero's action.
+     * @param difficulty The difficulty level ("Normal" or "Hard").
+     * @param rand       The random stream used for combat rolls.
+     */
+    public Battle(Party party, List<Monster> monsters, HeroPolicy policy, String difficulty, SplittableRandom rand) {
+        this(party, monsters, null, null, difficulty, rand);
+        this.policy = policy;
+    }
+
+    /**
+     * Records the battle's events to a log.
+     * Must be called before the battle starts.
+     *
+     * @param log The log, started with this battle's party, monsters and seed.
+     */
+    public void setLog(BattleLog log) {
+        this.log = log;
+        this.lineUp = new ArrayList<>(monsters);
     }
 
     /**
@@ -57,26 +106,34 @@ public class Battle {
      * @return The result of the battle ("Victory" or "Defeat").
      */
     public String start() {
-        output.println("\n--- Battle Started! ---");
+        if (output != null) output.println("\n--- Battle Started! ---");
         
         while (battleRunning) {
             // Check win/loss conditions
             if (areAllHeroesFainted()) {
-                output.printlnRed("All heroes have fainted! Game Over.");
+                if (output != null) output.printlnRed("All heroes have fainted! Game Over.");
                 battleRunning = false;
+                endEffects();
+                if (log != null) log.end("Defeat");
 
                 // If all heroes fainted, exit the game gracefully
                 return "Defeat";
             }
             if (monsters.isEmpty()) {
-                output.printlnGreen("All monsters defeated! Victory!");
+                if (output != null) output.printlnGreen("All monsters defeated! Victory!");
                 distributeRewards();
                 battleRunning = false;
+                endEffects();
+                if (log != null) log.end("Victory");
                 return "Victory";
             }
 
-            output.println("\n--- New Round ---");
-            showBattleStatus();
+            rounds++;
+            if (log != null) log.round(rounds);
+            if (output != null) {
+                output.println("\n--- New Round ---");
+                showBattleStatus();
+            }
 
             // Heroes Turn
             for (Hero hero : party.getHeroes()) {
@@ -92,6 +149,9 @@ public class Battle {
                 }
             }
             
+            // Spell effects that have run their course wear off
+            if (effects != null) effects.expire(rounds, this::endEffect);
+
             // Cleanup dead monsters
             monsters.removeIf(m -> !m.isAlive());
             
@@ -104,10 +164,29 @@ public class Battle {
                     h.setMana(h.getMana() + manaRegen);
                 }
             }
+            targetsStale = true;
         }
         return "";
     }
 
+    /**
+     * Gets the number of rounds fought so far.
+     *
+     * @return The round count.
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Gets the monsters still standing in this battle.
+     *
+     * @return An unmodifiable view of the remaining monsters.
+     */
+    public List<Monster> getMonsters() {
+        return monstersView;
+    }
+
     /**
      * Displays the current status of heroes and monsters.
      */
@@ -131,6 +210,12 @@ public class Battle {
      * @param hero The hero taking the turn.
      */
     private void takeHeroTurn(Hero hero) {
+        if (log != null) log.heroTurn(heroIndex(hero));
+        if (policy != null) {
+            policy.takeTurn(hero, this);
+            return;
+        }
+
         boolean turnTaken = false;
         while (!turnTaken) {
             output.println("\n" + hero.getName() + "'s turn.");
@@ -169,36 +254,40 @@ public class Battle {
     private boolean performAttack(Hero hero) {
         Monster target = selectMonsterTarget();
         if (target == null) return false;
+        return attack(hero, target);
+    }
 
-        // Calculate damage
-        double attack = hero.getStrength();
-        if (hero.getMainHandWeapon() != null) {
-            double weaponDamage = hero.getMainHandWeapon().getDamage();
-            if (hero.isMainHandTwoHandedGrip() && hero.getMainHandWeapon().getRequiredHands() == 1) {
-                weaponDamage *= 1.5; // 50% damage increase for 2-handed grip on 1-handed weapon
-            }
-            attack += weaponDamage;
-        }
+    /**
+     * Performs a physical attack by the hero against a specific monster.
+     *
+     * @param hero   The hero attacking.
+     * @param target The monster being attacked.
+     * @return True if the attack was performed.
+     */
+    public boolean attack(Hero hero, Monster target) {
+        // Attack and dodge penetration are cached on the hero until its attributes or equipment change
+        double attack = hero.getAttack();
         
         // Apply dodge chance
-        Random rand = new Random();
         double dodgeChance = target.getDodgeChance() * 0.01;
         
         // Reduce dodge chance based on hero dexterity
-        // Assuming dexterity is in the hundreds/thousands.
-        // Using a factor of 0.00025 means 400 dexterity reduces dodge chance by 10% (0.1)
-        double effectiveDodgeChance = dodgeChance - (hero.getDexterity() * 0.00025);
+        double effectiveDodgeChance = dodgeChance - hero.getDodgePenetration();
         if (effectiveDodgeChance < 0) effectiveDodgeChance = 0;
 
+        if (log != null) log.attack(heroIndex(hero), monsterIndex(target));
         if (rand.nextDouble() < effectiveDodgeChance) {
-            output.printlnRed(target.getName() + " dodged the attack!");
+            if (log != null) log.dodge();
+            if (output != null) output.printlnRed(target.getName() + " dodged the attack!");
         } else {
             int actualDamage = calculateDamage(attack, target.getDefense());
             target.takeDamage(actualDamage);
-            output.printlnGreen(hero.getName() + " dealt " + actualDamage + " damage to " + target.getName());
+            if (log != null) log.damage(actualDamage);
+            if (output != null) output.printlnGreen(hero.getName() + " dealt " + actualDamage + " damage to " + target.getName());
 
             if (!target.isAlive()) {
-                output.printlnGreen(target.getName() + " has been defeated!");
+                if (log != null) log.faint(BattleLog.MONSTER, monsterIndex(target));
+                if (output != null) output.printlnGreen(target.getName() + " has been defeated!");
                 monsters.remove(target);
             }
         }
@@ -212,11 +301,7 @@ public class Battle {
      * @return True if the spell was cast, false if cancelled.
      */
     private boolean performCastSpell(Hero hero) {
-        // Filter spells from inventory
-        List<Spell> spells = new ArrayList<>();
-        for (Item i : hero.getInventory()) {
-            if (i instanceof Spell) spells.add((Spell) i);
-        }
+        List<Spell> spells = hero.getInventory().getSpells();
 
         if (spells.isEmpty()) {
             output.println("No spells available.");
@@ -248,19 +333,42 @@ public class Battle {
 
         Monster target = selectMonsterTarget();
         if (target == null) return false;
+        return castSpell(hero, spell, target);
+    }
+
+    /**
+     * Casts a spell from the hero's inventory on a specific monster.
+     *
+     * @param hero   The hero casting the spell.
+     * @param spell  The spell to cast.
+     * @param target The monster being targeted.
+     * @return True if the spell was cast, false if the hero lacks mana.
+     */
+    public boolean castSpell(Hero hero, Spell spell, Monster target) {
+        if (hero.getMana() < spell.getManaCost()) {
+            if (output != null) output.printlnRed("Not enough mana!");
+            return false;
+        }
 
         hero.setMana(hero.getMana() - spell.getManaCost());
+        if (log != null) log.spell(heroIndex(hero), spell, monsterIndex(target));
         
         double spellDamage = spell.getDamage() + (hero.getDexterity() / 10000.0 * spell.getDamage());
         // Apply simple scaling for spells (treating as pure damage)
         int damage = (int) (spellDamage);
 
         target.takeDamage(damage);
-        output.printlnGreen(hero.getName() + " cast " + spell.getName() + " on " + target.getName() + " for " + damage + " damage.");
-        spell.applyEffect(target, output); // Apply side effects based on spell type
+        if (log != null) log.damage(damage);
+        if (output != null) output.printlnGreen(hero.getName() + " cast " + spell.getName() + " on " + target.getName() + " for " + damage + " damage.");
+        // Apply side effects based on spell type, lasting through the spell's duration
+        StatusEffect effect = spell.applyEffect(target, output);
+        if (log != null) log.effect(monsterIndex(target), effect.getAmount());
+        if (effects == null) effects = new TimingWheel<>(EFFECT_WHEEL_SPAN);
+        effects.schedule(effect, rounds + Math.max(1, effect.getDuration()) - 1);
 
         if (!target.isAlive()) {
-            output.printlnGreen(target.getName() + " has been defeated!");
+            if (log != null) log.faint(BattleLog.MONSTER, monsterIndex(target));
+            if (output != null) output.printlnGreen(target.getName() + " has been defeated!");
             monsters.remove(target);
         }
         return true;
@@ -273,10 +381,7 @@ public class Battle {
      * @return True if the potion was used, false if cancelled.
      */
     private boolean performUsePotion(Hero hero) {
-        List<Potion> potions = new ArrayList<>();
-        for (Item i : hero.getInventory()) {
-            if (i instanceof Potion) potions.add((Potion) i);
-        }
+        List<Potion> potions = hero.getInventory().getPotions();
 
         if (potions.isEmpty()) {
             output.println("No potions available.");
@@ -304,10 +409,23 @@ public class Battle {
         
         Hero target = selectHeroTarget();
         if (target == null) return false;
+        return usePotion(hero, potion, target);
+    }
 
+    /**
+     * Uses a potion from the hero's inventory on a specific hero.
+     *
+     * @param hero   The hero using the potion.
+     * @param potion The potion to use.
+     * @param target The hero receiving the potion's effect.
+     * @return True if the potion was used.
+     */
+    public boolean usePotion(Hero hero, Potion potion, Hero target) {
         target.applyPotion(potion);
         hero.removeItem(potion);
-        output.printlnGreen(hero.getName() + " used " + potion.getName() + " on " + target.getName());
+        targetsStale = true;
+        if (log != null) log.potion(heroIndex(hero), potion, heroIndex(target));
+        if (output != null) output.printlnGreen(hero.getName() + " used " + potion.getName() + " on " + target.getName());
         return true;
     }
 
@@ -345,14 +463,9 @@ public class Battle {
      * @return True if equipment was changed, false if cancelled.
      */
     private boolean performChangeEquipment(Hero hero) {
-        List<Item> equipment = new ArrayList<>();
-        for (Item i : hero.getInventory()) {
-            if (i instanceof Weapon || i instanceof Armor) {
-                equipment.add(i);
-            }
-        }
-
-        if (equipment.isEmpty()) {
+        Inventory inventory = hero.getInventory();
+        int equipmentCount = inventory.getEquipmentCount();
+        if (equipmentCount == 0) {
             output.println("No equipment available in inventory.");
             return false;
         }
@@ -363,8 +476,8 @@ public class Battle {
         output.println("Armor: " + (hero.getEquippedArmor() != null ? hero.getEquippedArmor().getName() : "None"));
 
         output.println("\nSelect Equipment to Equip:");
-        for (int i = 0; i < equipment.size(); i++) {
-            Item item = equipment.get(i);
+        for (int i = 0; i < equipmentCount; i++) {
+            Item item = inventory.getEquipment(i);
             String details = item.getName();
             if (item instanceof Weapon) {
                 details += " (Dmg: " + ((Weapon)item).getDamage() + ", Hands: " + ((Weapon)item).getRequiredHands() + ")";
@@ -373,7 +486,7 @@ public class Battle {
             }
             output.println((i + 1) + ". " + details);
         }
-        output.println((equipment.size() + 1) + ". Cancel");
+        output.println((equipmentCount + 1) + ". Cancel");
 
         int idx = -1;
         try {
@@ -383,47 +496,71 @@ public class Battle {
             return false;
         }
 
-        if (idx < 0 || idx >= equipment.size()) return false;
+        if (idx < 0 || idx >= equipmentCount) return false;
 
-        Item selectedItem = equipment.get(idx);
+        Item selectedItem = inventory.getEquipment(idx);
         if (selectedItem instanceof Weapon) {
             Weapon weapon = (Weapon) selectedItem;
             if (weapon.getRequiredHands() == 1) {
                 output.println("Equip to: 1. Main Hand  2. Off Hand  3. Main Hand (2-Handed Grip)");
                 String handChoice = input.readLine();
                 if (handChoice.equals("1")) {
-                    hero.equipMainHand(weapon, false);
-                    output.println("Equipped " + weapon.getName() + " to Main Hand.");
-                    return true;
+                    return changeEquipment(hero, weapon, Journal.MAIN_HAND);
                 } else if (handChoice.equals("2")) {
-                    if (hero.equipOffHand(weapon, output)) {
-                        output.println("Equipped " + weapon.getName() + " to Off Hand.");
-                        return true;
-                    }
-                    return false;
+                    return changeEquipment(hero, weapon, Journal.OFF_HAND);
                 } else if (handChoice.equals("3")) {
-                    hero.equipMainHand(weapon, true);
-                    output.println("Equipped " + weapon.getName() + " to Main Hand (2-Handed Grip).");
-                    return true;
+                    return changeEquipment(hero, weapon, Journal.MAIN_HAND_TWO_HANDED);
                 } else {
                     output.println("Invalid choice.");
                     return false;
                 }
             } else {
                 // 2-handed
-                hero.equipMainHand(weapon);
-                output.println("Equipped " + weapon.getName() + " (2-Handed).");
-                return true;
+                return changeEquipment(hero, weapon, Journal.MAIN_HAND_TWO_HANDED);
             }
         } else if (selectedItem instanceof Armor) {
-            hero.equipArmor((Armor) selectedItem);
-            output.println("Equipped " + selectedItem.getName());
-            return true;
+            return changeEquipment(hero, selectedItem, Journal.ARMOR);
         }
 
         return false;
     }
 
+    /**
+     * Equips an item from the hero's inventory.
+     *
+     * @param hero The hero changing equipment.
+     * @param item The weapon or armor to equip.
+     * @param slot The slot, one of {@link Journal#MAIN_HAND}, {@link Journal#MAIN_HAND_TWO_HANDED},
+     *             {@link Journal#OFF_HAND} or {@link Journal#ARMOR}.
+     * @return True if the item was equipped.
+     */
+    boolean changeEquipment(Hero hero, Item item, byte slot) {
+        if (slot == Journal.ARMOR) {
+            hero.equipArmor((Armor) item);
+            if (output != null) output.println("Equipped " + item.getName());
+        } else if (slot == Journal.OFF_HAND) {
+            if (!hero.equipOffHand((Weapon) item, output)) {
+                return false;
+            }
+            if (output != null) output.println("Equipped " + item.getName() + " to Off Hand.");
+        } else {
+            Weapon weapon = (Weapon) item;
+            boolean twoHanded = slot == Journal.MAIN_HAND_TWO_HANDED;
+            hero.equipMainHand(weapon, twoHanded || weapon.getRequiredHands() == 2);
+            if (output != null) {
+                if (weapon.getRequiredHands() == 2) {
+                    output.println("Equipped " + weapon.getName() + " (2-Handed).");
+                } else if (twoHanded) {
+                    output.println("Equipped " + weapon.getName() + " to Main Hand (2-Handed Grip).");
+                } else {
+                    output.println("Equipped " + weapon.getName() + " to Main Hand.");
+                }
+            }
+        }
+        if (log != null) log.equip(heroIndex(hero), item, slot);
+        return true;
+    }
+
     /**
      * Selects a monster target for an attack.
      *
@@ -456,31 +593,24 @@ public class Battle {
      */
     private void takeMonsterTurn(Monster monster) {
         // AI: Attack hero with lower HP with priority
-        List<Hero> aliveHeroes = new ArrayList<>();
-        for (Hero h : party.getHeroes()) {
-            if (h.isAlive()) aliveHeroes.add(h);
-        }
-
-        if (aliveHeroes.isEmpty()) return;
-
-        Hero target = selectWeightedTarget(aliveHeroes);
-
-        Random rand = new Random();
-        // Dodge calculation
-        // PDF mentions 0.002, but I changed to 0.01 for better gameplay balance
-        if (rand.nextInt(100) < (target.getAgility() * 0.01)) { // Agility based dodge
-             output.printlnGreen(target.getName() + " dodged " + monster.getName() + "'s attack!");
+        Hero target = selectWeightedTarget();
+        if (target == null) return;
+        if (log != null) log.monsterAttack(monsterIndex(monster), heroIndex(target));
+
+        // Agility based dodge
+        if (rand.nextInt(100) < target.getDodgeChance()) {
+             if (log != null) log.dodge();
+             if (output != null) output.printlnGreen(target.getName() + " dodged " + monster.getName() + "'s attack!");
         } else {
-            double attack = monster.getDamage();
-            double defense = 0;
-            if (target.getEquippedArmor() != null) {
-                defense = target.getEquippedArmor().getDamageReduction();
-            }
-            
-            int damage = calculateDamage(attack, defense);
+            int damage = calculateDamage(monster.getDamage(), target.getDamageReduction());
             
             target.takeDamage(damage);
-            output.printlnRed(monster.getName() + " attacked " + target.getName() + " for " + damage + " damage.");
+            targetsStale = true;
+            if (log != null) {
+                log.damage(damage);
+                if (!target.isAlive()) log.faint(BattleLog.HERO, heroIndex(target));
+            }
+            if (output != null) output.printlnRed(monster.getName() + " attacked " + target.getName() + " for " + damage + " damage.");
         }
     }
 
@@ -500,32 +630,64 @@ public class Battle {
     }
 
     /**
-     * Selects a target hero based on weighted probability (lower HP = higher chance).
+     * Selects a living target hero based on weighted probability (lower HP = higher chance).
+     * The weights are kept in an alias table that is rebuilt only after hero HP has changed.
      *
-     * @param heroes The list of potential hero targets.
-     * @return The selected hero.
+     * @return The selected hero, or null if every hero has fainted.
      */
-    private Hero selectWeightedTarget(List<Hero> heroes) {
-        double totalWeight = 0;
-        double[] weights = new double[heroes.size()];
-
-        for (int i = 0; i < heroes.size(); i++) {
-            // Weight is inversely proportional to HP. Adding a small epsilon to avoid division by zero
-            weights[i] = 1.0 / Math.max(1, heroes.get(i).getHp());
-            totalWeight += weights[i];
+    private Hero selectWeightedTarget() {
+        if (targetsStale) {
+            int count = 0;
+            for (Hero h : party.getHeroes()) {
+                if (h.isAlive()) {
+                    targetHeroes[count] = h;
+                    // Weight is inversely proportional to HP, with at least 1 HP to avoid division by zero
+                    targetWeights[count] = 1.0 / Math.max(1, h.getHp());
+                    count++;
+                }
+            }
+            targetTable.build(targetWeights, count);
+            targetsStale = false;
         }
+        if (targetTable.size() == 0) return null;
+        return targetHeroes[targetTable.sample(rand)];
+    }
 
-        Random rand = new Random();
-        double value = rand.nextDouble() * totalWeight;
+    /**
+     * Ends a spell effect that has run its course.
+     *
+     * @param effect The effect.
+     */
+    private void endEffect(StatusEffect effect) {
+        effect.remove(output);
+        if (log != null) log.effectEnd(monsterIndex(effect.getTarget()), effect.getAmount());
+    }
 
-        for (int i = 0; i < heroes.size(); i++) {
-            value -= weights[i];
-            if (value <= 0) {
-                return heroes.get(i);
-            }
-        }
-        
-        return heroes.get(heroes.size() - 1);
+    /**
+     * Gets a hero's index in the party, as recorded in the log.
+     *
+     * @param hero The hero.
+     * @return The index.
+     */
+    private int heroIndex(Hero hero) {
+        return party.getHeroes().indexOf(hero);
+    }
+
+    /**
+     * Gets a monster's index in the starting line-up, as recorded in the log.
+     *
+     * @param monster The monster.
+     * @return The index.
+     */
+    private int monsterIndex(Monster monster) {
+        return lineUp.indexOf(monster);
+    }
+
+    /**
+     * Removes every spell effect still active when the battle ends.
+     */
+    private void endEffects() {
+        if (effects != null) effects.clear(effect -> effect.remove(null));
     }
 
     /**
@@ -546,16 +708,17 @@ public class Battle {
     private void distributeRewards() {
         int totalXp = initialMonsterCount * maxMonsterLevel * 2;
         int totalGold = initialMonsterCount * maxMonsterLevel * 100;
+        if (log != null) log.rewards(totalGold, totalXp);
 
         for (Hero h : party.getHeroes()) {
             if (h.isAlive()) {
                 h.setMoney(h.getMoney() + totalGold);
                 h.gainExperience(totalXp, output);
-                output.printlnGreen(h.getName() + " gained " + totalGold + " gold and " + totalXp + " XP.");
+                if (output != null) output.printlnGreen(h.getName() + " gained " + totalGold + " gold and " + totalXp + " XP.");
             } else {
                 // Revive fainted heroes with 50% HP
                 h.setHp(h.getLevel() * 50); 
-                output.printlnGreen(h.getName() + " has been revived with " + h.getHp() + " HP.");
+                if (output != null) output.printlnGreen(h.getName() + " has been revived with " + h.getHp() + " HP.");
             }
         }
     }
@@ -0,0 +1,397 @@
+package com.legends.game;
+
+import com.legends.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compact binary record of one battle.
+ * <p>
+ * The log starts with everything needed to stage the battle again: the seed of its
+ * random stream, the difficulty, a checksum of the item catalog, the heroes (in the
+ * save format) and the monsters as they were before the battle. Items are referred to
+ * by catalog ID, so a log only replays against the catalog it was recorded with. Then come the events, each framed as a type byte,
+ * a one-byte payload length and the payload: round starts, hero turns and the action
+ * taken, monster attacks, dodges, damage, spell effects starting and ending, potions,
+ * equipment changes, faints, rewards and the result. Heroes are referred to by their
+ * index in the party and monsters by their index in the starting line-up.
+ * <p>
+ * Replaying the hero actions against the same seed reproduces the battle exactly;
+ * see {@link BattleReplay}.
+ */
+public final class BattleLog {
+    static final int MAGIC = 0x4C4D4842; // "LMHB"
+    static final int VERSION = 2;
+
+    static final byte ROUND = 1;
+    static final byte HERO_TURN = 2;
+    static final byte ATTACK = 3;
+    static final byte SPELL = 4;
+    static final byte POTION = 5;
+    static final byte EQUIP = 6;
+    static final byte MONSTER_ATTACK = 7;
+    static final byte DODGE = 8;
+    static final byte DAMAGE = 9;
+    static final byte EFFECT = 10;
+    static final byte EFFECT_END = 11;
+    static final byte FAINT = 12;
+    static final byte REWARDS = 13;
+    static final byte END = 14;
+
+    // Sides for FAINT events
+    static final byte HERO = 0;
+    static final byte MONSTER = 1;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private final ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(16);
+    private final DataOutputStream payload = new DataOutputStream(payloadBytes);
+    private final long seed;
+
+    /**
+     * Starts a log for a battle that is about to begin.
+     *
+     * @param seed       The seed of the battle's random stream.
+     * @param difficulty The difficulty level.
+     * @param party      The party, before the battle.
+     * @param monsters   The monsters, before the battle.
+     * @param items      The item catalog, indexed by item ID.
+     */
+    public BattleLog(long seed, String difficulty, Party party, List<Monster> monsters, List<Item> items) {
+        this.seed = seed;
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(seed);
+            out.writeUTF(difficulty);
+            out.writeInt(SaveCodec.catalogChecksum(items));
+            out.writeByte(party.getSize());
+            for (Hero hero : party.getHeroes()) {
+                SaveCodec.writeHero(out, hero);
+            }
+            out.writeByte(monsters.size());
+            for (Monster monster : monsters) {
+                out.writeUTF(monster.getClass().getSimpleName());
+                out.writeUTF(monster.getName());
+                out.writeShort(monster.getLevel());
+                out.writeInt(monster.getHp());
+                out.writeInt(monster.getDamage());
+                out.writeInt(monster.getDefense());
+                out.writeInt(monster.getDodgeChance());
+            }
+        } catch (IOException e) {
+            // Writing to memory cannot fail
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gets the seed of the battle's random stream.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the encoded log.
+     *
+     * @return The log's bytes.
+     */
+    public byte[] toByteArray() {
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Records the start of a round.
+     *
+     * @param round The round number.
+     */
+    void round(int round) {
+        writeInt(round);
+        emit(ROUND);
+    }
+
+    /**
+     * Records the start of a hero's turn.
+     *
+     * @param hero The hero's index in the party.
+     */
+    void heroTurn(int hero) {
+        writeByte(hero);
+        emit(HERO_TURN);
+    }
+
+    /**
+     * Records a hero attacking with their weapon.
+     *
+     * @param hero    The hero's index in the party.
+     * @param monster The target's index in the line-up.
+     */
+    void attack(int hero, int monster) {
+        writeByte(hero);
+        writeByte(monster);
+        emit(ATTACK);
+    }
+
+    /**
+     * Records a hero casting a spell.
+     *
+     * @param hero    The hero's index in the party.
+     * @param spell   The spell cast.
+     * @param monster The target's index in the line-up.
+     */
+    void spell(int hero, Spell spell, int monster) {
+        writeByte(hero);
+        writeInt(spell.getId());
+        writeByte(monster);
+        emit(SPELL);
+    }
+
+    /**
+     * Records a hero using a potion.
+     *
+     * @param hero   The hero's index in the party.
+     * @param potion The potion used.
+     * @param target The index in the party of the hero who drank it.
+     */
+    void potion(int hero, Potion potion, int target) {
+        writeByte(hero);
+        writeInt(potion.getId());
+        writeByte(target);
+        emit(POTION);
+    }
+
+    /**
+     * Records a hero changing equipment.
+     *
+     * @param hero The hero's index in the party.
+     * @param item The weapon or armor equipped.
+     * @param slot The slot, as in {@link Journal}'s equip events.
+     */
+    void equip(int hero, Item item, byte slot) {
+        writeByte(hero);
+        writeInt(item.getId());
+        writeByte(slot);
+        emit(EQUIP);
+    }
+
+    /**
+     * Records a monster attacking.
+     *
+     * @param monster The monster's index in the line-up.
+     * @param hero    The target's index in the party.
+     */
+    void monsterAttack(int monster, int hero) {
+        writeByte(monster);
+        writeByte(hero);
+        emit(MONSTER_ATTACK);
+    }
+
+    /**
+     * Records the last attack being dodged.
+     */
+    void dodge() {
+        emit(DODGE);
+    }
+
+    /**
+     * Records the damage dealt by the last attack or spell.
+     *
+     * @param amount The damage dealt.
+     */
+    void damage(int amount) {
+        writeInt(amount);
+        emit(DAMAGE);
+    }
+
+    /**
+     * Records a spell effect taking hold.
+     *
+     * @param monster The monster's index in the line-up.
+     * @param amount  How much the stat was reduced by.
+     */
+    void effect(int monster, int amount) {
+        writeByte(monster);
+        writeInt(amount);
+        emit(EFFECT);
+    }
+
+    /**
+     * Records a spell effect wearing off.
+     *
+     * @param monster The monster's index in the line-up.
+     * @param amount  How much the stat was given back.
+     */
+    void effectEnd(int monster, int amount) {
+        writeByte(monster);
+        writeInt(amount);
+        emit(EFFECT_END);
+    }
+
+    /**
+     * Records a hero fainting or a monster being defeated.
+     *
+     * @param side  {@link #HERO} or {@link #MONSTER}.
+     * @param index The index in the party or the line-up.
+     */
+    void faint(byte side, int index) {
+        writeByte(side);
+        writeByte(index);
+        emit(FAINT);
+    }
+
+    /**
+     * Records the rewards for a victory.
+     *
+     * @param gold       The total gold shared out.
+     * @param experience The total experience shared out.
+     */
+    void rewards(int gold, int experience) {
+        writeInt(gold);
+        writeInt(experience);
+        emit(REWARDS);
+    }
+
+    /**
+     * Records the end of the battle.
+     *
+     * @param result The result, "Victory" or "Defeat".
+     */
+    void end(String result) {
+        try {
+            payload.writeUTF(result);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        emit(END);
+    }
+
+    /**
+     * Adds a byte to the payload of the next event.
+     *
+     * @param value The value.
+     */
+    private void writeByte(int value) {
+        try {
+            payload.writeByte(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Adds an int to the payload of the next event.
+     *
+     * @param value The value.
+     */
+    private void writeInt(int value) {
+        try {
+            payload.writeInt(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Frames the buffered payload as an event.
+     *
+     * @param type The event type.
+     */
+    private void emit(byte type) {
+        bytes.write(type);
+        bytes.write(payloadBytes.size());
+        bytes.write(payloadBytes.toByteArray(), 0, payloadBytes.size());
+        payloadBytes.reset();
+    }
+
+    /**
+     * A log read back for replay: the staged battle and the recorded events.
+     */
+    static final class Recording {
+        final long seed;
+        final String difficulty;
+        final Party party;
+        final List<Monster> monsters;
+        final byte[] events;
+        final int eventsStart;
+
+        /**
+         * Reads a log.
+         *
+         * @param log   The encoded log.
+         * @param items The item catalog, indexed by item ID.
+         * @throws IOException If the log is corrupt, from a newer version, or recorded with a different catalog.
+         */
+        Recording(byte[] log, List<Item> items) throws IOException {
+            ByteArrayInputStream stream = new ByteArrayInputStream(log);
+            DataInputStream in = new DataInputStream(stream);
+            if (log.length < 6 || in.readInt() != MAGIC) {
+                throw new IOException("Not a battle log.");
+            }
+            int version = in.readUnsignedShort();
+            if (version > VERSION) {
+                throw new IOException("Battle log is from a newer version of the game (format " + version + ").");
+            }
+            seed = in.readLong();
+            difficulty = in.readUTF();
+            // Version 1 logs were all recorded with the original catalog
+            if (version >= 2 && in.readInt() != SaveCodec.catalogChecksum(items)) {
+                throw new IOException("Battle log was recorded with a different item catalog.");
+            }
+            party = new Party();
+            int heroCount = in.readUnsignedByte();
+            for (int i = 0; i < heroCount; i++) {
+                party.addHero(SaveCodec.readHero(in, items, SaveCodec.VERSION));
+            }
+            monsters = new ArrayList<>();
+            int monsterCount = in.readUnsignedByte();
+            for (int i = 0; i < monsterCount; i++) {
+                monsters.add(readMonster(in));
+            }
+            events = log;
+            eventsStart = log.length - stream.available();
+        }
+
+        /**
+         * Reads a monster written in the log header.
+         *
+         * @param in The stream to read from.
+         * @return The monster, with its stats exactly as logged.
+         * @throws IOException If the data is corrupt.
+         */
+        private static Monster readMonster(DataInputStream in) throws IOException {
+            String type = in.readUTF();
+            String name = in.readUTF();
+            int level = in.readUnsignedShort();
+            int hp = in.readInt();
+            int damage = in.readInt();
+            int defense = in.readInt();
+            int dodgeChance = in.readInt();
+
+            Monster monster;
+            if (type.equals("Spirit")) {
+                monster = new Spirit(name, level, damage, defense, dodgeChance);
+            } else if (type.equals("Dragon")) {
+                monster = new Dragon(name, level, damage, defense, dodgeChance);
+            } else if (type.equals("Exoskeleton")) {
+                monster = new Exoskeleton(name, level, damage, defense, dodgeChance);
+            } else {
+                throw new IOException("Unknown monster type in battle log: " + type);
+            }
+            // The constructors apply type bonuses; restore the logged stats exactly
+            monster.setHp(hp);
+            monster.setDamage(damage);
+            monster.setDefense(defense);
+            monster.setDodgeChance(dodgeChance);
+            return monster;
+        }
+    }
+}
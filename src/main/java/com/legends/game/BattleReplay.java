@@ -0,0 +1,113 @@
+package com.legends.game;
+
+import com.legends.io.ConsoleOutput;
+import com.legends.model.Item;
+import com.legends.utils.DataLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Replays recorded battles without any console I/O.
+ * The battle is staged again from the log's header, the heroes repeat the recorded
+ * actions against the recorded seed, and the new log's events must match the old
+ * ones byte for byte. A mismatch means the combat rules have changed since the recording.
+ */
+public final class BattleReplay {
+
+    /**
+     * Prevents instantiation.
+     */
+    private BattleReplay() {
+    }
+
+    /**
+     * Replays a recorded battle.
+     *
+     * @param log   The recorded battle log.
+     * @param items The item catalog, indexed by item ID.
+     * @return True if the replay produced exactly the recorded events.
+     * @throws IOException If the log is corrupt.
+     */
+    public static boolean replay(byte[] log, List<Item> items) throws IOException {
+        BattleLog.Recording recording = new BattleLog.Recording(log, items);
+        BattleLog replayed = new BattleLog(recording.seed, recording.difficulty, recording.party, recording.monsters, items);
+        // The header is staged from the recording; only the events can differ, and older logs have an older header
+        int replayedStart = replayed.toByteArray().length;
+        Battle battle = new Battle(recording.party, new ArrayList<>(recording.monsters),
+                new ReplayPolicy(recording, items), recording.difficulty, new SplittableRandom(recording.seed));
+        battle.setLog(replayed);
+        try {
+            battle.start();
+        } catch (IllegalStateException | IndexOutOfBoundsException | ClassCastException e) {
+            // The replay took a turn the recording does not have
+            return false;
+        }
+        byte[] events = replayed.toByteArray();
+        return ByteBuffer.wrap(log, recording.eventsStart, log.length - recording.eventsStart)
+                .equals(ByteBuffer.wrap(events, replayedStart, events.length - replayedStart));
+    }
+
+    /**
+     * Replays battle logs and reports which still match.
+     * Arguments are log files or directories of them.
+     *
+     * @param args The files and directories to replay.
+     */
+    public static void main(String[] args) {
+        ConsoleOutput output = new ConsoleOutput();
+        List<File> files = new ArrayList<>();
+        for (String arg : args) {
+            File file = new File(arg);
+            File[] children = file.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (File child : children) {
+                    if (child.isFile()) files.add(child);
+                }
+            } else {
+                files.add(file);
+            }
+        }
+        if (files.isEmpty()) {
+            output.println("Usage: BattleReplay <log file or directory>...");
+            return;
+        }
+
+        List<Item> items;
+        try {
+            items = DataLoader.loadItemCatalog();
+        } catch (IOException e) {
+            output.printError("Error loading data: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        int mismatches = 0;
+        long start = System.nanoTime();
+        for (File file : files) {
+            try {
+                if (replay(Files.readAllBytes(file.toPath()), items)) {
+                    output.println("OK        " + file.getPath());
+                } else {
+                    output.printlnRed("MISMATCH  " + file.getPath());
+                    mismatches++;
+                }
+            } catch (IOException e) {
+                output.printError(file.getPath() + ": " + e.getMessage());
+                mismatches++;
+            }
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        output.println(files.size() + " battles replayed in " + millis + " ms, " + mismatches + " failed.");
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -1,23 +1,32 @@
 package com.legends.game;
 
 import com.legends.model.Entity;
-import com.legends.model.Hero;
-import com.legends.model.Monster;
 import com.legends.io.Output;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.Random;
-import java.util.Queue;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
 
 /**
  * Represents the game board.
  * Manages the grid of tiles and entity placement.
+ * Tile types are kept in a flat byte array and occupants in a sparse map,
+ * so a board costs about one byte per cell; {@link Tile} objects are created
+ * on demand as views. A {@link SpatialIndex} kept in step with the occupants
+ * answers questions about what is near a position without scanning the board.
  */
 public class Board implements Serializable {
     private static final long serialVersionUID = 1L;
     private int width;
     private int height;
-    private Tile[][] grid;
+    private byte[] tiles;
+    private Map<Long, Entity> occupants;
+    private transient SpatialIndex index;
 
     /**
      * Constructs a new Board with the specified dimensions.
@@ -25,93 +34,52 @@ public class Board implements Serializable {
      *
      * @param width  The width of the board.
      * @param height The height of the board.
+     * @param rand   The random stream used to generate the layout.
      */
-    public Board(int width, int height) {
+    public Board(int width, int height, SplittableRandom rand) {
         this.width = width;
         this.height = height;
-        this.grid = new Tile[height][width];
-        initializeBoard();
+        this.tiles = BoardGenerator.generate(width, height, rand);
+        this.occupants = new HashMap<>();
+        this.index = new SpatialIndex(this);
     }
 
     /**
-     * Initializes the board by generating random layouts until a connected board is formed.
+     * Constructs a Board with an existing layout, such as one read from a save file.
+     *
+     * @param width  The width of the board.
+     * @param height The height of the board.
+     * @param tiles  The tile types, row by row.
      */
-    private void initializeBoard() {
-        do {
-            generateRandomBoard();
-        } while (!isConnected());
+    Board(int width, int height, byte[] tiles) {
+        this.width = width;
+        this.height = height;
+        this.tiles = tiles;
+        this.occupants = new HashMap<>();
+        this.index = new SpatialIndex(this);
     }
 
     /**
-     * Generates a random board layout with Inaccessible, Market, and Common tiles.
+     * Constructs a Board whose tiles are supplied by a subclass.
+     * The dimensions describe the area shown by {@link #printBoard}.
+     *
+     * @param width  The width of the visible area.
+     * @param height The height of the visible area.
      */
-    private void generateRandomBoard() {
-        Random rand = new Random();
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int roll = rand.nextInt(100);
-                if (roll < 20) { // 20% Inaccessible
-                    grid[y][x] = new InaccessibleTile(x, y);
-                } else if (roll < 50) { // 30% Market
-                    grid[y][x] = new MarketTile(x, y);
-                } else { // 50% Common
-                    grid[y][x] = new CommonTile(x, y);
-                }
-            }
-        }
+    protected Board(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.occupants = new HashMap<>();
+        this.index = new SpatialIndex(this);
     }
 
     /**
-     * Checks if all accessible tiles on the board are connected.
+     * Gets the tile types of a bounded board, row by row.
      *
-     * @return True if the board is connected, false otherwise.
+     * @return The tile array, or null if a subclass supplies the tiles.
      */
-    private boolean isConnected() {
-        int totalAccessible = 0;
-        int startX = -1;
-        int startY = -1;
-
-        // Count accessible tiles and find a starting point
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                if (grid[y][x].isAccessible()) {
-                    totalAccessible++;
-                    if (startX == -1) {
-                        startX = x;
-                        startY = y;
-                    }
-                }
-            }
-        }
-
-        if (totalAccessible == 0) return false;
-
-        // BFS to find all reachable tiles
-        boolean[][] visited = new boolean[height][width];
-        Queue<int[]> queue = new LinkedList<>();
-        queue.add(new int[]{startX, startY});
-        visited[startY][startX] = true;
-        int reachableCount = 0;
-
-        int[] dx = {0, 0, 1, -1};
-        int[] dy = {1, -1, 0, 0};
-
-        while (!queue.isEmpty()) {
-            int[] curr = queue.poll();
-            reachableCount++;
-
-            for (int i = 0; i < 4; i++) {
-                int nx = curr[0] + dx[i];
-                int ny = curr[1] + dy[i];
-
-                if (isValidCoordinate(nx, ny) && !visited[ny][nx] && grid[ny][nx].isAccessible()) {
-                    visited[ny][nx] = true;
-                    queue.add(new int[]{nx, ny});
-                }
-            }
-        }
-
-        return reachableCount == totalAccessible;
+    byte[] getTiles() {
+        return tiles;
     }
 
     /**
@@ -140,13 +108,28 @@ public class Board implements Serializable {
      * @param y      The y-coordinate.
      */
     public void placeEntity(Entity entity, int x, int y) {
-        if (isValidCoordinate(x, y) && grid[y][x].isAccessible()) {
-            grid[y][x].setEntity(entity);
+        if (isValidCoordinate(x, y) && getTileType(x, y) != BoardGenerator.INACCESSIBLE) {
+            if (occupants.put(key(x, y), entity) != null) index.remove(x, y);
+            index.add(entity, x, y);
             entity.setX(x);
             entity.setY(y);
         }
     }
 
+    /**
+     * Removes the entity at the specified coordinates.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The entity removed, or null if the cell was empty.
+     */
+    public Entity removeEntity(int x, int y) {
+        if (!isValidCoordinate(x, y)) return null;
+        Entity removed = occupants.remove(key(x, y));
+        if (removed != null) index.remove(x, y);
+        return removed;
+    }
+
     /**
      * Gets the entity at the specified coordinates.
      *
@@ -155,12 +138,156 @@ public class Board implements Serializable {
      * @return The entity at the coordinates, or null if none.
      */
     public Entity getEntityAt(int x, int y) {
-        if (isValidCoordinate(x, y)) {
-            return grid[y][x].getEntity();
+        if (isValidCoordinate(x, y) && !occupants.isEmpty()) {
+            return occupants.get(key(x, y));
         }
         return null;
     }
 
+    /**
+     * Sets or clears the occupant of a cell without any movement checks.
+     *
+     * @param x      The x-coordinate.
+     * @param y      The y-coordinate.
+     * @param entity The new occupant, or null to clear the cell.
+     */
+    void setOccupant(int x, int y, Entity entity) {
+        if (!isValidCoordinate(x, y)) return;
+        if (entity == null) {
+            if (occupants.remove(key(x, y)) != null) index.remove(x, y);
+        } else {
+            if (occupants.put(key(x, y), entity) != null) index.remove(x, y);
+            index.add(entity, x, y);
+        }
+    }
+
+    /**
+     * Finds the entities of a kind within a number of steps of a position, ignoring obstacles.
+     *
+     * @param x      The x-coordinate.
+     * @param y      The y-coordinate.
+     * @param radius The greatest distance, in steps.
+     * @param kind   The kind of entity, such as {@code Monster.class}.
+     * @param <T>    The kind of entity.
+     * @return The entities, nearest first.
+     */
+    public <T extends Entity> List<T> findEntitiesWithin(int x, int y, int radius, Class<T> kind) {
+        return index.findWithin(x, y, radius, kind);
+    }
+
+    /**
+     * Finds the entities of a kind nearest to a position, ignoring obstacles.
+     *
+     * @param x    The x-coordinate.
+     * @param y    The y-coordinate.
+     * @param k    The most entities to find.
+     * @param kind The kind of entity, such as {@code Hero.class}.
+     * @param <T>  The kind of entity.
+     * @return Up to {@code k} entities, nearest first.
+     */
+    public <T extends Entity> List<T> findNearestEntities(int x, int y, int k, Class<T> kind) {
+        return index.findNearest(x, y, k, kind);
+    }
+
+    /**
+     * Finds the market tiles within a number of steps of a position, ignoring obstacles.
+     *
+     * @param x      The x-coordinate.
+     * @param y      The y-coordinate.
+     * @param radius The greatest distance, in steps.
+     * @return The market tiles, nearest first.
+     */
+    public List<Tile> findMarketsWithin(int x, int y, int radius) {
+        return tilesAt(index.findMarketsWithin(x, y, radius));
+    }
+
+    /**
+     * Finds the market tiles nearest to a position, ignoring obstacles.
+     * An endless board is only searched a limited distance.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @param k The most markets to find.
+     * @return Up to {@code k} market tiles, nearest first.
+     */
+    public List<Tile> findNearestMarkets(int x, int y, int k) {
+        return tilesAt(index.findNearestMarkets(x, y, k));
+    }
+
+    /**
+     * Creates the tile views for a list of positions.
+     *
+     * @param positions The positions as {x, y} pairs.
+     * @return The tiles.
+     */
+    private List<Tile> tilesAt(List<int[]> positions) {
+        List<Tile> tiles = new ArrayList<>(positions.size());
+        for (int[] position : positions) {
+            tiles.add(getTileAt(position[0], position[1]));
+        }
+        return tiles;
+    }
+
+    /**
+     * Restores a board after deserialization and rebuilds its spatial index.
+     * Boards saved by the original release kept a grid of {@link Tile} objects,
+     * which is converted to tile types and occupants.
+     *
+     * @param in The stream to read from.
+     * @throws IOException            If an I/O error occurs.
+     * @throws ClassNotFoundException If a serialized class cannot be found.
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        this.width = fields.get("width", 0);
+        this.height = fields.get("height", 0);
+        this.tiles = (byte[]) fields.get("tiles", null);
+        this.occupants = (Map<Long, Entity>) fields.get("occupants", null);
+        if (occupants == null) {
+            occupants = new HashMap<>();
+        }
+        if (fields.getObjectStreamClass().getField("grid") != null) {
+            readGrid((Tile[][]) fields.get("grid", null));
+        }
+        this.index = new SpatialIndex(this);
+        for (Map.Entry<Long, Entity> entry : occupants.entrySet()) {
+            long key = entry.getKey();
+            index.add(entry.getValue(), (int) key, (int) (key >> 32));
+        }
+    }
+
+    /**
+     * Converts a grid of tiles, as saved by the original release, to tile types and occupants.
+     *
+     * @param grid The tiles, indexed by row then column.
+     * @throws InvalidObjectException If the grid does not match the board's size.
+     */
+    private void readGrid(Tile[][] grid) throws InvalidObjectException {
+        if (grid == null || grid.length != height) {
+            throw new InvalidObjectException("Board grid does not match its size.");
+        }
+        tiles = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            if (grid[y] == null || grid[y].length != width) {
+                throw new InvalidObjectException("Board grid does not match its size.");
+            }
+            for (int x = 0; x < width; x++) {
+                Tile tile = grid[y][x];
+                if (tile instanceof MarketTile) {
+                    tiles[y * width + x] = BoardGenerator.MARKET;
+                } else if (tile instanceof InaccessibleTile) {
+                    tiles[y * width + x] = BoardGenerator.INACCESSIBLE;
+                } else {
+                    tiles[y * width + x] = BoardGenerator.COMMON;
+                }
+                if (tile != null && tile.entity != null) {
+                    occupants.put(key(x, y), tile.entity);
+                }
+            }
+        }
+    }
+
     /**
      * Gets the tile at the specified coordinates.
      *
@@ -169,10 +296,29 @@ public class Board implements Serializable {
      * @return The tile at the coordinates, or null if invalid.
      */
     public Tile getTileAt(int x, int y) {
-        if (isValidCoordinate(x, y)) {
-            return grid[y][x];
+        if (!isValidCoordinate(x, y)) {
+            return null;
         }
-        return null;
+        switch (getTileType(x, y)) {
+            case BoardGenerator.INACCESSIBLE:
+                return new InaccessibleTile(x, y).attach(this);
+            case BoardGenerator.MARKET:
+                return new MarketTile(x, y).attach(this);
+            default:
+                return new CommonTile(x, y).attach(this);
+        }
+    }
+
+    /**
+     * Gets the type of the tile at the specified coordinates without creating a view.
+     * The coordinates must be valid.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return One of the BoardGenerator tile type constants.
+     */
+    byte getTileType(int x, int y) {
+        return tiles[y * width + x];
     }
 
     /**
@@ -190,23 +336,21 @@ public class Board implements Serializable {
             return false;
         }
         
-        Tile fromTile = grid[fromY][fromX];
-        Tile toTile = grid[toY][toX];
-
-        if (!toTile.isAccessible()) {
+        if (getTileType(toX, toY) == BoardGenerator.INACCESSIBLE) {
             if (output != null) output.println("Cannot move to inaccessible tile!");
             return false;
         }
 
-        if (toTile.isOccupied()) {
+        Long toKey = key(toX, toY);
+        if (occupants.containsKey(toKey)) {
             if (output != null) output.println("Tile is already occupied!");
             return false;
         }
 
-        Entity entity = fromTile.getEntity();
+        Entity entity = occupants.remove(key(fromX, fromY));
         if (entity != null) {
-            fromTile.setEntity(null);
-            toTile.setEntity(entity);
+            occupants.put(toKey, entity);
+            index.move(fromX, fromY, toX, toY);
             entity.setX(toX);
             entity.setY(toY);
             return true;
@@ -221,15 +365,38 @@ public class Board implements Serializable {
      * @param y The y-coordinate.
      * @return True if valid, false otherwise.
      */
-    private boolean isValidCoordinate(int x, int y) {
+    boolean isValidCoordinate(int x, int y) {
         return x >= 0 && x < width && y >= 0 && y < height;
     }
 
-    private static final String ANSI_RESET = "\u001B[0m";
-    private static final String ANSI_RED = "\u001B[31m";
-    private static final String ANSI_GREEN = "\u001B[32m";
-    private static final String ANSI_YELLOW = "\u001B[33m";
-    private static final String ANSI_BLUE = "\u001B[34m";
+    /**
+     * Gets the x-coordinate of the left edge of the area shown by {@link #printBoard}.
+     *
+     * @return The leftmost visible x-coordinate.
+     */
+    int getViewX() {
+        return 0;
+    }
+
+    /**
+     * Gets the y-coordinate of the top edge of the area shown by {@link #printBoard}.
+     *
+     * @return The topmost visible y-coordinate.
+     */
+    int getViewY() {
+        return 0;
+    }
+
+    /**
+     * Packs a coordinate pair into an occupant map key.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The packed key.
+     */
+    private static long key(int x, int y) {
+        return ((long) y << 32) | (x & 0xffffffffL);
+    }
 
     /**
      * Prints the current state of the board to the output.
@@ -237,51 +404,8 @@ public class Board implements Serializable {
      * @param output The output interface.
      */
     public void printBoard(Output output) {
-        // Print top border
-        output.print("   ");
-        for (int x = 0; x < width; x++) {
-            output.print("+---");
-        }
-        output.println("+");
-
-        for (int y = 0; y < height; y++) {
-            output.print(String.format("%2d ", y)); // Row number
-            for (int x = 0; x < width; x++) {
-                output.print("| ");
-                Tile tile = grid[y][x];
-                if (tile.isOccupied()) {
-                    Entity entity = tile.getEntity();
-                    if (entity instanceof Hero) {
-                        output.print(ANSI_GREEN + "H" + ANSI_RESET + " ");
-                    } else if (entity instanceof Monster) {
-                        output.print(ANSI_RED + "M" + ANSI_RESET + " ");
-                    } else {
-                        output.print("? ");
-                    }
-                } else {
-                    if (tile instanceof MarketTile) {
-                        output.print(ANSI_YELLOW + "M" + ANSI_RESET + " ");
-                    } else if (tile instanceof InaccessibleTile) {
-                        output.print(ANSI_BLUE + "X" + ANSI_RESET + " ");
-                    } else {
-                        output.print("  "); // Empty space for common tiles looks cleaner
-                    }
-                }
-            }
-            output.println("|");
-            
-            // Print row separator
-            output.print("   ");
-            for (int x = 0; x < width; x++) {
-                output.print("+---");
-            }
-            output.println("+");
-        }
-
-        output.println("\nMap Legend:");
-        output.println(ANSI_GREEN + "H" + ANSI_RESET + " : Hero      " + 
-                       ANSI_YELLOW + "M" + ANSI_RESET + " : Market");
-        output.println(ANSI_BLUE + "X" + ANSI_RESET + " : Inaccessible  " + 
-                       "  : Common Land");
+        StringBuilder frame = new StringBuilder(64 * (2 * height + 6));
+        BoardRenderer.appendFrame(this, frame, null);
+        output.print(frame);
     }
 }
@@ -0,0 +1,235 @@
+package com.legends.game;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates board layouts as flat arrays of tile types.
+ * Layouts are produced in a single linear pass and then repaired so that
+ * every accessible tile is reachable, instead of being regenerated until
+ * a connected layout happens to come up.
+ */
+final class BoardGenerator {
+    static final byte COMMON = 0;
+    static final byte MARKET = 1;
+    static final byte INACCESSIBLE = 2;
+
+    // During the repair search each tile byte also holds, above its type, the direction
+    // to the tile's parent and whether its path to the start has been opened
+    private static final int TYPE_MASK = 0x3;
+    private static final int UP = 1;
+    private static final int DOWN = 2;
+    private static final int LEFT = 3;
+    private static final int RIGHT = 4;
+    private static final int ROOT = 5;
+    private static final int PARENT_SHIFT = 2;
+    private static final int PARENT_MASK = 0x7 << PARENT_SHIFT;
+    private static final int LINKED = 0x20;
+    private static final int MIN_DEQUE_CAPACITY = 64;
+
+    private BoardGenerator() {
+    }
+
+    /**
+     * Generates a connected layout with roughly 20% Inaccessible, 30% Market and 50% Common tiles.
+     *
+     * @param width  The width of the board.
+     * @param height The height of the board.
+     * @param rand   The random stream to draw from.
+     * @return The tile types in row-major order.
+     */
+    static byte[] generate(int width, int height, SplittableRandom rand) {
+        byte[] tiles = new byte[width * height];
+        fill(tiles, rand);
+        connect(tiles, width, height, rand);
+        return tiles;
+    }
+
+    /**
+     * Rolls every tile independently with the 20/30/50 Inaccessible/Market/Common mix.
+     * The result is not necessarily connected.
+     *
+     * @param tiles The tile types to fill in place.
+     * @param rand  The random stream to draw from.
+     */
+    static void fill(byte[] tiles, SplittableRandom rand) {
+        for (int i = 0; i < tiles.length; i++) {
+            int roll = rand.nextInt(100);
+            if (roll < 20) { // 20% Inaccessible
+                tiles[i] = INACCESSIBLE;
+            } else if (roll < 50) { // 30% Market
+                tiles[i] = MARKET;
+            } else { // 50% Common
+                tiles[i] = COMMON;
+            }
+        }
+    }
+
+    /**
+     * Rolls an accessible tile type with the same 30:50 Market/Common split as generation.
+     *
+     * @param rand The random stream to draw from.
+     * @return Either MARKET or COMMON.
+     */
+    static byte rollAccessible(SplittableRandom rand) {
+        return rand.nextInt(80) < 30 ? MARKET : COMMON;
+    }
+
+    /**
+     * Makes every accessible tile reachable from every other one.
+     * A 0-1 breadth-first search from the first accessible tile finds, for each tile,
+     * a path that crosses the fewest inaccessible tiles. Walking those paths back from
+     * every accessible tile and opening up the inaccessible tiles on the way joins all
+     * regions. Each tile is queued and walked at most once, so the repair is linear.
+     * The search keeps each tile's parent in the spare bits of its byte, and its deque
+     * grows with the search frontier instead of being sized for the whole board.
+     *
+     * @param tiles  The tile types in row-major order, modified in place.
+     * @param width  The width of the board.
+     * @param height The height of the board.
+     * @param rand   The random stream used to pick the type of opened tiles.
+     */
+    static void connect(byte[] tiles, int width, int height, SplittableRandom rand) {
+        int n = tiles.length;
+        int start = -1;
+        for (int i = 0; i < n; i++) {
+            if (tiles[i] != INACCESSIBLE) {
+                start = i;
+                break;
+            }
+        }
+        if (start < 0) {
+            start = 0;
+            tiles[0] = rollAccessible(rand);
+        }
+
+        CellDeque deque = new CellDeque(Math.max(MIN_DEQUE_CAPACITY, 2 * (width + height)));
+        tiles[start] |= ROOT << PARENT_SHIFT;
+        deque.addLast(start);
+
+        while (!deque.isEmpty()) {
+            int cell = deque.pollFirst();
+            int x = cell % width;
+            int y = cell / width;
+
+            for (int dir = UP; dir <= RIGHT; dir++) {
+                int nx = x;
+                int ny = y;
+                int back;
+                switch (dir) {
+                    case UP: ny--; back = DOWN; break;
+                    case DOWN: ny++; back = UP; break;
+                    case LEFT: nx--; back = RIGHT; break;
+                    default: nx++; back = LEFT; break;
+                }
+                if (nx < 0 || nx >= width || ny < 0 || ny >= height) continue;
+                int next = ny * width + nx;
+                if ((tiles[next] & PARENT_MASK) != 0) continue;
+
+                tiles[next] |= back << PARENT_SHIFT;
+                if ((tiles[next] & TYPE_MASK) != INACCESSIBLE) {
+                    // Free step: search it before anything that needs a tile opened
+                    deque.addFirst(next);
+                } else {
+                    deque.addLast(next);
+                }
+            }
+        }
+
+        tiles[start] |= LINKED;
+        for (int i = 0; i < n; i++) {
+            if ((tiles[i] & TYPE_MASK) == INACCESSIBLE) continue;
+            int cell = i;
+            while ((tiles[cell] & LINKED) == 0) {
+                tiles[cell] |= LINKED;
+                if ((tiles[cell] & TYPE_MASK) == INACCESSIBLE) {
+                    tiles[cell] = (byte) ((tiles[cell] & ~TYPE_MASK) | rollAccessible(rand));
+                }
+                switch ((tiles[cell] & PARENT_MASK) >> PARENT_SHIFT) {
+                    case UP: cell -= width; break;
+                    case DOWN: cell += width; break;
+                    case LEFT: cell--; break;
+                    default: cell++; break;
+                }
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            tiles[i] &= TYPE_MASK;
+        }
+    }
+
+    /**
+     * A double-ended queue of tile indices in a ring buffer that doubles when full.
+     */
+    private static final class CellDeque {
+        private int[] cells;
+        private int head;
+        private int size;
+
+        /**
+         * Constructs an empty deque.
+         *
+         * @param capacity The initial capacity.
+         */
+        CellDeque(int capacity) {
+            cells = new int[capacity];
+        }
+
+        /**
+         * Checks if the deque is empty.
+         *
+         * @return True if there are no cells queued.
+         */
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Queues a cell at the front.
+         *
+         * @param cell The tile index.
+         */
+        void addFirst(int cell) {
+            if (size == cells.length) grow();
+            head = head == 0 ? cells.length - 1 : head - 1;
+            cells[head] = cell;
+            size++;
+        }
+
+        /**
+         * Queues a cell at the back.
+         *
+         * @param cell The tile index.
+         */
+        void addLast(int cell) {
+            if (size == cells.length) grow();
+            int tail = head + size;
+            cells[tail < cells.length ? tail : tail - cells.length] = cell;
+            size++;
+        }
+
+        /**
+         * Takes the cell at the front.
+         *
+         * @return The tile index.
+         */
+        int pollFirst() {
+            int cell = cells[head];
+            head = head + 1 == cells.length ? 0 : head + 1;
+            size--;
+            return cell;
+        }
+
+        /**
+         * Doubles the capacity, moving the queued cells to the start of the new buffer.
+         */
+        private void grow() {
+            int[] grown = new int[cells.length * 2];
+            int first = Math.min(size, cells.length - head);
+            System.arraycopy(cells, head, grown, 0, first);
+            System.arraycopy(cells, 0, grown, first, size - first);
+            cells = grown;
+            head = 0;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.legends.game;
+
+import com.legends.io.Output;
+import com.legends.model.Entity;
+import com.legends.model.Hero;
+import com.legends.model.Monster;
+
+/**
+ * Draws the board to an ANSI terminal.
+ * The renderer remembers the last frame it drew. While nothing else has been printed
+ * since then, the next frame is sent as a diff: only cells whose glyph changed are
+ * redrawn, using relative cursor movement, and the prompt line is cleared for reuse.
+ * Cursor movement counts screen lines, so diffs are only sent while every board line
+ * and the prompt fit in the terminal's width; a line that wraps would throw the count
+ * off, so narrower terminals always get the whole board.
+ * Every frame, full or partial, is assembled in one buffer and written with a single call.
+ */
+public class BoardRenderer {
+    private static final String ANSI_RESET = "\u001B[0m";
+    private static final String ANSI_RED = "\u001B[31m";
+    private static final String ANSI_GREEN = "\u001B[32m";
+    private static final String ANSI_YELLOW = "\u001B[33m";
+    private static final String ANSI_BLUE = "\u001B[34m";
+    private static final String ESC = "\u001B[";
+
+    private static final byte GLYPH_COMMON = 0;
+    private static final byte GLYPH_MARKET = 1;
+    private static final byte GLYPH_INACCESSIBLE = 2;
+    private static final byte GLYPH_HERO = 3;
+    private static final byte GLYPH_MONSTER = 4;
+    private static final byte GLYPH_OTHER = 5;
+    private static final String[] GLYPHS = {
+        " ", // Empty space for common tiles looks cleaner
+        ANSI_YELLOW + "M" + ANSI_RESET,
+        ANSI_BLUE + "X" + ANSI_RESET,
+        ANSI_GREEN + "H" + ANSI_RESET,
+        ANSI_RED + "M" + ANSI_RESET,
+        "?"
+    };
+
+    // Lines printed after the last board row: blank line, legend title and two legend lines
+    private static final int LEGEND_LINES = 4;
+    private static final int LEGEND_WIDTH = 39; // The longer legend line, without colour codes
+    public static final int DEFAULT_COLUMNS = 80;
+
+    private final int columns;
+    private final StringBuilder buffer = new StringBuilder(4096);
+    private byte[] frame;
+    private int frameWidth;
+    private int frameHeight;
+    private boolean valid;
+
+    /**
+     * Constructs a new BoardRenderer.
+     *
+     * @param columns The width of the terminal in characters.
+     */
+    public BoardRenderer(int columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Forgets the last frame so that the next render draws the whole board.
+     * Must be called whenever anything other than the prompt and the player's
+     * input has been printed since the last render.
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Draws the board followed by a prompt, sending only the changed cells if the last
+     * frame is still on screen. Assumes the cursor sits on the line below the prompt that
+     * followed the last frame, where the terminal leaves it after echoing the player's input.
+     *
+     * @param board  The board to draw.
+     * @param output The output interface.
+     * @param prompt The prompt to print after the board.
+     */
+    public void render(Board board, Output output, String prompt) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        buffer.setLength(0);
+
+        if (!valid || frame == null || width != frameWidth || height != frameHeight) {
+            if (frame == null || frame.length != width * height) {
+                frame = new byte[width * height];
+            }
+            frameWidth = width;
+            frameHeight = height;
+            appendFrame(board, buffer, frame);
+        } else {
+            appendDiff(board);
+        }
+        buffer.append(prompt);
+        // Leave room for the echoed move, so the prompt line never wraps
+        valid = fits(width, prompt.length() + 1);
+        output.print(buffer);
+    }
+
+    /**
+     * Checks whether a frame and its prompt fit in the terminal without wrapping.
+     *
+     * @param width       The width of the board in cells.
+     * @param promptWidth The characters on the prompt line, including the player's input.
+     * @return True if no line is wider than the terminal.
+     */
+    private boolean fits(int width, int promptWidth) {
+        int frameColumns = 4 + 4 * width; // Row number, then four characters per cell and the closing bar
+        return Math.max(frameColumns, LEGEND_WIDTH) <= columns && promptWidth < columns;
+    }
+
+    /**
+     * Appends the changed cells of the board, then returns the cursor to the start
+     * of a cleared prompt line.
+     *
+     * @param board The board to draw.
+     */
+    private void appendDiff(Board board) {
+        int viewX = board.getViewX();
+        int viewY = board.getViewY();
+        int promptLine = 2 * frameHeight + 1 + LEGEND_LINES;
+        int cursorLine = promptLine + 1;
+
+        for (int y = 0; y < frameHeight; y++) {
+            int row = y * frameWidth;
+            for (int x = 0; x < frameWidth; x++) {
+                byte glyph = glyphAt(board, viewX + x, viewY + y);
+                if (glyph == frame[row + x]) continue;
+                frame[row + x] = glyph;
+
+                int line = 2 * y + 1;
+                moveLines(cursorLine - line);
+                cursorLine = line;
+                buffer.append(ESC).append(6 + 4 * x).append('G').append(GLYPHS[glyph]);
+            }
+        }
+
+        moveLines(cursorLine - promptLine);
+        buffer.append('\r').append(ESC).append('J');
+    }
+
+    /**
+     * Appends a relative vertical cursor movement.
+     *
+     * @param up The number of lines to move up; negative values move down.
+     */
+    private void moveLines(int up) {
+        if (up > 0) {
+            buffer.append(ESC).append(up).append('A');
+        } else if (up < 0) {
+            buffer.append(ESC).append(-up).append('B');
+        }
+    }
+
+    /**
+     * Appends a complete drawing of the board and its legend.
+     *
+     * @param board  The board to draw.
+     * @param out    The buffer to append to.
+     * @param glyphs If not null, receives the glyph drawn for each cell in row-major order.
+     */
+    static void appendFrame(Board board, StringBuilder out, byte[] glyphs) {
+        int width = board.getWidth();
+        int height = board.getHeight();
+        int viewX = board.getViewX();
+        int viewY = board.getViewY();
+
+        appendBorder(out, width);
+        for (int y = 0; y < height; y++) {
+            if (y < 10) out.append(' '); // Row number
+            out.append(y).append(' ');
+            for (int x = 0; x < width; x++) {
+                byte glyph = glyphAt(board, viewX + x, viewY + y);
+                if (glyphs != null) glyphs[y * width + x] = glyph;
+                out.append("| ").append(GLYPHS[glyph]).append(' ');
+            }
+            out.append("|\n");
+            appendBorder(out, width);
+        }
+
+        out.append("\nMap Legend:\n");
+        out.append(GLYPHS[GLYPH_HERO]).append(" : Hero      ")
+           .append(GLYPHS[GLYPH_MARKET]).append(" : Market    ")
+           .append(GLYPHS[GLYPH_MONSTER]).append(" : Monster\n");
+        out.append(GLYPHS[GLYPH_INACCESSIBLE]).append(" : Inaccessible  ")
+           .append("  : Common Land\n");
+    }
+
+    /**
+     * Appends a row border.
+     *
+     * @param out   The buffer to append to.
+     * @param width The width of the board.
+     */
+    private static void appendBorder(StringBuilder out, int width) {
+        out.append("   ");
+        for (int x = 0; x < width; x++) {
+            out.append("+---");
+        }
+        out.append("+\n");
+    }
+
+    /**
+     * Determines the glyph shown for a cell.
+     *
+     * @param board The board.
+     * @param x     The x-coordinate.
+     * @param y     The y-coordinate.
+     * @return The glyph code.
+     */
+    private static byte glyphAt(Board board, int x, int y) {
+        Entity entity = board.getEntityAt(x, y);
+        if (entity != null) {
+            if (entity instanceof Hero) return GLYPH_HERO;
+            if (entity instanceof Monster) return GLYPH_MONSTER;
+            return GLYPH_OTHER;
+        }
+        switch (board.getTileType(x, y)) {
+            case BoardGenerator.MARKET:
+                return GLYPH_MARKET;
+            case BoardGenerator.INACCESSIBLE:
+                return GLYPH_INACCESSIBLE;
+            default:
+                return GLYPH_COMMON;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.legends.game;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A bounded least-recently-used cache of world chunks.
+ * Chunks pushed out of the cache are spilled to a temporary directory and read back
+ * when revisited, so a chunk is generated only once and memory use does not grow
+ * with the distance travelled. The spilled chunks are deleted by {@link #close()},
+ * or when the program exits.
+ */
+class ChunkCache {
+    private static final Set<File> openDirectories = new LinkedHashSet<>(); // Deleted by the shutdown hook
+    private static boolean hookInstalled;
+
+    private final InfiniteBoard board;
+    private final int capacity;
+    private final LinkedHashMap<Long, byte[]> chunks;
+    private File spillDirectory;
+    private long lastKey;
+    private byte[] lastChunk;
+
+    /**
+     * Constructs a new ChunkCache.
+     *
+     * @param board    The board that generates missing chunks.
+     * @param capacity The maximum number of chunks kept in memory.
+     */
+    ChunkCache(InfiniteBoard board, int capacity) {
+        this.board = board;
+        this.capacity = capacity;
+        this.chunks = new LinkedHashMap<Long, byte[]>(capacity * 2, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                if (size() <= ChunkCache.this.capacity) {
+                    return false;
+                }
+                spill(eldest.getKey(), eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Gets the tile types of a chunk, loading or generating it if necessary.
+     *
+     * @param chunkX The chunk's x-index.
+     * @param chunkY The chunk's y-index.
+     * @return The chunk's tile types in row-major order.
+     */
+    byte[] get(int chunkX, int chunkY) {
+        long key = key(chunkX, chunkY);
+        // Consecutive lookups mostly hit the same chunk, so skip the map for those
+        if (lastChunk != null && key == lastKey) {
+            return lastChunk;
+        }
+
+        byte[] chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = load(chunkX, chunkY);
+            if (chunk == null) {
+                chunk = board.generateChunk(chunkX, chunkY);
+            }
+            chunks.put(key, chunk);
+        }
+        lastKey = key;
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    /**
+     * Gets the number of chunks currently held in memory.
+     *
+     * @return The cached chunk count.
+     */
+    int size() {
+        return chunks.size();
+    }
+
+    /**
+     * Deletes the spilled chunks. The cache stays usable; chunks evicted
+     * from now on are spilled to a new directory.
+     */
+    void close() {
+        if (spillDirectory == null) {
+            return;
+        }
+        synchronized (openDirectories) {
+            openDirectories.remove(spillDirectory);
+        }
+        delete(spillDirectory);
+        spillDirectory = null;
+    }
+
+    /**
+     * Writes an evicted chunk to the spill directory.
+     * Chunk contents never change once generated, so a chunk that has already
+     * been spilled is not written again.
+     *
+     * @param key   The packed chunk coordinates.
+     * @param chunk The chunk's tile types.
+     */
+    private void spill(long key, byte[] chunk) {
+        try {
+            if (spillDirectory == null) {
+                spillDirectory = Files.createTempDirectory("legends-world").toFile();
+                register(spillDirectory);
+            }
+            File file = chunkFile((int) (key >> 32), (int) key);
+            if (!file.exists()) {
+                Files.write(file.toPath(), chunk);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to spill world chunk", e);
+        }
+    }
+
+    /**
+     * Reads a previously spilled chunk.
+     *
+     * @param chunkX The chunk's x-index.
+     * @param chunkY The chunk's y-index.
+     * @return The chunk's tile types, or null if it was never spilled.
+     */
+    private byte[] load(int chunkX, int chunkY) {
+        if (spillDirectory == null) {
+            return null;
+        }
+        File file = chunkFile(chunkX, chunkY);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to reload world chunk", e);
+        }
+    }
+
+    /**
+     * Gets the spill file for a chunk.
+     *
+     * @param chunkX The chunk's x-index.
+     * @param chunkY The chunk's y-index.
+     * @return The spill file.
+     */
+    private File chunkFile(int chunkX, int chunkY) {
+        return new File(spillDirectory, "chunk_" + chunkX + "_" + chunkY + ".bin");
+    }
+
+    /**
+     * Records a spill directory to delete at exit, installing the shutdown hook on first use.
+     *
+     * @param directory The spill directory.
+     */
+    private static void register(File directory) {
+        synchronized (openDirectories) {
+            openDirectories.add(directory);
+            if (!hookInstalled) {
+                Runtime.getRuntime().addShutdownHook(new Thread(ChunkCache::deleteOpenDirectories, "chunk-cleanup"));
+                hookInstalled = true;
+            }
+        }
+    }
+
+    /**
+     * Deletes every spill directory not yet closed.
+     */
+    private static void deleteOpenDirectories() {
+        synchronized (openDirectories) {
+            for (File directory : openDirectories) {
+                delete(directory);
+            }
+            openDirectories.clear();
+        }
+    }
+
+    /**
+     * Deletes a spill directory and the chunks in it.
+     *
+     * @param directory The spill directory.
+     */
+    private static void delete(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    /**
+     * Packs chunk coordinates into a cache key.
+     *
+     * @param chunkX The chunk's x-index.
+     * @param chunkY The chunk's y-index.
+     * @return The packed key.
+     */
+    private static long key(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xffffffffL);
+    }
+}
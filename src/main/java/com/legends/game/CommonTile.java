@@ -5,6 +5,8 @@ package com.legends.game;
  * Common tiles are accessible and may trigger battles.
  */
 public class CommonTile extends Tile {
+    private static final long serialVersionUID = -2340528736900457341L;
+
     /**
      * Constructs a new CommonTile at the specified coordinates.
      *
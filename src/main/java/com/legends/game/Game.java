@@ -2,12 +2,17 @@ package com.legends.game;
 
 import com.legends.model.*;
 import com.legends.utils.DataLoader;
+import com.legends.utils.GameRandom;
 import com.legends.io.Input;
 import com.legends.io.Output;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.SplittableRandom;
 
 /**
  * The main game controller.
@@ -15,14 +20,39 @@ import java.util.List;
  */
 public class Game implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final String SAVES_DIR = "saves";
+    // Single save files from before save slots; imported into the first slot
+    private static final String OLD_SAVE_FILE = "savegame.dat";
+    private static final String OLD_JOURNAL_FILE = "savegame.journal";
+    private static final String LEGACY_SAVE_FILE = "savegame.ser";
+    private static final int MARKET_PAGE_SIZE = 10;
+    private static final int AUTOSAVE_INTERVAL = 10; // Moves between autosaves
+    private static final int CHECKPOINT_INTERVAL = 200; // Journal events between checkpoints
     private List<Hero> heroes;
     private Party party;
     private List<Monster> monsters;
+    private transient MonsterCatalog monsterCatalog;
+    private transient MarketCatalog marketCatalog;
+    private transient Markets markets;
+    private transient PathFinder pathFinder;
+    private transient WorldSimulation world;
+    private transient int battles; // Battles fought this session
     private List<Item> items;
     private Board board;
     private boolean isRunning;
     private transient Input input;
     private transient Output output;
+    private transient GameRandom random;
+    private transient BoardRenderer renderer;
+    private transient SaveSlots saveSlots;
+    private transient AutoSaver autoSaver;
+    private transient int slot;
+    private transient long playTime; // Milliseconds played before this session
+    private transient long sessionStart;
+    private transient int movesSinceSave;
+    private transient boolean journaling;
+    private transient Journal journal;
+    private transient File battleRecordDir;
     private boolean gameRunning;
     private String difficulty = "Normal";
 
@@ -33,6 +63,17 @@ public class Game implements Serializable {
      * @param output The output interface.
      */
     public Game(Input input, Output output) {
+        this(input, output, new GameRandom());
+    }
+
+    /**
+     * Constructs a new Game instance with a given source of randomness.
+     *
+     * @param input  The input interface.
+     * @param output The output interface.
+     * @param random The random streams for this session.
+     */
+    public Game(Input input, Output output, GameRandom random) {
         this.heroes = new ArrayList<>();
         this.party = new Party();
         this.monsters = new ArrayList<>();
@@ -40,6 +81,51 @@ public class Game implements Serializable {
         this.isRunning = true;
         this.input = input;
         this.output = output;
+        this.random = random;
+        this.saveSlots = new SaveSlots(Paths.get(SAVES_DIR));
+        this.autoSaver = new AutoSaver(saveSlots);
+    }
+
+    /**
+     * Enables or disables incremental board rendering.
+     * When enabled, moves that print nothing else redraw only the cells that changed;
+     * this requires an ANSI terminal that echoes the player's input.
+     *
+     * @param enabled Whether to render the board incrementally.
+     * @param columns The width of the terminal in characters.
+     */
+    public void setIncrementalRendering(boolean enabled, int columns) {
+        this.renderer = enabled ? new BoardRenderer(columns) : null;
+    }
+
+    /**
+     * Enables or disables the save journal.
+     * When enabled, a session is saved as an append-only journal of changes
+     * with periodic checkpoints instead of rewriting the whole save.
+     *
+     * @param enabled Whether to journal sessions.
+     */
+    public void setJournaling(boolean enabled) {
+        this.journaling = enabled;
+    }
+
+    /**
+     * Enables or disables compression of saved games.
+     *
+     * @param enabled Whether to compress saves.
+     */
+    public void setSaveCompression(boolean enabled) {
+        autoSaver.setCompression(enabled);
+    }
+
+    /**
+     * Records every battle to a log file in the given directory,
+     * for replaying later with {@link BattleReplay}.
+     *
+     * @param dir The directory for battle logs, or null to stop recording.
+     */
+    public void setBattleRecording(File dir) {
+        this.battleRecordDir = dir;
     }
 
     /**
@@ -56,14 +142,11 @@ public class Game implements Serializable {
             monsters.addAll(DataLoader.loadMonsters("Spirits.csv", "Spirit"));
             monsters.addAll(DataLoader.loadMonsters("Dragons.csv", "Dragon"));
             monsters.addAll(DataLoader.loadMonsters("Exoskeletons.csv", "Exoskeleton"));
+            monsterCatalog = new MonsterCatalog(monsters);
 
             // Load Items
-            items.addAll(DataLoader.loadWeapons("Weaponry.csv"));
-            items.addAll(DataLoader.loadArmor("Armory.csv"));
-            items.addAll(DataLoader.loadPotions("Potions.csv"));
-            items.addAll(DataLoader.loadSpells("FireSpells.csv", "Fire"));
-            items.addAll(DataLoader.loadSpells("IceSpells.csv", "Ice"));
-            items.addAll(DataLoader.loadSpells("LightningSpells.csv", "Lightning"));
+            items.addAll(DataLoader.loadItemCatalog());
+            marketCatalog = new MarketCatalog(items);
 
         } catch (IOException e) {
             output.printError("Error loading game data: " + e.getMessage());
@@ -76,6 +159,7 @@ public class Game implements Serializable {
      */
     public void start() {
         output.println("Welcome to Legends: Monsters and Heroes!");
+        importOldSave();
         
         while (isRunning) {
             try {
@@ -113,6 +197,8 @@ public class Game implements Serializable {
                 output.println("\nReturning to Main Menu...");
             }
         }
+        // Let a save still being written finish before the program exits
+        autoSaver.flush();
     }
 
     /**
@@ -120,12 +206,48 @@ public class Game implements Serializable {
      * Handles difficulty selection, board setup, party initialization, and the game loop.
      */
     private void startGame() {
+        autoSaver.flush();
+        try {
+            slot = saveSlots.newSlot();
+        } catch (IOException e) {
+            output.printError("Error reading saved games: " + e.getMessage());
+            return;
+        }
+        playTime = 0;
         selectDifficulty();
         resetGame();
         setupBoard();
+        markets = new Markets(random.getMarkets().nextLong());
         initializeParty();
         placeHeroesOnBoard();
-        gameLoop();
+        playSession();
+    }
+
+    /**
+     * Runs the game loop for a new or loaded session, journaling it if enabled.
+     */
+    private void playSession() {
+        sessionStart = System.currentTimeMillis();
+        startWorld();
+        if (journaling) {
+            journal = new Journal(saveSlots.journalFile(slot), CHECKPOINT_INTERVAL);
+            checkpointJournal();
+        }
+        try {
+            gameLoop();
+        } finally {
+            if (journal != null) {
+                autoSaver.syncJournal(journal, describeSave(new SaveData(difficulty, party, board, markets, items)), true);
+                autoSaver.flush();
+                IOException saveError = autoSaver.pollError();
+                if (saveError == null) saveError = journal.pollError();
+                if (saveError != null) output.printError("Error saving game: " + saveError.getMessage());
+                journal = null;
+            }
+            if (board instanceof InfiniteBoard) {
+                ((InfiniteBoard) board).close();
+            }
+        }
     }
 
     /**
@@ -155,6 +277,8 @@ public class Game implements Serializable {
         items.clear();
         party = new Party();
         board = null;
+        markets = null;
+        world = null;
         init();
     }
 
@@ -171,12 +295,14 @@ public class Game implements Serializable {
         output.println("  M = Market (buy/sell weapons, armor, potions, spells)");
         output.println("  - = Common land (you may encounter monsters)");
         output.println("  X = Inaccessible tile (you cannot step there)");
+        output.println("  M (red) = Roaming monster; it attacks if it reaches you, or fight it by walking into it");
         output.println("");
         output.println("Controls during exploration:");
         output.println("  W = move up");
         output.println("  A = move left");
         output.println("  S = move down");
         output.println("  D = move right");
+        output.println("  T = travel to the nearest market or to a position (x y) by the shortest route");
         output.println("  M = enter market if you are on a Market tile");
         output.println("  I = show party info (stats, equipment, gold)");
         output.println("  Q = quit the current game and return to the main menu");
@@ -201,16 +327,33 @@ public class Game implements Serializable {
      */
     private void gameLoop() {
         gameRunning = true;
+        if (renderer != null) renderer.invalidate();
         while (gameRunning) {
-            if (board != null) board.printBoard(output);
-            
-            output.print("Enter move (W/A/S/D), I for Info, H for Hero Menu, M for Market, K to Save, or Q to quit: ");
+            IOException saveError = autoSaver.pollError();
+            if (saveError == null && journal != null) {
+                saveError = journal.pollError();
+            }
+            if (saveError != null) {
+                output.printError("Error saving game: " + saveError.getMessage());
+                if (renderer != null) renderer.invalidate();
+            }
+            String prompt = "Enter move (W/A/S/D), T to Travel, I for Info, H for Hero Menu, M for Market, K to Save, or Q to quit: ";
+            if (board != null && renderer != null) {
+                renderer.render(board, output, prompt);
+            } else {
+                if (board != null) board.printBoard(output);
+                output.print(prompt);
+            }
             String dir = input.readLine().toUpperCase();
 
+            // Anything printed besides the prompt scrolls the last frame, so it must be redrawn in full
+            boolean quiet = false;
             if (dir.equals("Q")) {
                 gameRunning = false;
             } else if (dir.equals("W") || dir.equals("A") || dir.equals("S") || dir.equals("D")) {
-                processMove(dir);
+                quiet = processMove(dir);
+            } else if (dir.equals("T")) {
+                travel();
             } else if (dir.equals("I")) {
                 showInfoMenu();
             } else if (dir.equals("H")) {
@@ -228,6 +371,7 @@ public class Game implements Serializable {
             } else {
                 output.println("Invalid input.");
             }
+            if (renderer != null && !quiet) renderer.invalidate();
         }
     }
 
@@ -235,8 +379,9 @@ public class Game implements Serializable {
      * Processes a movement command.
      *
      * @param dir The direction to move (W/A/S/D).
+     * @return True if the party moved without any message being printed.
      */
-    private void processMove(String dir) {
+    private boolean processMove(String dir) {
         Hero partyLeader = party.getLeader();
         int newX = partyLeader.getX();
         int newY = partyLeader.getY();
@@ -248,23 +393,158 @@ public class Game implements Serializable {
             case "D": newX++; break;
         }
 
+        Entity blocker = board.getEntityAt(newX, newY);
+        if (blocker instanceof Monster && world != null) {
+            output.println("You have attacked a roaming monster!");
+            engage(Collections.singletonList((Monster) blocker));
+            return false;
+        }
+
         if (board.moveEntity(partyLeader.getX(), partyLeader.getY(), newX, newY, output)) {
             party.setLocation(newX, newY);
+            markets.tick();
+            if (journal != null) journal.recordMove(newX, newY);
+            if (++movesSinceSave >= AUTOSAVE_INTERVAL) {
+                autoSave();
+            }
             
             Tile tile = board.getTileAt(newX, newY);
-            if (tile instanceof CommonTile) {
-                checkEncounter();
-            } else if (tile instanceof MarketTile) {
+            if (tile instanceof MarketTile) {
                 output.println("Party entered market space.");
             }
+            if (world != null) {
+                List<Monster> reached = world.tick(newX, newY, getPartyLevel());
+                if (!reached.isEmpty()) {
+                    output.println("Monsters have reached your party!");
+                    engage(reached);
+                    return false;
+                }
+            }
+            // Roaming monsters come on top of the usual random encounters
+            if (tile instanceof CommonTile) {
+                return !checkEncounter();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Starts the roaming monsters for a session on a bounded board.
+     * Roaming monsters are not saved, so a loaded game is populated afresh.
+     * Endless boards have only the random encounter roll.
+     */
+    private void startWorld() {
+        world = null;
+        Hero leader = party.getLeader();
+        if (board == null || board instanceof InfiniteBoard || leader == null) return;
+        world = new WorldSimulation(board, monsterCatalog, random.getRoaming().nextLong());
+        world.populate(leader.getX(), leader.getY(), getPartyLevel());
+    }
+
+    /**
+     * Fights roaming monsters that have met the party, then takes them off the board.
+     * Monsters beyond one per hero keep roaming; if fewer have come, the rest of the
+     * group is drawn from the catalog as in a random encounter.
+     *
+     * @param roamers The roaming monsters, in the order they arrived.
+     */
+    private void engage(List<Monster> roamers) {
+        List<Monster> battleMonsters = new ArrayList<>(roamers.subList(0, Math.min(roamers.size(), party.getSize())));
+        int level = getPartyLevel();
+        while (battleMonsters.size() < party.getSize()) {
+            Monster newMonster = monsterCatalog.spawn(level, random.getEncounters());
+            if (newMonster == null) break;
+            battleMonsters.add(newMonster);
+        }
+        for (int i = 0; i < Math.min(roamers.size(), party.getSize()); i++) {
+            world.remove(roamers.get(i));
+        }
+        fight(battleMonsters);
+    }
+
+    /**
+     * Gets the level monsters are drawn at: that of the party's highest level hero.
+     *
+     * @return The party level, at least 1.
+     */
+    private int getPartyLevel() {
+        int maxLevel = 1;
+        for (Hero h : party.getHeroes()) {
+            if (h.getLevel() > maxLevel) maxLevel = h.getLevel();
+        }
+        return maxLevel;
+    }
+
+    /**
+     * Handles the travel command: moves the party along the shortest route to the
+     * nearest market or to a chosen position, one step at a time.
+     * Every step is an ordinary move, so monsters may still be encountered on the way;
+     * travel stops after a battle so the player can decide what to do next.
+     */
+    private void travel() {
+        Hero leader = party.getLeader();
+        output.println("The party is at (" + leader.getX() + ", " + leader.getY() + ").");
+        output.print("Travel to (M for the nearest market, or x y): ");
+        String[] target = input.readLine().trim().toUpperCase().split("\\s+");
+        if (pathFinder == null || pathFinder.getBoard() != board) {
+            // Distance fields are kept for as long as the party stays on the same board
+            pathFinder = new PathFinder(board);
+        }
+
+        String route;
+        if (target.length == 1 && target[0].equals("M")) {
+            route = pathFinder.routeToMarket(leader.getX(), leader.getY());
+            if (route == null) {
+                output.println("There is no market within reach.");
+                return;
+            }
+        } else if (target.length == 2) {
+            int x;
+            int y;
+            try {
+                x = Integer.parseInt(target[0]);
+                y = Integer.parseInt(target[1]);
+            } catch (NumberFormatException e) {
+                output.println("Invalid input.");
+                return;
+            }
+            route = pathFinder.routeTo(leader.getX(), leader.getY(), x, y);
+            if (route == null) {
+                output.println("There is no way to reach (" + x + ", " + y + ").");
+                return;
+            }
+        } else {
+            output.println("Invalid input.");
+            return;
+        }
+        if (route.isEmpty()) {
+            output.println("You are already there.");
+            return;
         }
+
+        for (int i = 0; i < route.length() && gameRunning; i++) {
+            int fromX = leader.getX();
+            int fromY = leader.getY();
+            int fought = battles;
+            processMove(String.valueOf(route.charAt(i)));
+            if (battles != fought) {
+                return;
+            }
+            if (leader.getX() == fromX && leader.getY() == fromY) {
+                output.println("The way is blocked.");
+                return;
+            }
+        }
+        output.println("The party has arrived.");
     }
 
     /**
      * Handles the market interaction.
-     * Allows buying and selling items.
+     * Allows buying and selling items at the market the party is standing on.
      */
     private void visitMarket() {
+        Hero leader = party.getLeader();
+        MarketState market = markets.at(leader.getX(), leader.getY(), items.size());
         output.println("You have entered a Market!");
         boolean inMarket = true;
         while (inMarket) {
@@ -276,9 +556,9 @@ public class Game implements Serializable {
             String choice = input.readLine();
             
             if (choice.equals("1")) {
-                buyItemMenu();
+                buyItemMenu(market);
             } else if (choice.equals("2")) {
-                sellItemMenu();
+                sellItemMenu(market);
             } else if (choice.equals("3")) {
                 inMarket = false;
                 output.println("Exiting Market.");
@@ -290,8 +570,10 @@ public class Game implements Serializable {
 
     /**
      * Displays the menu for buying items in the market.
+     *
+     * @param market The market's stock and prices.
      */
-    private void buyItemMenu() {
+    private void buyItemMenu(MarketState market) {
         // Select Hero
         output.println("\nSelect a Hero to buy for:");
         for (int i = 0; i < party.getSize(); i++) {
@@ -327,20 +609,20 @@ public class Game implements Serializable {
         output.print("Choose a category: ");
         
         String catChoice = input.readLine();
-        List<Item> availableItems = new ArrayList<>();
+        int kind;
         
         switch (catChoice) {
             case "1":
-                for (Item i : items) if (i instanceof Weapon) availableItems.add(i);
+                kind = MarketCatalog.WEAPONS;
                 break;
             case "2":
-                for (Item i : items) if (i instanceof Armor) availableItems.add(i);
+                kind = MarketCatalog.ARMOR;
                 break;
             case "3":
-                for (Item i : items) if (i instanceof Potion) availableItems.add(i);
+                kind = MarketCatalog.POTIONS;
                 break;
             case "4":
-                for (Item i : items) if (i instanceof Spell) availableItems.add(i);
+                kind = MarketCatalog.SPELLS;
                 break;
             case "5": return;
             default: 
@@ -348,47 +630,125 @@ public class Game implements Serializable {
                 return;
         }
         
-        // Show Items
-        output.println("\nAvailable Items:");
-        for (int i = 0; i < availableItems.size(); i++) {
-            Item item = availableItems.get(i);
-            output.println((i + 1) + ". " + item.getName() + " (Cost: " + item.getCost() + ", Lvl Req: " + item.getRequiredLevel() + ")");
-        }
-        output.println((availableItems.size() + 1) + ". Cancel");
-        output.print("Choose an item: ");
+        Item itemToBuy = selectMarketItem(hero, kind, market);
+        if (itemToBuy == null) return;
+        int price = market.getPrice(itemToBuy);
         
-        int itemIdx = -1;
-        try {
-            String in = input.readLine();
-            itemIdx = Integer.parseInt(in) - 1;
-        } catch (NumberFormatException e) {
-            output.println("Invalid input.");
-            return;
-        }
-        
-        if (itemIdx == availableItems.size()) return;
-        if (itemIdx < 0 || itemIdx >= availableItems.size()) {
-            output.println("Invalid item selection.");
-            return;
-        }
-        
-        Item itemToBuy = availableItems.get(itemIdx);
-        
-        if (hero.getMoney() < itemToBuy.getCost()) {
+        if (hero.getMoney() < price) {
             output.println("Not enough money!");
         } else if (hero.getLevel() < itemToBuy.getRequiredLevel()) {
             output.println("Hero level too low!");
+        } else if (market.getStock(itemToBuy) == 0) {
+            output.println("Out of stock!");
         } else {
-            hero.setMoney(hero.getMoney() - itemToBuy.getCost());
+            hero.setMoney(hero.getMoney() - price);
             hero.addItem(itemToBuy);
+            market.bought(itemToBuy);
+            if (journal != null) journal.recordBuy(heroIdx, itemToBuy, price);
             output.println(hero.getName() + " bought " + itemToBuy.getName() + "!");
         }
     }
 
+    /**
+     * Lets the player pick an item in stock that the hero can equip and afford, a page at a time.
+     *
+     * @param hero   The hero buying.
+     * @param kind   The kind of item, as in {@link MarketCatalog}.
+     * @param market The market's stock and prices.
+     * @return The chosen item, or null if cancelled.
+     */
+    private Item selectMarketItem(Hero hero, int kind, MarketState market) {
+        // The index narrows the catalog to items cheap enough at the lowest possible price
+        int costLimit = MarketState.highestAffordableCost(hero.getMoney());
+        int outOfReach = marketCatalog.size(kind) - marketCatalog.countAvailable(kind, hero.getLevel(), costLimit);
+        // Where each page shown so far starts among the index's candidates
+        List<Integer> pageStarts = new ArrayList<>();
+        pageStarts.add(0);
+        List<Item> offers = new ArrayList<>(MARKET_PAGE_SIZE);
+
+        while (true) {
+            int next = fillMarketPage(hero, kind, market, costLimit, pageStarts.get(pageStarts.size() - 1), offers);
+            if (offers.isEmpty()) {
+                output.println("No items in this category that " + hero.getName() + " can equip and afford here.");
+                return null;
+            }
+            output.println("\nAvailable Items (page " + pageStarts.size() + "):");
+            for (int i = 0; i < offers.size(); i++) {
+                Item item = offers.get(i);
+                output.println((i + 1) + ". " + item.getName() + " (Cost: " + market.getPrice(item)
+                        + ", Lvl Req: " + item.getRequiredLevel() + ", Stock: " + market.getStock(item) + ")");
+            }
+            if (next >= 0) output.println("N. Next Page");
+            if (pageStarts.size() > 1) output.println("P. Previous Page");
+            output.println((offers.size() + 1) + ". Cancel");
+            if (outOfReach > 0) {
+                output.println("(" + outOfReach + " more need a higher level or more gold.)");
+            }
+            output.print("Choose an item: ");
+
+            String in = input.readLine();
+            if (in.equalsIgnoreCase("N") && next >= 0) {
+                pageStarts.add(next);
+                continue;
+            }
+            if (in.equalsIgnoreCase("P") && pageStarts.size() > 1) {
+                pageStarts.remove(pageStarts.size() - 1);
+                continue;
+            }
+
+            int itemIdx;
+            try {
+                itemIdx = Integer.parseInt(in) - 1;
+            } catch (NumberFormatException e) {
+                output.println("Invalid input.");
+                return null;
+            }
+            if (itemIdx == offers.size()) return null;
+            if (itemIdx < 0 || itemIdx >= offers.size()) {
+                output.println("Invalid item selection.");
+                return null;
+            }
+            return offers.get(itemIdx);
+        }
+    }
+
+    /**
+     * Fills one page of a market's offers: items in stock that the hero can equip and afford.
+     * Candidates are read from the index a page at a time, so only as much of the catalog
+     * is looked at as the page needs.
+     *
+     * @param hero      The hero buying.
+     * @param kind      The kind of item, as in {@link MarketCatalog}.
+     * @param market    The market's stock and prices.
+     * @param costLimit The highest cost the hero could afford at any price.
+     * @param start     The position among the index's candidates where the page starts.
+     * @param page      The list to fill; it is cleared first.
+     * @return The position where the next page starts, or -1 if there are no more offers.
+     */
+    private int fillMarketPage(Hero hero, int kind, MarketState market, int costLimit, int start, List<Item> page) {
+        page.clear();
+        int position = start;
+        while (true) {
+            List<Item> candidates = marketCatalog.getAvailable(kind, hero.getLevel(), costLimit, position,
+                    MARKET_PAGE_SIZE);
+            for (Item item : candidates) {
+                if (market.getStock(item) > 0 && market.getPrice(item) <= hero.getMoney()) {
+                    // An offer beyond a full page means there is a next page, starting with it
+                    if (page.size() == MARKET_PAGE_SIZE) return position;
+                    page.add(item);
+                }
+                position++;
+            }
+            if (candidates.size() < MARKET_PAGE_SIZE) return -1;
+        }
+    }
+
     /**
      * Displays the menu for selling items in the market.
+     *
+     * @param market The market's stock and prices.
      */
-    private void sellItemMenu() {
+    private void sellItemMenu(MarketState market) {
         // Select Hero
         output.println("\nSelect a Hero to sell from:");
         for (int i = 0; i < party.getSize(); i++) {
@@ -424,7 +784,7 @@ public class Game implements Serializable {
         output.println("\nSelect Item to Sell:");
         for (int i = 0; i < inventory.size(); i++) {
             Item item = inventory.get(i);
-            int sellPrice = item.getCost() / 2;
+            int sellPrice = market.getSellPrice(item);
             output.println((i + 1) + ". " + item.getName() + " (Sell Price: " + sellPrice + ")");
         }
         output.println((inventory.size() + 1) + ". Cancel");
@@ -446,10 +806,12 @@ public class Game implements Serializable {
         }
         
         Item itemToSell = inventory.get(itemIdx);
-        int sellPrice = itemToSell.getCost() / 2;
+        int sellPrice = market.getSellPrice(itemToSell);
         
         hero.setMoney(hero.getMoney() + sellPrice);
         hero.removeItem(itemToSell);
+        market.sold(itemToSell);
+        if (journal != null) journal.recordSell(heroIdx, itemToSell, sellPrice);
         output.println(hero.getName() + " sold " + itemToSell.getName() + " for " + sellPrice + " gold.");
     }
 
@@ -461,7 +823,8 @@ public class Game implements Serializable {
         output.println("\n--- Info Menu ---");
         output.println("1. Monster Book");
         output.println("2. Show Items");
-        output.println("3. Back");
+        output.println("3. Scout Surroundings");
+        output.println("4. Back");
         output.print("Choose an option: ");
 
         String choice = input.readLine();
@@ -474,36 +837,79 @@ public class Game implements Serializable {
                 showItems();
                 break;
             case "3":
+                scoutSurroundings();
+                break;
+            case "4":
                 break;
             default:
                 output.println("Invalid option.");
         }
     }
 
+    /**
+     * Lists the markets nearest to the party and the roaming monsters close by.
+     */
+    private void scoutSurroundings() {
+        final int MARKETS_SHOWN = 3;
+        final int SCOUT_RADIUS = 6;
+        Hero leader = party.getLeader();
+        int x = leader.getX();
+        int y = leader.getY();
+
+        output.println("\n--- Surroundings of (" + x + ", " + y + ") ---");
+        List<Tile> nearbyMarkets = board.findNearestMarkets(x, y, MARKETS_SHOWN);
+        if (nearbyMarkets.isEmpty()) {
+            output.println("No markets nearby.");
+        } else {
+            output.println("Nearest markets:");
+            for (Tile market : nearbyMarkets) {
+                int distance = Math.abs(market.getX() - x) + Math.abs(market.getY() - y);
+                output.println("  (" + market.getX() + ", " + market.getY() + ") - distance " + distance);
+            }
+        }
+
+        List<Monster> nearbyMonsters = board.findEntitiesWithin(x, y, SCOUT_RADIUS, Monster.class);
+        if (nearbyMonsters.isEmpty()) {
+            output.println("No monsters within " + SCOUT_RADIUS + " steps.");
+        } else {
+            output.println("Monsters within " + SCOUT_RADIUS + " steps:");
+            for (Monster m : nearbyMonsters) {
+                int distance = Math.abs(m.getX() - x) + Math.abs(m.getY() - y);
+                output.println("  " + m.getName() + " (Lvl " + m.getLevel() + ") at (" + m.getX() + ", " + m.getY()
+                        + ") - distance " + distance);
+            }
+        }
+    }
+
     /**
      * Sets up the game board based on user input for size.
      */
     private void setupBoard() {
-        int size = 0;
+        int size = -1;
         final int MIN_SIZE = 4;
         final int MAX_SIZE = 20; // Max size for terminal display limitations
+        final int ENDLESS_VIEW_SIZE = 15;
 
         output.println("\n--- World Configuration ---");
         
-        while (size < MIN_SIZE || size > MAX_SIZE) {
-            output.print("Enter world size (" + MIN_SIZE + "-" + MAX_SIZE + "): ");
+        while (size != 0 && (size < MIN_SIZE || size > MAX_SIZE)) {
+            output.print("Enter world size (" + MIN_SIZE + "-" + MAX_SIZE + "), or 0 for an endless world: ");
             try {
                 String in = input.readLine();
                 size = Integer.parseInt(in);
-                if (size < MIN_SIZE || size > MAX_SIZE) {
-                    output.println("Invalid size. Must be between " + MIN_SIZE + " and " + MAX_SIZE + ".");
+                if (size != 0 && (size < MIN_SIZE || size > MAX_SIZE)) {
+                    output.println("Invalid size. Must be between " + MIN_SIZE + " and " + MAX_SIZE + ", or 0.");
                 }
             } catch (NumberFormatException e) {
                 output.println("Invalid input. Please enter a number.");
             }
         }
 
-        this.board = new Board(size, size);
+        if (size == 0) {
+            this.board = new InfiniteBoard(ENDLESS_VIEW_SIZE, ENDLESS_VIEW_SIZE, random.getWorldGen().nextLong());
+        } else {
+            this.board = new Board(size, size, random.getWorldGen());
+        }
     }
 
     /**
@@ -591,6 +997,9 @@ public class Game implements Serializable {
             if (!placed) {
                 output.println("Warning: Could not place party due to lack of space!");
             } else {
+                if (board instanceof InfiniteBoard) {
+                    ((InfiniteBoard) board).setFocus(party.getLeader());
+                }
                 output.println("Party placed on board.");
             }
         }
@@ -599,80 +1008,89 @@ public class Game implements Serializable {
     /**
      * Checks for a random monster encounter.
      * If an encounter occurs, initiates a battle.
+     *
+     * @return True if monsters were encountered.
      */
-    private void checkEncounter() {
-        java.util.Random rand = new java.util.Random();
+    private boolean checkEncounter() {
+        SplittableRandom rand = random.getEncounters();
         // 50% chance of encounter
         if (rand.nextInt(100) < 50) {
             output.println("You have encountered monsters!");
             
             // Create monsters for battle
             List<Monster> battleMonsters = new ArrayList<>();
-            int maxLevel = 1;
-            for (Hero h : party.getHeroes()) {
-                if (h.getLevel() > maxLevel) maxLevel = h.getLevel();
-            }
+            int maxLevel = getPartyLevel();
             
-            // Filter monsters by level
-            List<Monster> eligibleMonsters = new ArrayList<>();
-            for (Monster m : monsters) {
-                if (m.getLevel() == maxLevel) {
-                    eligibleMonsters.add(m);
-                }
-            }
-            
-            // Fallback: if no monsters of exact level exist, use monsters from lower levels
-            if (eligibleMonsters.isEmpty()) {
-                for (Monster m : monsters) {
-                    if (m.getLevel() < maxLevel) {
-                        eligibleMonsters.add(m);
-                    }
-                }
-            }
-            
-            // Generate same number of monsters as heroes
+            // Generate same number of monsters as heroes, from the hero level or the nearest lower one
             for (int i = 0; i < party.getSize(); i++) {
-                if (!eligibleMonsters.isEmpty()) {
-                    Monster template = eligibleMonsters.get(rand.nextInt(eligibleMonsters.size()));
- 
-                    Monster newMonster = null;
-                    // Create new instance based on template
-                    // We use the template's level and stats directly
-                    if (template instanceof Spirit) {
-                        newMonster = new Spirit(template.getName(), template.getLevel(), template.getDamage(), template.getDefense(), template.getDodgeChance());
-                    } else if (template instanceof Dragon) {
-                        newMonster = new Dragon(template.getName(), template.getLevel(), template.getDamage(), template.getDefense(), template.getDodgeChance());
-                    } else if (template instanceof Exoskeleton) {
-                        newMonster = new Exoskeleton(template.getName(), template.getLevel(), template.getDamage(), template.getDefense(), template.getDodgeChance());
-                    }
-                    
-                    if (newMonster != null) {
-                        // Ensure HP is set correctly for the level
-                        newMonster.setHp(newMonster.getLevel() * 100);
-                        battleMonsters.add(newMonster);
-                    }
+                Monster newMonster = monsterCatalog.spawn(maxLevel, rand);
+                if (newMonster != null) {
+                    battleMonsters.add(newMonster);
                 }
             }
             
-            if (!battleMonsters.isEmpty()) {
-                Battle battle = new Battle(party, battleMonsters, input, output, difficulty);
-                String battleResult = battle.start();
-
-                if (battleResult.equals("Defeat")) {
-                    if (difficulty.equals("Hard")) {
-                        output.println("Hard Mode: Heroes revived and rewarded for their bravery!");
-                        reviveHeroes();
-                        giveGoldForLoss();
-                    } else {
-                        output.println("Your party has been defeated! Game Over.");
-                        gameRunning = false;
-                    }
-                }
+            fight(battleMonsters);
+            return true;
+        }
+        return false;
+    }
 
-                if (battleResult.equals("Victory")) {
-                    output.println("You won the battle!");
-                }
+    /**
+     * Runs a battle against a group of monsters and deals with its outcome.
+     *
+     * @param battleMonsters The monsters to fight; nothing happens if there are none.
+     */
+    private void fight(List<Monster> battleMonsters) {
+        if (battleMonsters.isEmpty()) return;
+        battles++;
+        // Each battle gets its own stream, so a recorded battle can be replayed from its seed
+        long battleSeed = random.getCombat().nextLong();
+        BattleLog battleLog = null;
+        if (battleRecordDir != null) {
+            battleLog = new BattleLog(battleSeed, difficulty, party, battleMonsters, items);
+        }
+        Battle battle = new Battle(party, battleMonsters, input, output, difficulty, new SplittableRandom(battleSeed));
+        if (battleLog != null) battle.setLog(battleLog);
+        if (journal != null) journal.beginBattle(party);
+        String battleResult = battle.start();
+        if (battleLog != null) recordBattle(battleLog);
+
+        if (battleResult.equals("Defeat")) {
+            if (difficulty.equals("Hard")) {
+                output.println("Hard Mode: Heroes revived and rewarded for their bravery!");
+                reviveHeroes();
+                giveGoldForLoss();
+            } else {
+                output.println("Your party has been defeated! Game Over.");
+                gameRunning = false;
+            }
+        }
+
+        if (battleResult.equals("Victory")) {
+            output.println("You won the battle!");
+        }
+        if (journal != null) journal.recordBattle(battleResult, party);
+        if (gameRunning) {
+            autoSave();
+        }
+    }
+
+    /**
+     * Writes a finished battle's log to the battle recording directory.
+     *
+     * @param battleLog The battle's log.
+     */
+    private void recordBattle(BattleLog battleLog) {
+        try {
+            Files.createDirectories(battleRecordDir.toPath());
+            String name = "battle-" + System.currentTimeMillis();
+            File file = new File(battleRecordDir, name + ".log");
+            for (int i = 2; file.exists(); i++) {
+                file = new File(battleRecordDir, name + "-" + i + ".log");
             }
+            Files.write(file.toPath(), battleLog.toByteArray());
+        } catch (IOException e) {
+            output.printError("Error recording battle: " + e.getMessage());
         }
     }
 
@@ -852,6 +1270,8 @@ public class Game implements Serializable {
             return;
         }
 
+        int heroIndex = party.getHeroes().indexOf(hero);
+
         if (item instanceof Weapon) {
             Weapon weapon = (Weapon) item;
             if (weapon.getRequiredHands() == 1) {
@@ -862,24 +1282,30 @@ public class Game implements Serializable {
                 String slot = input.readLine();
                 if (slot.equals("1")) {
                     hero.equipMainHand(weapon, false);
+                    if (journal != null) journal.recordEquip(heroIndex, Journal.MAIN_HAND, weapon);
                     output.println("Equipped " + item.getName() + " in Main Hand.");
                 } else if (slot.equals("2")) {
                     if (hero.equipOffHand(weapon, output)) {
+                        if (journal != null) journal.recordEquip(heroIndex, Journal.OFF_HAND, weapon);
                         output.println("Equipped " + item.getName() + " in Off Hand.");
                     }
                 } else if (slot.equals("3")) {
                     hero.equipMainHand(weapon, true);
+                    if (journal != null) journal.recordEquip(heroIndex, Journal.MAIN_HAND_TWO_HANDED, weapon);
                     output.println("Equipped " + item.getName() + " in Main Hand (2-Handed Grip).");
                 }
             } else {
                 hero.equipMainHand(weapon);
+                if (journal != null) journal.recordEquip(heroIndex, Journal.MAIN_HAND_TWO_HANDED, weapon);
                 output.println("Equipped " + item.getName() + " in Main Hand (2-Handed).");
             }
         } else if (item instanceof Armor) {
             hero.equipArmor((Armor) item);
+            if (journal != null) journal.recordEquip(heroIndex, Journal.ARMOR, item);
             output.println("Equipped " + item.getName() + ".");
         } else if (item instanceof Potion) {
             hero.usePotion((Potion) item);
+            if (journal != null) journal.recordPotion(heroIndex, (Potion) item);
             output.println("Used " + item.getName() + ".");
         } else {
             output.println("Cannot use this item directly.");
@@ -932,59 +1358,207 @@ public class Game implements Serializable {
         
         sourceHero.removeItem(item);
         targetHero.addItem(item);
+        if (journal != null) {
+            journal.recordGive(party.getHeroes().indexOf(sourceHero), party.getHeroes().indexOf(targetHero), item);
+        }
         output.println("Gave " + item.getName() + " to " + targetHero.getName() + ".");
     }
 
     /**
      * Saves the current game state to a file.
+     * The file is written by the background save writer; the player waits for it
+     * so that success is only reported once the save is on disk.
      */
     public void saveGame() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream("savegame.ser"))) {
-            oos.writeObject(this);
+        output.println("Saving...");
+        output.flush();
+        autoSave();
+        if (journal != null) {
+            autoSaver.syncJournal(journal, describeSave(new SaveData(difficulty, party, board, markets, items)), false);
+        }
+        autoSaver.flush();
+        IOException saveError = autoSaver.pollError();
+        if (saveError == null && journal != null) {
+            saveError = journal.pollError();
+        }
+        if (saveError != null) {
+            output.printError("Error saving game: " + saveError.getMessage());
+        } else {
             output.println("Game saved successfully!");
-        } catch (IOException e) {
-            output.printError("Error saving game: " + e.getMessage());
         }
     }
 
     /**
-     * Loads the game state from a file.
+     * Snapshots the session and hands it to the background save writer.
+     * When journaling, changes are already in the journal, which is only
+     * compacted into a new checkpoint once enough events have built up.
      */
-    public void loadGame() {
-        File saveFile = new File("savegame.ser");
-        if (!saveFile.exists()) {
-            output.printlnRed("Error: No saved game found.");
+    private void autoSave() {
+        movesSinceSave = 0;
+        if (board == null || party.isEmpty()) {
             return;
         }
+        if (journal != null) {
+            if (journal.needsCheckpoint()) {
+                checkpointJournal();
+            }
+        } else {
+            SaveData snapshot = SaveData.snapshot(difficulty, party, board, markets, items);
+            autoSaver.submit(describeSave(snapshot), snapshot);
+        }
+    }
 
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(saveFile))) {
-            Game loadedGame = (Game) ois.readObject();
-            this.heroes = loadedGame.heroes;
-            this.party = loadedGame.party;
-            this.monsters = loadedGame.monsters;
-            this.items = loadedGame.items;
-            this.board = loadedGame.board;
-            this.difficulty = loadedGame.difficulty;
+    /**
+     * Compacts the journal into a checkpoint of the current session, on the background save writer.
+     */
+    private void checkpointJournal() {
+        SaveData snapshot = SaveData.snapshot(difficulty, party, board, markets, items);
+        journal.beginCheckpoint();
+        autoSaver.checkpoint(journal, describeSave(snapshot), snapshot);
+    }
+
+    /**
+     * Builds the header for saving the session now.
+     *
+     * @param data The session state being saved.
+     * @return The header.
+     */
+    private SaveHeader describeSave(SaveData data) {
+        long now = System.currentTimeMillis();
+        return SaveHeader.describe(slot, data, now, playTime + now - sessionStart);
+    }
+
+    /**
+     * Lets the player choose a saved game and loads it.
+     */
+    public void loadGame() {
+        autoSaver.flush();
+        SaveHeader header = selectSave("load");
+        if (header == null) return;
+
+        try {
+            SaveData data = saveSlots.read(header.slot, items);
+            this.party = data.party;
+            this.board = data.board;
+            this.difficulty = data.difficulty;
+            this.markets = data.markets;
+            this.slot = header.slot;
+            this.playTime = header.playTime;
             output.printlnGreen("Game loaded successfully!");
-            gameLoop();
-        } catch (IOException | ClassNotFoundException e) {
+            playSession();
+        } catch (IOException e) {
             output.printError("Error loading game: " + e.getMessage());
         }
     }
 
     /**
-     * Deletes the saved game file.
+     * Lists the saved games and prompts the player to choose one.
+     *
+     * @param action What will be done with the save, for the prompt.
+     * @return The chosen save's header, or null if there are none or the player cancelled.
+     */
+    private SaveHeader selectSave(String action) {
+        List<SaveHeader> saves;
+        try {
+            saves = saveSlots.list();
+        } catch (IOException e) {
+            output.printError("Error reading saved games: " + e.getMessage());
+            return null;
+        }
+        if (saves.isEmpty()) {
+            output.printlnRed("Error: No saved game found.");
+            return null;
+        }
+
+        output.println("\nSelect a saved game to " + action + ":");
+        for (int i = 0; i < saves.size(); i++) {
+            output.println((i + 1) + ". " + saves.get(i).summary());
+        }
+        output.println((saves.size() + 1) + ". Cancel");
+
+        int saveIdx = -1;
+        try {
+            String in = input.readLine();
+            saveIdx = Integer.parseInt(in) - 1;
+        } catch (NumberFormatException e) {
+            output.println("Invalid input.");
+            return null;
+        }
+        if (saveIdx == saves.size()) return null;
+        if (saveIdx < 0 || saveIdx >= saves.size()) {
+            output.println("Invalid choice.");
+            return null;
+        }
+        return saves.get(saveIdx);
+    }
+
+    /**
+     * Moves a saved game from before save slots into the first slot.
+     * This happens once, when no save slots exist yet; the old files are kept.
+     */
+    private void importOldSave() {
+        if (saveSlots.exists()) return;
+        File saveFile = new File(OLD_SAVE_FILE);
+        File journalFile = new File(OLD_JOURNAL_FILE);
+        File legacyFile = new File(LEGACY_SAVE_FILE);
+        try {
+            SaveData data;
+            File source;
+            if (journalFile.exists() && (!saveFile.exists() || journalFile.lastModified() >= saveFile.lastModified())) {
+                source = journalFile;
+                data = Journal.replay(Files.readAllBytes(journalFile.toPath()), items);
+            } else if (saveFile.exists()) {
+                source = saveFile;
+                data = SaveCodec.decode(Files.readAllBytes(saveFile.toPath()), items);
+            } else if (legacyFile.exists()) {
+                source = legacyFile;
+                data = migrateLegacySave();
+            } else {
+                return;
+            }
+            saveSlots.write(SaveHeader.describe(1, data, source.lastModified(), 0), SaveCodec.encode(data));
+            output.println("Moved saved game to the " + SAVES_DIR + " folder.");
+        } catch (IOException | ClassNotFoundException e) {
+            output.printError("Error converting old saved game: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads a save written with Java serialization.
+     * Items are matched to the current catalog by kind and name.
+     *
+     * @return The saved state.
+     * @throws IOException            If the save cannot be read.
+     * @throws ClassNotFoundException If the save refers to classes that no longer exist.
+     */
+    private SaveData migrateLegacySave() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(LEGACY_SAVE_FILE))) {
+            Game legacy = (Game) ois.readObject();
+            for (int i = 0; i < legacy.items.size(); i++) {
+                legacy.items.get(i).setId(i);
+            }
+            // Re-read through the new format so items become the current catalog's instances
+            return SaveCodec.decode(SaveCodec.encode(new SaveData(legacy.difficulty, legacy.party, legacy.board,
+                    Markets.forOldSave(legacy.board), legacy.items)), items);
+        }
+    }
+
+    /**
+     * Lets the player choose a saved game and deletes it.
      */
     public void deleteSaveGame() {
-        File saveFile = new File("savegame.ser");
-        if (saveFile.exists()) {
-            if (saveFile.delete()) {
+        autoSaver.flush();
+        SaveHeader header = selectSave("delete");
+        if (header == null) return;
+
+        try {
+            if (saveSlots.delete(header.slot)) {
                 output.printlnGreen("Saved game deleted successfully.");
             } else {
-                output.printlnRed("Error: Failed to delete saved game.");
+                output.printlnRed("Error: No saved game to delete.");
             }
-        } else {
-            output.printlnRed("Error: No saved game to delete.");
+        } catch (IOException e) {
+            output.printError("Error deleting saved game: " + e.getMessage());
         }
     }
 }
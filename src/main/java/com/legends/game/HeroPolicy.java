@@ -0,0 +1,20 @@
+package com.legends.game;
+
+import com.legends.model.Hero;
+
+/**
+ * Interface for deciding hero actions in a headless battle.
+ * Implementations take the turn by invoking one of the battle's actions
+ * ({@link Battle#attack}, {@link Battle#castSpell} or {@link Battle#usePotion}).
+ * Policies may be shared between battles running on different threads,
+ * so they should not keep per-battle state.
+ */
+public interface HeroPolicy {
+    /**
+     * Takes the turn for a hero.
+     *
+     * @param hero   The hero whose turn it is.
+     * @param battle The battle in progress.
+     */
+    void takeTurn(Hero hero, Battle battle);
+}
@@ -5,6 +5,8 @@ package com.legends.game;
  * Heroes cannot move onto inaccessible tiles.
  */
 public class InaccessibleTile extends Tile {
+    private static final long serialVersionUID = -4910502152627137933L;
+
     /**
      * Constructs a new InaccessibleTile at the specified coordinates.
      *
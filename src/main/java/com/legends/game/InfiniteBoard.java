@@ -0,0 +1,127 @@
+package com.legends.game;
+
+import com.legends.model.Entity;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.SplittableRandom;
+
+/**
+ * An unbounded game board generated on demand.
+ * The world is divided into square chunks, each generated deterministically
+ * from the world seed and its coordinates. Only a bounded number of chunks
+ * is kept in memory; the rest are spilled to disk by a {@link ChunkCache}.
+ * The board's width and height describe the window printed around the focus entity.
+ */
+public class InfiniteBoard extends Board {
+    private static final long serialVersionUID = 1L;
+    static final int CHUNK_SIZE = 32;
+    private static final int MAX_CACHED_CHUNKS = 64;
+    private final long seed;
+    private Entity focus;
+    private transient ChunkCache chunks;
+
+    /**
+     * Constructs a new InfiniteBoard.
+     *
+     * @param viewWidth  The width of the area shown around the focus entity.
+     * @param viewHeight The height of the area shown around the focus entity.
+     * @param seed       The world seed.
+     */
+    public InfiniteBoard(int viewWidth, int viewHeight, long seed) {
+        super(viewWidth, viewHeight);
+        this.seed = seed;
+        this.chunks = new ChunkCache(this, MAX_CACHED_CHUNKS);
+    }
+
+    /**
+     * Sets the entity the printed view is centred on.
+     *
+     * @param focus The entity to follow, usually the party leader.
+     */
+    public void setFocus(Entity focus) {
+        this.focus = focus;
+    }
+
+    /**
+     * Gets the world seed.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Deletes the chunks spilled to disk. The board can still be used afterwards.
+     */
+    public void close() {
+        chunks.close();
+    }
+
+    @Override
+    byte getTileType(int x, int y) {
+        byte[] chunk = chunks.get(Math.floorDiv(x, CHUNK_SIZE), Math.floorDiv(y, CHUNK_SIZE));
+        return chunk[Math.floorMod(y, CHUNK_SIZE) * CHUNK_SIZE + Math.floorMod(x, CHUNK_SIZE)];
+    }
+
+    @Override
+    boolean isValidCoordinate(int x, int y) {
+        return true;
+    }
+
+    @Override
+    int getViewX() {
+        return focus == null ? 0 : focus.getX() - getWidth() / 2;
+    }
+
+    @Override
+    int getViewY() {
+        return focus == null ? 0 : focus.getY() - getHeight() / 2;
+    }
+
+    /**
+     * Generates a chunk from the world seed.
+     * The midpoint of every chunk edge is kept accessible and the chunk is connected
+     * internally, so neighbouring chunks always join up through those midpoints and
+     * the whole world stays connected.
+     *
+     * @param chunkX The chunk's x-index.
+     * @param chunkY The chunk's y-index.
+     * @return The chunk's tile types in row-major order.
+     */
+    byte[] generateChunk(int chunkX, int chunkY) {
+        SplittableRandom rand = new SplittableRandom(seed ^ (chunkX * 0x9E3779B97F4A7C15L) ^ (chunkY * 0xC2B2AE3D27D4EB4FL));
+        byte[] tiles = new byte[CHUNK_SIZE * CHUNK_SIZE];
+        BoardGenerator.fill(tiles, rand);
+
+        int mid = CHUNK_SIZE / 2;
+        int[] portals = {
+            mid,                                   // top edge
+            (CHUNK_SIZE - 1) * CHUNK_SIZE + mid,   // bottom edge
+            mid * CHUNK_SIZE,                      // left edge
+            mid * CHUNK_SIZE + CHUNK_SIZE - 1      // right edge
+        };
+        for (int portal : portals) {
+            if (tiles[portal] == BoardGenerator.INACCESSIBLE) {
+                tiles[portal] = BoardGenerator.rollAccessible(rand);
+            }
+        }
+
+        BoardGenerator.connect(tiles, CHUNK_SIZE, CHUNK_SIZE, rand);
+        return tiles;
+    }
+
+    /**
+     * Restores the chunk cache after deserialization.
+     * Chunks are regenerated from the seed as they are visited.
+     *
+     * @param in The stream to read from.
+     * @throws IOException            If an I/O error occurs.
+     * @throws ClassNotFoundException If a serialized class cannot be found.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        this.chunks = new ChunkCache(this, MAX_CACHED_CHUNKS);
+    }
+}
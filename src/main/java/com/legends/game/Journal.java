@@ -0,0 +1,681 @@
+package com.legends.game;
+
+import com.legends.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An append-only save journal.
+ * <p>
+ * The file starts with the slot's {@link SaveHeader} as of the last checkpoint, then
+ * the checkpoint itself (a full save from {@link SaveCodec}) followed by
+ * small events describing what changed since: moves, purchases, sales, equipment
+ * changes, potions, gifts and battle outcomes. A battle outcome holds only the hero
+ * stats, equipment and items the battle changed. Saving only appends the new events,
+ * so its cost follows what changed rather than the size of the game. After a number
+ * of events the journal is compacted into a fresh checkpoint.
+ * <p>
+ * Checkpoints and syncs are slow, so they run on the background save writer
+ * (see {@link AutoSaver}); the game thread only appends events. While a checkpoint
+ * is being written, events still go to the old file and are also kept in memory,
+ * then copied to the new file when it replaces the old one.
+ * <p>
+ * Each event is framed as a type byte, a 16-bit payload length and the payload;
+ * a checkpoint's payload is the length of the save that follows it.
+ * A torn event at the end of the file, left by a crash mid-write, is ignored on replay.
+ * Write failures do not interrupt play; they are kept until {@link #pollError()}.
+ */
+final class Journal {
+    static final int MAGIC = 0x4C4D484A; // "LMHJ"
+    static final int VERSION = 2; // 2: battle events hold what changed rather than whole heroes
+
+    static final byte CHECKPOINT = 0;
+    static final byte MOVE = 1;
+    static final byte BUY = 2;
+    static final byte SELL = 3;
+    static final byte EQUIP = 4;
+    static final byte USE_POTION = 5;
+    static final byte GIVE = 6;
+    static final byte BATTLE = 7;
+
+    // Equipment slots recorded by EQUIP events
+    static final byte MAIN_HAND = 0;
+    static final byte MAIN_HAND_TWO_HANDED = 1;
+    static final byte OFF_HAND = 2;
+    static final byte ARMOR = 3;
+
+    // Hero stats a battle can change, as bits of a battle event's stat mask
+    private static final int LEVEL = 0;
+    private static final int HP = 1;
+    private static final int MANA = 2;
+    private static final int STRENGTH = 3;
+    private static final int AGILITY = 4;
+    private static final int DEXTERITY = 5;
+    private static final int MONEY = 6;
+    private static final int EXPERIENCE = 7;
+    private static final int STAT_COUNT = 8;
+
+    // Equipment a battle can change, as bits of a battle event's equipment mask
+    private static final int CHANGED_MAIN_HAND = 1;
+    private static final int CHANGED_OFF_HAND = 2;
+    private static final int CHANGED_ARMOR = 4;
+
+    private static final int HEADER_SIZE = 6;
+    private static final int FRAME_SIZE = 3;
+
+    private final Path file;
+    private final int checkpointInterval;
+    private final ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(256);
+    private final DataOutputStream payload = new DataOutputStream(payloadBytes);
+    private FileChannel channel;
+    private ByteArrayOutputStream eventsDuringCheckpoint; // Non-null while a checkpoint is being written
+    private HeroState[] battleStart;
+    private int eventsSinceCheckpoint;
+    private IOException lastError;
+
+    /**
+     * Constructs a new Journal. Nothing is written until the first checkpoint.
+     *
+     * @param file               The journal file.
+     * @param checkpointInterval The number of events after which a checkpoint is due.
+     */
+    Journal(Path file, int checkpointInterval) {
+        this.file = file;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Starts a checkpoint, on the game thread at the moment its snapshot is taken.
+     * Events recorded from now on are kept until {@link #writeCheckpoint} has replaced the file.
+     */
+    synchronized void beginCheckpoint() {
+        eventsDuringCheckpoint = new ByteArrayOutputStream();
+        eventsSinceCheckpoint = 0;
+    }
+
+    /**
+     * Replaces the journal with a single checkpoint of the given state, followed by the events
+     * recorded since {@link #beginCheckpoint}. The new file is written beside the old one and
+     * renamed over it. Called on the background save writer.
+     *
+     * @param header   The slot's header.
+     * @param snapshot The state to checkpoint, as of {@link #beginCheckpoint}.
+     * @return True if the checkpoint was written.
+     */
+    boolean writeCheckpoint(SaveHeader header, SaveData snapshot) {
+        FileChannel opened = null;
+        try {
+            byte[] save = SaveCodec.encode(snapshot);
+            ByteBuffer buffer = ByteBuffer.allocate(SaveHeader.SIZE + HEADER_SIZE + FRAME_SIZE + 4 + save.length);
+            header.write(buffer);
+            buffer.putInt(MAGIC).putShort((short) VERSION);
+            buffer.put(CHECKPOINT).putShort((short) 4).putInt(save.length).put(save);
+            buffer.flip();
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            SaveSlots.writeAtomically(file, buffer);
+            opened = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            synchronized (this) {
+                // Events appended meanwhile went to the replaced file, so they are copied to the new one
+                ByteBuffer events = ByteBuffer.wrap(eventsDuringCheckpoint.toByteArray());
+                while (events.hasRemaining()) {
+                    opened.write(events);
+                }
+                if (channel != null) channel.close();
+                channel = opened;
+                eventsDuringCheckpoint = null;
+            }
+            return true;
+        } catch (IOException e) {
+            synchronized (this) {
+                if (opened != null && opened != channel) {
+                    try {
+                        opened.close();
+                    } catch (IOException ignored) {
+                        // The write error is the one worth reporting
+                    }
+                }
+                // The old file still holds every event, so carry on with it and try again at the next save
+                eventsDuringCheckpoint = null;
+                eventsSinceCheckpoint = checkpointInterval;
+                lastError = e;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether enough events have been appended that a checkpoint is due.
+     *
+     * @return True if the journal should be compacted and no checkpoint is being written.
+     */
+    synchronized boolean needsCheckpoint() {
+        return eventsDuringCheckpoint == null && eventsSinceCheckpoint >= checkpointInterval;
+    }
+
+    /**
+     * Records that the party moved.
+     *
+     * @param x The new x-coordinate.
+     * @param y The new y-coordinate.
+     */
+    void recordMove(int x, int y) {
+        try {
+            payload.writeInt(x);
+            payload.writeInt(y);
+            append(MOVE);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records that a hero bought an item.
+     *
+     * @param hero The index of the hero in the party.
+     * @param item The item bought.
+     * @param cost The price paid.
+     */
+    void recordBuy(int hero, Item item, int cost) {
+        recordTrade(BUY, hero, item, cost);
+    }
+
+    /**
+     * Records that a hero sold an item.
+     *
+     * @param hero  The index of the hero in the party.
+     * @param item  The item sold.
+     * @param price The price received.
+     */
+    void recordSell(int hero, Item item, int price) {
+        recordTrade(SELL, hero, item, price);
+    }
+
+    /**
+     * Records that a hero equipped an item.
+     *
+     * @param hero The index of the hero in the party.
+     * @param slot The slot, one of {@link #MAIN_HAND}, {@link #MAIN_HAND_TWO_HANDED},
+     *             {@link #OFF_HAND} or {@link #ARMOR}.
+     * @param item The item equipped.
+     */
+    void recordEquip(int hero, byte slot, Item item) {
+        try {
+            payload.writeByte(hero);
+            payload.writeByte(slot);
+            payload.writeInt(item.getId());
+            append(EQUIP);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records that a hero drank a potion outside of battle.
+     *
+     * @param hero   The index of the hero in the party.
+     * @param potion The potion used.
+     */
+    void recordPotion(int hero, Potion potion) {
+        try {
+            payload.writeByte(hero);
+            payload.writeInt(potion.getId());
+            append(USE_POTION);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records that one hero gave an item to another.
+     *
+     * @param from The index of the giving hero in the party.
+     * @param to   The index of the receiving hero in the party.
+     * @param item The item given.
+     */
+    void recordGive(int from, int to, Item item) {
+        try {
+            payload.writeByte(from);
+            payload.writeByte(to);
+            payload.writeInt(item.getId());
+            append(GIVE);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Notes the party's state as a battle begins, so that {@link #recordBattle} can record what changed.
+     *
+     * @param party The party about to fight.
+     */
+    void beginBattle(Party party) {
+        battleStart = new HeroState[party.getSize()];
+        for (int i = 0; i < battleStart.length; i++) {
+            battleStart[i] = new HeroState(party.getHero(i));
+        }
+    }
+
+    /**
+     * Records the outcome of a battle: for each hero, the stats, equipment and items
+     * that differ from when {@link #beginBattle} was called.
+     *
+     * @param result The battle result ("Victory", "Defeat" or "").
+     * @param party  The party after the battle.
+     */
+    void recordBattle(String result, Party party) {
+        try {
+            if (battleStart == null || battleStart.length != party.getSize()) {
+                throw new IOException("Battle was not begun in the save journal.");
+            }
+            payload.writeUTF(result);
+            payload.writeByte(party.getSize());
+            for (int i = 0; i < battleStart.length; i++) {
+                writeChanges(battleStart[i], new HeroState(party.getHero(i)));
+            }
+            append(BATTLE);
+        } catch (IOException e) {
+            fail(e);
+        } finally {
+            battleStart = null;
+        }
+    }
+
+    /**
+     * Forces appended events to disk. Called on the background save writer.
+     */
+    synchronized void sync() {
+        try {
+            if (channel != null) channel.force(false);
+        } catch (IOException e) {
+            lastError = e;
+        }
+    }
+
+    /**
+     * Syncs and closes the journal file. Called on the background save writer.
+     */
+    synchronized void close() {
+        if (channel == null) return;
+        try {
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            lastError = e;
+        }
+        channel = null;
+    }
+
+    /**
+     * Gets and clears the error from the last failed write, if any.
+     *
+     * @return The error, or null if no write has failed since the last call.
+     */
+    synchronized IOException pollError() {
+        IOException error = lastError;
+        lastError = null;
+        return error;
+    }
+
+    /**
+     * Writes a buy or sell event.
+     *
+     * @param type   The event type.
+     * @param hero   The index of the hero in the party.
+     * @param item   The item traded.
+     * @param amount The gold paid or received.
+     */
+    private void recordTrade(byte type, int hero, Item item, int amount) {
+        try {
+            payload.writeByte(hero);
+            payload.writeInt(item.getId());
+            payload.writeInt(amount);
+            append(type);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Writes the changes to one hero: a mask of the stats that changed and their new values,
+     * a mask of the equipment that changed and the new items, then the items gained or lost.
+     *
+     * @param before The hero as the battle began.
+     * @param after  The hero after the battle.
+     * @throws IOException If the write fails.
+     */
+    private void writeChanges(HeroState before, HeroState after) throws IOException {
+        int statMask = 0;
+        for (int stat = 0; stat < STAT_COUNT; stat++) {
+            if (before.stats[stat] != after.stats[stat]) statMask |= 1 << stat;
+        }
+        payload.writeByte(statMask);
+        for (int stat = 0; stat < STAT_COUNT; stat++) {
+            if ((statMask & (1 << stat)) != 0) payload.writeInt(after.stats[stat]);
+        }
+
+        int equipmentMask = 0;
+        if (before.mainHand != after.mainHand || before.twoHandedGrip != after.twoHandedGrip) equipmentMask |= CHANGED_MAIN_HAND;
+        if (before.offHand != after.offHand) equipmentMask |= CHANGED_OFF_HAND;
+        if (before.armor != after.armor) equipmentMask |= CHANGED_ARMOR;
+        payload.writeByte(equipmentMask);
+        if ((equipmentMask & CHANGED_MAIN_HAND) != 0) {
+            payload.writeInt(SaveCodec.itemId(after.mainHand));
+            payload.writeBoolean(after.twoHandedGrip);
+        }
+        if ((equipmentMask & CHANGED_OFF_HAND) != 0) payload.writeInt(SaveCodec.itemId(after.offHand));
+        if ((equipmentMask & CHANGED_ARMOR) != 0) payload.writeInt(SaveCodec.itemId(after.armor));
+
+        // Potions drunk in battle; owned counts equipped items too, so swapping equipment is not a change
+        Map<Integer, Integer> changes = new HashMap<>(after.owned);
+        for (Map.Entry<Integer, Integer> entry : before.owned.entrySet()) {
+            changes.merge(entry.getKey(), -entry.getValue(), Integer::sum);
+        }
+        changes.values().removeIf(change -> change == 0);
+        payload.writeShort(changes.size());
+        for (Map.Entry<Integer, Integer> entry : changes.entrySet()) {
+            payload.writeInt(entry.getKey());
+            payload.writeShort(entry.getValue());
+        }
+    }
+
+    /**
+     * Frames the buffered payload as an event and appends it to the file.
+     *
+     * @param type The event type.
+     * @throws IOException If the journal has no checkpoint yet or the write fails.
+     */
+    private synchronized void append(byte type) throws IOException {
+        try {
+            if (channel == null && eventsDuringCheckpoint == null) {
+                throw new IOException("Journal has no checkpoint to append to.");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(FRAME_SIZE + payloadBytes.size());
+            buffer.put(type).putShort((short) payloadBytes.size()).put(payloadBytes.toByteArray());
+            buffer.flip();
+            if (eventsDuringCheckpoint != null) {
+                eventsDuringCheckpoint.write(buffer.array(), 0, buffer.limit());
+            }
+            while (channel != null && buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            eventsSinceCheckpoint++;
+        } finally {
+            payloadBytes.reset();
+        }
+    }
+
+    /**
+     * Keeps a write error and discards any partly built event.
+     *
+     * @param e The error.
+     */
+    private synchronized void fail(IOException e) {
+        payloadBytes.reset();
+        lastError = e;
+    }
+
+    /**
+     * Rebuilds the session state from a journal: the last checkpoint plus every complete event after it.
+     *
+     * @param journal The journal contents, after the slot header.
+     * @param items   The item catalog, indexed by item ID.
+     * @return The replayed state.
+     * @throws IOException If the journal is corrupt, from a newer version, or has no checkpoint.
+     */
+    static SaveData replay(byte[] journal, List<Item> items) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(journal);
+        if (journal.length < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a save journal.");
+        }
+        int version = buffer.getShort() & 0xffff;
+        if (version > VERSION) {
+            throw new IOException("Save journal is from a newer version of the game (format " + version + ").");
+        }
+
+        SaveData state = null;
+        List<Item> saved = items; // What the item IDs in events refer to
+        while (buffer.remaining() >= FRAME_SIZE) {
+            byte type = buffer.get();
+            int length = buffer.getShort() & 0xffff;
+            if (type == CHECKPOINT) {
+                // A checkpoint frame holds only the save's length; the save follows it
+                if (buffer.remaining() < 4) break;
+                byte[] save = new byte[buffer.getInt()];
+                if (buffer.remaining() < save.length) break;
+                buffer.get(save);
+                state = SaveCodec.decode(save, items);
+                // Events were recorded against the same catalog as the checkpoint before them
+                saved = SaveCodec.savedItems(save, items);
+                continue;
+            }
+            if (buffer.remaining() < length) break; // Torn final event
+            if (state == null) {
+                throw new IOException("Save journal has no checkpoint.");
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(journal, buffer.position(), length));
+            buffer.position(buffer.position() + length);
+            state = apply(state, type, in, saved, version);
+        }
+        if (state == null) {
+            throw new IOException("Save journal has no checkpoint.");
+        }
+        return state;
+    }
+
+    /**
+     * Applies one event to the replayed state.
+     *
+     * @param state The state so far.
+     * @param type  The event type.
+     * @param in    The event payload.
+     * @param items   The items the event's item IDs refer to.
+     * @param version The format version of the journal.
+     * @return The state after the event.
+     * @throws IOException If the event is malformed.
+     */
+    private static SaveData apply(SaveData state, byte type, DataInputStream in, List<Item> items, int version) throws IOException {
+        Party party = state.party;
+        Board board = state.board;
+        switch (type) {
+            case MOVE: {
+                Hero leader = party.getLeader();
+                int x = in.readInt();
+                int y = in.readInt();
+                board.setOccupant(leader.getX(), leader.getY(), null);
+                party.setLocation(x, y);
+                board.setOccupant(x, y, leader);
+                state.markets.tick();
+                break;
+            }
+            case BUY:
+            case SELL: {
+                Hero hero = hero(party, in.readUnsignedByte());
+                Item item = SaveCodec.item(items, in.readInt(), Item.class);
+                int amount = in.readInt();
+                // Trades happen at the market the party is standing on
+                Hero leader = party.getLeader();
+                MarketState market = state.markets.at(leader.getX(), leader.getY(), state.items.size());
+                if (type == BUY) {
+                    hero.setMoney(hero.getMoney() - amount);
+                    hero.addItem(item);
+                    market.bought(item);
+                } else {
+                    hero.setMoney(hero.getMoney() + amount);
+                    hero.removeItem(item);
+                    market.sold(item);
+                }
+                break;
+            }
+            case EQUIP: {
+                Hero hero = hero(party, in.readUnsignedByte());
+                byte slot = in.readByte();
+                int id = in.readInt();
+                if (slot == ARMOR) {
+                    hero.equipArmor(SaveCodec.item(items, id, Armor.class));
+                } else if (slot == OFF_HAND) {
+                    hero.equipOffHand(SaveCodec.item(items, id, Weapon.class), null);
+                } else {
+                    hero.equipMainHand(SaveCodec.item(items, id, Weapon.class), slot == MAIN_HAND_TWO_HANDED);
+                }
+                break;
+            }
+            case USE_POTION: {
+                Hero hero = hero(party, in.readUnsignedByte());
+                hero.usePotion(SaveCodec.item(items, in.readInt(), Potion.class));
+                break;
+            }
+            case GIVE: {
+                Hero from = hero(party, in.readUnsignedByte());
+                Hero to = hero(party, in.readUnsignedByte());
+                Item item = SaveCodec.item(items, in.readInt(), Item.class);
+                from.removeItem(item);
+                to.addItem(item);
+                break;
+            }
+            case BATTLE: {
+                in.readUTF(); // Result; the changes already reflect it
+                if (version >= 2) {
+                    int count = in.readUnsignedByte();
+                    for (int i = 0; i < count; i++) {
+                        applyChanges(hero(party, i), in, items);
+                    }
+                    break;
+                }
+                // Version 1 journals hold every hero's full record
+                Party after = new Party();
+                int count = in.readUnsignedByte();
+                for (int i = 0; i < count; i++) {
+                    after.addHero(SaveCodec.readHero(in, items, SaveCodec.VERSION));
+                }
+                Hero oldLeader = party.getLeader();
+                Hero leader = after.getLeader();
+                if (oldLeader != null) board.setOccupant(oldLeader.getX(), oldLeader.getY(), null);
+                if (leader != null) {
+                    board.setOccupant(leader.getX(), leader.getY(), leader);
+                    if (board instanceof InfiniteBoard) {
+                        ((InfiniteBoard) board).setFocus(leader);
+                    }
+                }
+                return new SaveData(state.difficulty, after, board, state.markets, state.items);
+            }
+            default:
+                throw new IOException("Unknown event in save journal: " + type);
+        }
+        return state;
+    }
+
+    /**
+     * Applies the changes to one hero written by {@link #writeChanges}.
+     *
+     * @param hero  The hero.
+     * @param in    The event payload, positioned at the hero's changes.
+     * @param items The items the event's item IDs refer to.
+     * @throws IOException If the changes are malformed.
+     */
+    private static void applyChanges(Hero hero, DataInputStream in, List<Item> items) throws IOException {
+        int statMask = in.readUnsignedByte();
+        for (int stat = 0; stat < STAT_COUNT; stat++) {
+            if ((statMask & (1 << stat)) == 0) continue;
+            int value = in.readInt();
+            switch (stat) {
+                case LEVEL: hero.setLevel(value); break;
+                case HP: hero.setHp(value); break;
+                case MANA: hero.setMana(value); break;
+                case STRENGTH: hero.setStrength(value); break;
+                case AGILITY: hero.setAgility(value); break;
+                case DEXTERITY: hero.setDexterity(value); break;
+                case MONEY: hero.setMoney(value); break;
+                default: hero.setExperience(value); break;
+            }
+        }
+
+        // Main hand first: a two-handed grip frees the off hand
+        int equipmentMask = in.readUnsignedByte();
+        if ((equipmentMask & CHANGED_MAIN_HAND) != 0) {
+            Weapon weapon = SaveCodec.item(items, in.readInt(), Weapon.class);
+            boolean twoHandedGrip = in.readBoolean();
+            if (weapon != null) hero.equipMainHand(weapon, twoHandedGrip);
+        }
+        if ((equipmentMask & CHANGED_OFF_HAND) != 0) {
+            Weapon weapon = SaveCodec.item(items, in.readInt(), Weapon.class);
+            if (weapon != null) hero.equipOffHand(weapon, null);
+        }
+        if ((equipmentMask & CHANGED_ARMOR) != 0) {
+            Armor armor = SaveCodec.item(items, in.readInt(), Armor.class);
+            if (armor != null) hero.equipArmor(armor);
+        }
+
+        int changes = in.readUnsignedShort();
+        for (int i = 0; i < changes; i++) {
+            Item item = SaveCodec.item(items, in.readInt(), Item.class);
+            int change = in.readShort();
+            for (; change > 0; change--) hero.addItem(item);
+            for (; change < 0; change++) hero.removeItem(item);
+        }
+    }
+
+    /**
+     * Gets a party member named by an event.
+     *
+     * @param party The party.
+     * @param index The hero's index in the party.
+     * @return The hero.
+     * @throws IOException If there is no such hero.
+     */
+    private static Hero hero(Party party, int index) throws IOException {
+        if (index >= party.getSize()) {
+            throw new IOException("Save journal refers to an unknown hero (" + index + ").");
+        }
+        return party.getHero(index);
+    }
+
+    /**
+     * The parts of a hero a battle can change.
+     */
+    private static final class HeroState {
+        final int[] stats = new int[STAT_COUNT];
+        final Weapon mainHand;
+        final boolean twoHandedGrip;
+        final Weapon offHand;
+        final Armor armor;
+        final Map<Integer, Integer> owned = new HashMap<>(); // Item ID to count, inventory and equipment alike
+
+        /**
+         * Constructs a HeroState of a hero as it is now.
+         *
+         * @param hero The hero.
+         */
+        HeroState(Hero hero) {
+            stats[LEVEL] = hero.getLevel();
+            stats[HP] = hero.getHp();
+            stats[MANA] = hero.getMana();
+            stats[STRENGTH] = hero.getStrength();
+            stats[AGILITY] = hero.getAgility();
+            stats[DEXTERITY] = hero.getDexterity();
+            stats[MONEY] = hero.getMoney();
+            stats[EXPERIENCE] = hero.getExperience();
+            mainHand = hero.getMainHandWeapon();
+            twoHandedGrip = hero.isMainHandTwoHandedGrip();
+            offHand = hero.getOffHandWeapon();
+            armor = hero.getEquippedArmor();
+            for (Item item : hero.getInventory()) {
+                owned.merge(item.getId(), 1, Integer::sum);
+            }
+            if (mainHand != null) owned.merge(mainHand.getId(), 1, Integer::sum);
+            if (offHand != null) owned.merge(offHand.getId(), 1, Integer::sum);
+            if (armor != null) owned.merge(armor.getId(), 1, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.legends.game;
+
+import com.legends.model.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An index of the items for sale, built once after loading.
+ * Items are grouped by kind, and each kind is sorted by required level and then by cost,
+ * so the items of one level form a run ordered by price. Finding what a hero can
+ * equip and afford takes a binary search per level instead of a scan of the catalog.
+ */
+public class MarketCatalog {
+    public static final int WEAPONS = 0;
+    public static final int ARMOR = 1;
+    public static final int POTIONS = 2;
+    public static final int SPELLS = 3;
+    private static final int KINDS = 4;
+
+    private final Item[][] items;
+    // items[kind][levelStart[kind][L] .. levelStart[kind][L + 1]) are the items requiring level L
+    private final int[][] levelStart;
+    private final int maxLevel;
+
+    /**
+     * Builds the index from the item catalog.
+     *
+     * @param catalog Every item for sale.
+     */
+    public MarketCatalog(List<Item> catalog) {
+        int max = 0;
+        List<List<Item>> byKind = new ArrayList<>(KINDS);
+        for (int kind = 0; kind < KINDS; kind++) {
+            byKind.add(new ArrayList<>());
+        }
+        for (Item item : catalog) {
+            int kind = kindOf(item);
+            if (kind >= 0) {
+                byKind.get(kind).add(item);
+                max = Math.max(max, level(item));
+            }
+        }
+        this.maxLevel = max;
+
+        this.items = new Item[KINDS][];
+        this.levelStart = new int[KINDS][max + 2];
+        // A stable sort keeps the catalog order between items of equal level and cost
+        Comparator<Item> order = Comparator.comparingInt(MarketCatalog::level).thenComparingInt(Item::getCost);
+        for (int kind = 0; kind < KINDS; kind++) {
+            List<Item> sorted = byKind.get(kind);
+            sorted.sort(order);
+            items[kind] = sorted.toArray(new Item[0]);
+            int[] starts = levelStart[kind];
+            int i = 0;
+            for (int level = 0; level <= max + 1; level++) {
+                while (i < sorted.size() && level(sorted.get(i)) < level) i++;
+                starts[level] = i;
+            }
+        }
+    }
+
+    /**
+     * Gets the kind of an item.
+     *
+     * @param item The item.
+     * @return {@link #WEAPONS}, {@link #ARMOR}, {@link #POTIONS} or {@link #SPELLS}, or -1 for anything else.
+     */
+    public static int kindOf(Item item) {
+        if (item instanceof Weapon) return WEAPONS;
+        if (item instanceof Armor) return ARMOR;
+        if (item instanceof Potion) return POTIONS;
+        if (item instanceof Spell) return SPELLS;
+        return -1;
+    }
+
+    /**
+     * Gets the number of items of a kind for sale.
+     *
+     * @param kind The kind of item.
+     * @return The number of items.
+     */
+    public int size(int kind) {
+        return items[kind].length;
+    }
+
+    /**
+     * Counts the items of a kind that a hero can equip and afford.
+     *
+     * @param kind  The kind of item.
+     * @param level The hero's level.
+     * @param gold  The hero's gold.
+     * @return The number of items with a required level and cost within reach.
+     */
+    public int countAvailable(int kind, int level, int gold) {
+        int count = 0;
+        int top = Math.min(level, maxLevel);
+        for (int l = 0; l <= top; l++) {
+            count += affordableEnd(kind, l, gold) - levelStart[kind][l];
+        }
+        return count;
+    }
+
+    /**
+     * Lists a page of the items of a kind that a hero can equip and afford,
+     * by required level and then by cost.
+     *
+     * @param kind   The kind of item.
+     * @param level  The hero's level.
+     * @param gold   The hero's gold.
+     * @param offset The number of matching items to skip.
+     * @param limit  The most items to return.
+     * @return The items on the page.
+     */
+    public List<Item> getAvailable(int kind, int level, int gold, int offset, int limit) {
+        List<Item> page = new ArrayList<>(Math.max(0, limit));
+        int top = Math.min(level, maxLevel);
+        for (int l = 0; l <= top && page.size() < limit; l++) {
+            int start = levelStart[kind][l];
+            int end = affordableEnd(kind, l, gold);
+            int count = end - start;
+            if (offset >= count) {
+                offset -= count;
+                continue;
+            }
+            for (int i = start + offset; i < end && page.size() < limit; i++) {
+                page.add(items[kind][i]);
+            }
+            offset = 0;
+        }
+        return page;
+    }
+
+    /**
+     * Finds where the items of one level stop being affordable.
+     *
+     * @param kind  The kind of item.
+     * @param level The required level.
+     * @param gold  The gold available.
+     * @return The index after the last item of that level costing at most {@code gold}.
+     */
+    private int affordableEnd(int kind, int level, int gold) {
+        Item[] sorted = items[kind];
+        int low = levelStart[kind][level];
+        int high = levelStart[kind][level + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].getCost() <= gold) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the level an item is filed under.
+     *
+     * @param item The item.
+     * @return Its required level, or 0 if it has none.
+     */
+    private static int level(Item item) {
+        return Math.max(0, item.getRequiredLevel());
+    }
+}
@@ -0,0 +1,228 @@
+package com.legends.game;
+
+import com.legends.model.Item;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The stock and prices of one market.
+ * <p>
+ * Each item in the catalog has a stock, a usual stock the market restocks up to,
+ * and a demand that buying raises and selling lowers. The price is the item's cost
+ * scaled by its demand. Restocking and the fading of demand happen with the passing
+ * of the market clock, but are only worked out when the market is next visited,
+ * in one step however long it has been; buying and selling are constant-time.
+ */
+final class MarketState {
+    static final int MAX_STOCK = 3;
+    static final int RESTOCK_INTERVAL = 20; // Moves for each item to restock by one
+    private static final double DEMAND_DECAY = 0.95; // Share of demand left after each move
+    private static final double PRICE_STEP = 0.1; // Price change per unit of demand
+    private static final double MIN_PRICE_FACTOR = 0.5;
+    private static final double MAX_PRICE_FACTOR = 2.0;
+    private static final int STOCK_LIMIT = Byte.MAX_VALUE;
+
+    private final byte[] stock;
+    private final byte[] usualStock;
+    private final float[] demand;
+    private int restockedAt;
+    private int decayedAt;
+
+    /**
+     * Stocks a market on its first visit.
+     *
+     * @param itemCount The number of items in the catalog.
+     * @param rand      The random stream that picks the market's stock.
+     * @param now       The market clock.
+     */
+    MarketState(int itemCount, SplittableRandom rand, int now) {
+        this.stock = new byte[itemCount];
+        this.usualStock = new byte[itemCount];
+        this.demand = new float[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            // Some markets do not carry some items at all
+            usualStock[i] = (byte) rand.nextInt(MAX_STOCK + 1);
+        }
+        System.arraycopy(usualStock, 0, stock, 0, itemCount);
+        this.restockedAt = now;
+        this.decayedAt = now;
+    }
+
+    /**
+     * Constructs a MarketState from saved arrays.
+     *
+     * @param stock       The stock of each item.
+     * @param usualStock  The stock each item is restocked up to.
+     * @param demand      The demand for each item.
+     * @param restockedAt The market clock at the last restock.
+     * @param decayedAt   The market clock when demand last faded.
+     */
+    private MarketState(byte[] stock, byte[] usualStock, float[] demand, int restockedAt, int decayedAt) {
+        this.stock = stock;
+        this.usualStock = usualStock;
+        this.demand = demand;
+        this.restockedAt = restockedAt;
+        this.decayedAt = decayedAt;
+    }
+
+    /**
+     * Catches the market up to the market clock: restocks what has sold
+     * and lets demand fade back towards normal.
+     *
+     * @param now The market clock.
+     */
+    void advance(int now) {
+        int restocks = (now - restockedAt) / RESTOCK_INTERVAL;
+        if (restocks > 0) {
+            // Leftover moves count towards the next restock
+            restockedAt += restocks * RESTOCK_INTERVAL;
+            for (int i = 0; i < stock.length; i++) {
+                if (stock[i] < usualStock[i]) {
+                    stock[i] = (byte) Math.min(usualStock[i], stock[i] + restocks);
+                }
+            }
+        }
+        if (now > decayedAt) {
+            float decay = (float) Math.pow(DEMAND_DECAY, now - decayedAt);
+            decayedAt = now;
+            for (int i = 0; i < demand.length; i++) {
+                demand[i] *= decay;
+            }
+        }
+    }
+
+    /**
+     * Gets how many of an item the market has.
+     *
+     * @param item The item.
+     * @return The stock, or 0 for items the market does not know.
+     */
+    int getStock(Item item) {
+        int id = item.getId();
+        return id >= 0 && id < stock.length ? stock[id] : 0;
+    }
+
+    /**
+     * Gets the price of buying an item here.
+     *
+     * @param item The item.
+     * @return The item's cost scaled by its demand, at least 1.
+     */
+    int getPrice(Item item) {
+        int id = item.getId();
+        double factor = 1.0;
+        if (id >= 0 && id < demand.length) {
+            factor = Math.max(MIN_PRICE_FACTOR, Math.min(MAX_PRICE_FACTOR, 1.0 + PRICE_STEP * demand[id]));
+        }
+        return (int) Math.max(1, Math.round(item.getCost() * factor));
+    }
+
+    /**
+     * Gets the highest base cost of an item that could be bought with some gold
+     * at the lowest price demand allows.
+     *
+     * @param gold The gold available.
+     * @return The cost limit.
+     */
+    static int highestAffordableCost(int gold) {
+        return (int) Math.min(Integer.MAX_VALUE, (long) (gold / MIN_PRICE_FACTOR) + 1);
+    }
+
+    /**
+     * Gets what the market pays for an item.
+     *
+     * @param item The item.
+     * @return Half the item's price here.
+     */
+    int getSellPrice(Item item) {
+        return getPrice(item) / 2;
+    }
+
+    /**
+     * Records a hero buying an item: one fewer in stock and more demand.
+     *
+     * @param item The item bought.
+     */
+    void bought(Item item) {
+        int id = item.getId();
+        if (id < 0 || id >= stock.length) return;
+        if (stock[id] > 0) stock[id]--;
+        demand[id]++;
+    }
+
+    /**
+     * Records a hero selling an item: one more in stock and less demand.
+     *
+     * @param item The item sold.
+     */
+    void sold(Item item) {
+        int id = item.getId();
+        if (id < 0 || id >= stock.length) return;
+        if (stock[id] < STOCK_LIMIT) stock[id]++;
+        demand[id]--;
+    }
+
+    /**
+     * Creates an independent copy, for saving on another thread.
+     *
+     * @return The copy.
+     */
+    MarketState copy() {
+        return new MarketState(stock.clone(), usualStock.clone(), demand.clone(), restockedAt, decayedAt);
+    }
+
+    /**
+     * Writes the market's state.
+     *
+     * @param out The stream to write to.
+     * @throws IOException If writing fails.
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(restockedAt);
+        out.writeInt(decayedAt);
+        out.writeShort(stock.length);
+        out.write(stock);
+        out.write(usualStock);
+        for (float d : demand) {
+            out.writeFloat(d);
+        }
+    }
+
+    /**
+     * Reads a market's state.
+     * Items added to the catalog since it was saved are not stocked, and items
+     * removed from it are dropped.
+     *
+     * @param in        The stream to read from.
+     * @param saved     The items the saved IDs refer to, null where an item no longer exists.
+     * @param itemCount The number of items in the catalog.
+     * @return The market's state.
+     * @throws IOException If the data is corrupt.
+     */
+    static MarketState read(DataInputStream in, List<Item> saved, int itemCount) throws IOException {
+        int restockedAt = in.readInt();
+        int decayedAt = in.readInt();
+        int savedCount = in.readUnsignedShort();
+        byte[] savedStock = new byte[savedCount];
+        byte[] savedUsual = new byte[savedCount];
+        in.readFully(savedStock);
+        in.readFully(savedUsual);
+        byte[] stock = new byte[itemCount];
+        byte[] usualStock = new byte[itemCount];
+        float[] demand = new float[itemCount];
+        for (int i = 0; i < savedCount; i++) {
+            float d = in.readFloat();
+            Item item = i < saved.size() ? saved.get(i) : null;
+            if (item != null) {
+                stock[item.getId()] = savedStock[i];
+                usualStock[item.getId()] = savedUsual[i];
+                demand[item.getId()] = d;
+            }
+        }
+        return new MarketState(stock, usualStock, demand, restockedAt, decayedAt);
+    }
+}
@@ -5,6 +5,8 @@ package com.legends.game;
  * Market tiles are accessible and allow heroes to buy and sell items.
  */
 public class MarketTile extends Tile {
+    private static final long serialVersionUID = -4231006039674684462L;
+
     /**
      * Constructs a new MarketTile at the specified coordinates.
      *
@@ -0,0 +1,159 @@
+package com.legends.game;
+
+import com.legends.model.Item;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * The state of every market the party has visited, and the market clock.
+ * <p>
+ * A market's state is created the first time it is visited, stocked from a random
+ * stream seeded by the world's market seed and the market's position, so unvisited
+ * markets cost nothing however large the board is. The clock advances once per move;
+ * each market catches up on the time that has passed when it is next visited.
+ */
+final class Markets {
+    private final long seed;
+    private int clock;
+    private final Map<Long, MarketState> states;
+
+    /**
+     * Constructs a new Markets with no market visited yet.
+     *
+     * @param seed The seed that every market's stock is derived from.
+     */
+    Markets(long seed) {
+        this(seed, 0, new HashMap<>());
+    }
+
+    /**
+     * Constructs a Markets from its parts.
+     *
+     * @param seed   The seed that every market's stock is derived from.
+     * @param clock  The market clock.
+     * @param states The visited markets, keyed by position.
+     */
+    private Markets(long seed, int clock, Map<Long, MarketState> states) {
+        this.seed = seed;
+        this.clock = clock;
+        this.states = states;
+    }
+
+    /**
+     * Constructs the Markets for a save from before markets kept stock.
+     * The seed is derived from the board, so the same save always loads
+     * with the same stock.
+     *
+     * @param board The saved board, or null if the save has none.
+     * @return Markets with no market visited yet.
+     */
+    static Markets forOldSave(Board board) {
+        if (board == null) {
+            return new Markets(0);
+        }
+        if (board instanceof InfiniteBoard) {
+            return new Markets(((InfiniteBoard) board).getSeed());
+        }
+        long layout = ((long) board.getWidth() << 32) ^ ((long) board.getHeight() << 16) ^ Arrays.hashCode(board.getTiles());
+        return new Markets(new SplittableRandom(layout).nextLong());
+    }
+
+    /**
+     * Advances the market clock by one move.
+     */
+    void tick() {
+        clock++;
+    }
+
+    /**
+     * Gets the market at a position, stocking it on the first visit
+     * and catching it up to the market clock.
+     *
+     * @param x         The x-coordinate of the market tile.
+     * @param y         The y-coordinate of the market tile.
+     * @param itemCount The number of items in the catalog.
+     * @return The market's state.
+     */
+    MarketState at(int x, int y, int itemCount) {
+        long key = key(x, y);
+        MarketState state = states.get(key);
+        if (state == null) {
+            state = new MarketState(itemCount, new SplittableRandom(seed ^ key * 0x9E3779B97F4A7C15L), clock);
+            states.put(key, state);
+        } else {
+            state.advance(clock);
+        }
+        return state;
+    }
+
+    /**
+     * Creates an independent copy, for saving on another thread.
+     *
+     * @return The copy.
+     */
+    Markets copy() {
+        Map<Long, MarketState> copies = new HashMap<>(states.size() * 2);
+        for (Map.Entry<Long, MarketState> entry : states.entrySet()) {
+            copies.put(entry.getKey(), entry.getValue().copy());
+        }
+        return new Markets(seed, clock, copies);
+    }
+
+    /**
+     * Writes the seed, the clock and every visited market.
+     *
+     * @param out The stream to write to.
+     * @throws IOException If writing fails.
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeLong(seed);
+        out.writeInt(clock);
+        out.writeInt(states.size());
+        for (Map.Entry<Long, MarketState> entry : states.entrySet()) {
+            out.writeLong(entry.getKey());
+            entry.getValue().write(out);
+        }
+    }
+
+    /**
+     * Reads the markets written by {@link #write}.
+     *
+     * @param in        The stream to read from.
+     * @param saved     The items the saved IDs refer to, null where an item no longer exists.
+     * @param itemCount The number of items in the catalog.
+     * @return The markets.
+     * @throws IOException If the data is corrupt.
+     */
+    static Markets read(DataInputStream in, List<Item> saved, int itemCount) throws IOException {
+        long seed = in.readLong();
+        int clock = in.readInt();
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Save file is corrupt (market count " + count + ").");
+        }
+        Map<Long, MarketState> states = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            long key = in.readLong();
+            states.put(key, MarketState.read(in, saved, itemCount));
+        }
+        return new Markets(seed, clock, states);
+    }
+
+    /**
+     * Packs a position into a map key.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return The key.
+     */
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+}
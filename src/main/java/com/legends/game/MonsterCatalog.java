@@ -0,0 +1,105 @@
+package com.legends.game;
+
+import com.legends.model.Monster;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * An index of monster templates grouped into buckets by level.
+ * The templates are counting-sorted once, so picking a template for an encounter
+ * is constant-time no matter how many monsters the catalog holds.
+ */
+public class MonsterCatalog {
+    private final Monster[] templates;
+    // templates[bucketStart[L] .. bucketStart[L + 1]) are the level L monsters
+    private final int[] bucketStart;
+    // floorLevel[L] is the highest populated level that is at most L, or 0 if there is none
+    private final int[] floorLevel;
+    private final int maxLevel;
+
+    /**
+     * Builds a catalog from a list of monster templates.
+     * Templates below level 1 can never be chosen and are left out.
+     *
+     * @param monsters The monster templates.
+     */
+    public MonsterCatalog(List<Monster> monsters) {
+        int max = 0;
+        for (Monster m : monsters) {
+            if (m.getLevel() > max) max = m.getLevel();
+        }
+        this.maxLevel = max;
+
+        int[] counts = new int[max + 2];
+        int size = 0;
+        for (Monster m : monsters) {
+            if (m.getLevel() >= 1) {
+                counts[m.getLevel()]++;
+                size++;
+            }
+        }
+
+        this.bucketStart = new int[max + 2];
+        this.floorLevel = new int[max + 1];
+        int start = 0;
+        int floor = 0;
+        for (int level = 1; level <= max; level++) {
+            bucketStart[level] = start;
+            start += counts[level];
+            if (counts[level] > 0) floor = level;
+            floorLevel[level] = floor;
+        }
+        bucketStart[max + 1] = start;
+
+        // Stable counting sort keeps the load order within each level
+        this.templates = new Monster[size];
+        int[] next = new int[max + 2];
+        System.arraycopy(bucketStart, 0, next, 0, max + 2);
+        for (Monster m : monsters) {
+            if (m.getLevel() >= 1) {
+                templates[next[m.getLevel()]++] = m;
+            }
+        }
+    }
+
+    /**
+     * Gets the level whose monsters are used for an encounter at the given level:
+     * the level itself if it has monsters, otherwise the nearest lower level that does.
+     *
+     * @param level The level of the encounter.
+     * @return The level to draw monsters from, or 0 if no monster is low enough.
+     */
+    public int getEncounterLevel(int level) {
+        if (level < 1 || maxLevel == 0) return 0;
+        return floorLevel[Math.min(level, maxLevel)];
+    }
+
+    /**
+     * Creates a new monster for an encounter at the given level.
+     * A template is chosen uniformly from the level returned by {@link #getEncounterLevel(int)}.
+     *
+     * @param level The level of the encounter.
+     * @param rand  The random stream to choose with.
+     * @return The new monster at full health, or null if no monster is low enough.
+     */
+    public Monster spawn(int level, SplittableRandom rand) {
+        int bucket = getEncounterLevel(level);
+        if (bucket == 0) return null;
+        int start = bucketStart[bucket];
+        Monster template = templates[start + rand.nextInt(bucketStart[bucket + 1] - start)];
+        Monster monster = template.spawn();
+        // Ensure HP is set correctly for the level
+        monster.setHp(monster.getLevel() * 100);
+        return monster;
+    }
+
+    /**
+     * Gets the number of monsters in the catalog.
+     *
+     * @return The number of monster templates.
+     */
+    public int size() {
+        return templates.length;
+    }
+}
@@ -0,0 +1,254 @@
+package com.legends.game;
+
+import java.util.Arrays;
+
+/**
+ * Finds routes around inaccessible tiles for auto-travel.
+ * <p>
+ * Routes are read off breadth-first distance fields: arrays holding each cell's
+ * number of steps to the nearest goal. The field to the nearest market is built
+ * once per board, with every market as a source, and the field to the last
+ * travel target is kept too, so repeated queries only walk down the field.
+ * A board's terrain never changes once generated, so the fields stay valid
+ * until the game moves to another board.
+ * <p>
+ * An endless board has no edges, so its fields cover a square of
+ * {@link #ENDLESS_RANGE} tiles around the party and are rebuilt when
+ * the party leaves that square.
+ */
+final class PathFinder {
+    static final int ENDLESS_RANGE = 64;
+    private static final int UNREACHED = -1;
+
+    private final Board board;
+    private Field marketField;
+    private Field targetField;
+    private int targetX;
+    private int targetY;
+
+    /**
+     * A distance field over a rectangle of the board.
+     */
+    private static final class Field {
+        final int originX;
+        final int originY;
+        final int width;
+        final int height;
+        final int[] distance;
+
+        /**
+         * Constructs an empty field, with every cell unreached.
+         *
+         * @param originX The x-coordinate of the left edge.
+         * @param originY The y-coordinate of the top edge.
+         * @param width   The width.
+         * @param height  The height.
+         */
+        Field(int originX, int originY, int width, int height) {
+            this.originX = originX;
+            this.originY = originY;
+            this.width = width;
+            this.height = height;
+            this.distance = new int[width * height];
+            Arrays.fill(distance, UNREACHED);
+        }
+
+        /**
+         * Checks if a position lies inside the field.
+         *
+         * @param x The x-coordinate.
+         * @param y The y-coordinate.
+         * @return True if the field covers the position.
+         */
+        boolean contains(int x, int y) {
+            return x >= originX && x < originX + width && y >= originY && y < originY + height;
+        }
+
+        /**
+         * Gets the distance from a position to the nearest goal.
+         *
+         * @param x The x-coordinate.
+         * @param y The y-coordinate.
+         * @return The number of steps, or {@link #UNREACHED}.
+         */
+        int get(int x, int y) {
+            return contains(x, y) ? distance[(y - originY) * width + (x - originX)] : UNREACHED;
+        }
+    }
+
+    /**
+     * Constructs a PathFinder for a board.
+     *
+     * @param board The board to find routes on.
+     */
+    PathFinder(Board board) {
+        this.board = board;
+    }
+
+    /**
+     * Gets the board this PathFinder finds routes on.
+     *
+     * @return The board.
+     */
+    Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Finds the shortest route to the nearest market.
+     *
+     * @param fromX The starting x-coordinate.
+     * @param fromY The starting y-coordinate.
+     * @return The moves to make, as W/A/S/D letters, or null if no market can be reached.
+     */
+    String routeToMarket(int fromX, int fromY) {
+        if (marketField == null || !marketField.contains(fromX, fromY)) {
+            marketField = area(fromX, fromY);
+            int[] queue = new int[marketField.distance.length];
+            int tail = 0;
+            for (int y = 0; y < marketField.height; y++) {
+                for (int x = 0; x < marketField.width; x++) {
+                    if (board.getTileType(marketField.originX + x, marketField.originY + y) == BoardGenerator.MARKET) {
+                        int cell = y * marketField.width + x;
+                        marketField.distance[cell] = 0;
+                        queue[tail++] = cell;
+                    }
+                }
+            }
+            spread(marketField, queue, tail);
+        }
+        return walk(marketField, fromX, fromY);
+    }
+
+    /**
+     * Finds the shortest route to a position.
+     *
+     * @param fromX The starting x-coordinate.
+     * @param fromY The starting y-coordinate.
+     * @param toX   The target x-coordinate.
+     * @param toY   The target y-coordinate.
+     * @return The moves to make, as W/A/S/D letters, or null if the target cannot be reached.
+     */
+    String routeTo(int fromX, int fromY, int toX, int toY) {
+        if (targetField == null || targetX != toX || targetY != toY || !targetField.contains(fromX, fromY)) {
+            targetField = null;
+            if (!board.isValidCoordinate(toX, toY) || board.getTileType(toX, toY) == BoardGenerator.INACCESSIBLE) {
+                return null;
+            }
+            Field field = area(fromX, fromY);
+            if (!field.contains(toX, toY)) {
+                return null;
+            }
+            int cell = (toY - field.originY) * field.width + (toX - field.originX);
+            field.distance[cell] = 0;
+            int[] queue = new int[field.distance.length];
+            queue[0] = cell;
+            spread(field, queue, 1);
+            targetField = field;
+            targetX = toX;
+            targetY = toY;
+        }
+        return walk(targetField, fromX, fromY);
+    }
+
+    /**
+     * Checks if the board has edges, so one field can cover all of it.
+     *
+     * @return True unless the board is endless.
+     */
+    private boolean isBounded() {
+        return !(board instanceof InfiniteBoard);
+    }
+
+    /**
+     * Creates an empty field covering the board, or the square around a position on an endless board.
+     *
+     * @param x The x-coordinate of the party.
+     * @param y The y-coordinate of the party.
+     * @return The field.
+     */
+    private Field area(int x, int y) {
+        if (isBounded()) {
+            return new Field(0, 0, board.getWidth(), board.getHeight());
+        }
+        int size = 2 * ENDLESS_RANGE + 1;
+        return new Field(x - ENDLESS_RANGE, y - ENDLESS_RANGE, size, size);
+    }
+
+    /**
+     * Fills in a field breadth-first from the goal cells already queued.
+     *
+     * @param field The field, with the goals at distance 0.
+     * @param queue The cells to visit, with room for every cell of the field.
+     * @param tail  The number of goals queued.
+     */
+    private void spread(Field field, int[] queue, int tail) {
+        int width = field.width;
+        int height = field.height;
+        int[] distance = field.distance;
+        for (int head = 0; head < tail; head++) {
+            int cell = queue[head];
+            int x = cell % width;
+            int y = cell / width;
+            int next = distance[cell] + 1;
+            if (y > 0) tail = visit(field, cell - width, x, y - 1, next, queue, tail);
+            if (y < height - 1) tail = visit(field, cell + width, x, y + 1, next, queue, tail);
+            if (x > 0) tail = visit(field, cell - 1, x - 1, y, next, queue, tail);
+            if (x < width - 1) tail = visit(field, cell + 1, x + 1, y, next, queue, tail);
+        }
+    }
+
+    /**
+     * Queues a neighbouring cell if it is accessible and not yet reached.
+     *
+     * @param field    The field being filled in.
+     * @param cell     The cell's index in the field.
+     * @param x        The cell's x-offset in the field.
+     * @param y        The cell's y-offset in the field.
+     * @param distance The cell's distance if it is reached now.
+     * @param queue    The cells to visit.
+     * @param tail     The number of cells queued.
+     * @return The new number of cells queued.
+     */
+    private int visit(Field field, int cell, int x, int y, int distance, int[] queue, int tail) {
+        if (field.distance[cell] != UNREACHED
+                || board.getTileType(field.originX + x, field.originY + y) == BoardGenerator.INACCESSIBLE) {
+            return tail;
+        }
+        field.distance[cell] = distance;
+        queue[tail] = cell;
+        return tail + 1;
+    }
+
+    /**
+     * Walks down a field from a position to its goal.
+     *
+     * @param field The field.
+     * @param x     The starting x-coordinate.
+     * @param y     The starting y-coordinate.
+     * @return The moves to make, as W/A/S/D letters, or null if no goal can be reached.
+     */
+    private static String walk(Field field, int x, int y) {
+        int steps = field.get(x, y);
+        if (steps == UNREACHED) {
+            return null;
+        }
+        StringBuilder route = new StringBuilder(steps);
+        for (int d = steps; d > 0; d--) {
+            if (field.get(x, y - 1) == d - 1) {
+                route.append('W');
+                y--;
+            } else if (field.get(x - 1, y) == d - 1) {
+                route.append('A');
+                x--;
+            } else if (field.get(x, y + 1) == d - 1) {
+                route.append('S');
+                y++;
+            } else {
+                route.append('D');
+                x++;
+            }
+        }
+        return route.toString();
+    }
+}
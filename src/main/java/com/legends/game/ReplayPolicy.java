@@ -0,0 +1,99 @@
+package com.legends.game;
+
+import com.legends.model.*;
+
+import java.util.List;
+
+/**
+ * A hero policy that repeats the actions recorded in a battle log.
+ * Unlike other policies it keeps its place in the log, so each replayed battle
+ * needs its own instance.
+ */
+final class ReplayPolicy implements HeroPolicy {
+    private final BattleLog.Recording recording;
+    private final List<Item> items;
+    private int position;
+
+    /**
+     * Constructs a new ReplayPolicy.
+     *
+     * @param recording The recorded battle; its party and monsters must be the ones being fought.
+     * @param items     The item catalog, indexed by item ID.
+     */
+    ReplayPolicy(BattleLog.Recording recording, List<Item> items) {
+        this.recording = recording;
+        this.items = items;
+        this.position = recording.eventsStart;
+    }
+
+    /**
+     * Takes the hero's next recorded action.
+     *
+     * @param hero   The hero whose turn it is.
+     * @param battle The battle in progress.
+     * @throws IllegalStateException If the recorded turn belongs to another hero.
+     */
+    @Override
+    public void takeTurn(Hero hero, Battle battle) {
+        byte[] events = recording.events;
+        List<Hero> heroes = recording.party.getHeroes();
+        while (position < events.length && events[position] != BattleLog.HERO_TURN) {
+            skip();
+        }
+        if (position >= events.length || heroes.get(events[position + 2] & 0xff) != hero) {
+            throw new IllegalStateException("Replay diverged: " + hero.getName() + " was not expected to act.");
+        }
+        skip();
+        if (position >= events.length) return;
+
+        int type = events[position];
+        int at = position + 2;
+        switch (type) {
+            case BattleLog.ATTACK:
+                battle.attack(hero, monster(events[at + 1]));
+                break;
+            case BattleLog.SPELL:
+                battle.castSpell(hero, (Spell) items.get(readInt(at + 1)), monster(events[at + 5]));
+                break;
+            case BattleLog.POTION:
+                battle.usePotion(hero, (Potion) items.get(readInt(at + 1)), heroes.get(events[at + 5] & 0xff));
+                break;
+            case BattleLog.EQUIP:
+                battle.changeEquipment(hero, items.get(readInt(at + 1)), events[at + 5]);
+                break;
+            default:
+                // The hero passed or the recorded action failed; nothing to repeat
+                return;
+        }
+        skip();
+    }
+
+    /**
+     * Moves past the event at the current position.
+     */
+    private void skip() {
+        position += 2 + (recording.events[position + 1] & 0xff);
+    }
+
+    /**
+     * Gets a monster by its index in the starting line-up.
+     *
+     * @param index The index byte.
+     * @return The monster.
+     */
+    private Monster monster(byte index) {
+        return recording.monsters.get(index & 0xff);
+    }
+
+    /**
+     * Reads a big-endian int from the log.
+     *
+     * @param at The offset of its first byte.
+     * @return The value.
+     */
+    private int readInt(int at) {
+        byte[] events = recording.events;
+        return (events[at] & 0xff) << 24 | (events[at + 1] & 0xff) << 16
+                | (events[at + 2] & 0xff) << 8 | (events[at + 3] & 0xff);
+    }
+}
@@ -0,0 +1,573 @@
+package com.legends.game;
+
+import com.legends.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads and writes the binary save format.
+ * <p>
+ * A save holds only session state; catalogs are reloaded from the game data
+ * and items are stored by their catalog ID. Layout (big-endian):
+ * magic, format version, flags, then a sequence of sections. The party section
+ * holds the difficulty and the party's heroes (class, name, level, stats, position,
+ * equipment and inventory IDs); the board section holds either the tile bytes or,
+ * for an endless world, the seed; the market section holds the market clock and the
+ * stock and demand of each visited market; the item section lists the kind and name
+ * of every catalog item in ID order.
+ * <p>
+ * Catalog IDs are positions in the game data files, so they change whenever an item
+ * is added, removed or reordered there. On loading, saved IDs are translated through
+ * the item section to the current catalog by kind and name; items that no longer
+ * exist are dropped from market stock and rejected anywhere else.
+ * <p>
+ * Each section is framed as an ID byte, its stored length and a CRC-32 of the stored
+ * bytes, and may be Deflate-compressed. Every checksum is verified before anything
+ * is decoded, so a corrupt or truncated save is rejected up front. Unknown sections
+ * are skipped.
+ * <p>
+ * Older versions are read by the same code, which supplies defaults for
+ * anything added since; saves from a newer version are rejected.
+ */
+final class SaveCodec {
+    static final int MAGIC = 0x4C4D4853; // "LMHS"
+    static final int VERSION = 3;
+    private static final int FLAG_COMPRESSED = 1;
+    private static final byte PARTY_SECTION = 1;
+    private static final byte BOARD_SECTION = 2;
+    private static final byte MARKET_SECTION = 3;
+    private static final byte ITEM_SECTION = 4;
+    private static final int SECTION_FRAME_SIZE = 9;
+    private static final byte BOUNDED_BOARD = 0;
+    private static final byte ENDLESS_BOARD = 1;
+    private static final int NO_ITEM = -1;
+
+    private SaveCodec() {
+    }
+
+    /**
+     * Encodes session state without compression.
+     *
+     * @param data The state to save.
+     * @return The encoded save.
+     * @throws IOException If the state cannot be encoded.
+     */
+    static byte[] encode(SaveData data) throws IOException {
+        return encode(data, false);
+    }
+
+    /**
+     * Encodes session state.
+     *
+     * @param data     The state to save.
+     * @param compress Whether to compress each section.
+     * @return The encoded save.
+     * @throws IOException If the state cannot be encoded.
+     */
+    static byte[] encode(SaveData data, boolean compress) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeByte(compress ? FLAG_COMPRESSED : 0);
+
+        ByteArrayOutputStream section = new ByteArrayOutputStream(256);
+        DataOutputStream sectionOut = new DataOutputStream(compress ? new DeflaterOutputStream(section) : section);
+        sectionOut.writeUTF(data.difficulty);
+        List<Hero> heroes = data.party.getHeroes();
+        sectionOut.writeByte(heroes.size());
+        for (Hero hero : heroes) {
+            writeHero(sectionOut, hero);
+        }
+        sectionOut.close();
+        writeSection(out, PARTY_SECTION, section);
+
+        section.reset();
+        sectionOut = new DataOutputStream(compress ? new DeflaterOutputStream(section) : section);
+        writeBoard(sectionOut, data.board);
+        sectionOut.close();
+        writeSection(out, BOARD_SECTION, section);
+
+        section.reset();
+        sectionOut = new DataOutputStream(compress ? new DeflaterOutputStream(section) : section);
+        data.markets.write(sectionOut);
+        sectionOut.close();
+        writeSection(out, MARKET_SECTION, section);
+
+        section.reset();
+        sectionOut = new DataOutputStream(compress ? new DeflaterOutputStream(section) : section);
+        writeItemTable(sectionOut, data.items);
+        sectionOut.close();
+        writeSection(out, ITEM_SECTION, section);
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a section's frame and stored bytes.
+     *
+     * @param out     The stream to write to.
+     * @param id      The section ID.
+     * @param section The section's stored (possibly compressed) bytes.
+     * @throws IOException If writing fails.
+     */
+    private static void writeSection(DataOutputStream out, byte id, ByteArrayOutputStream section) throws IOException {
+        byte[] stored = section.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(stored, 0, stored.length);
+        out.writeByte(id);
+        out.writeInt(stored.length);
+        out.writeInt((int) crc.getValue());
+        out.write(stored);
+    }
+
+    /**
+     * Decodes session state.
+     *
+     * @param save  The encoded save.
+     * @param items The item catalog, indexed by item ID.
+     * @return The saved state.
+     * @throws IOException If the save is corrupt, from a newer version, or refers to unknown items.
+     */
+    static SaveData decode(byte[] save, List<Item> items) throws IOException {
+        int version = readVersion(save);
+        DataInputStream partyIn;
+        DataInputStream boardIn;
+        DataInputStream marketIn = null;
+        List<Item> saved = items;
+        if (version >= 2) {
+            ByteBuffer[] sections = readSections(save);
+            boolean compressed = (save[6] & FLAG_COMPRESSED) != 0;
+            if (sections[PARTY_SECTION] == null || sections[BOARD_SECTION] == null) {
+                throw new IOException("Save file is truncated.");
+            }
+            if (sections[ITEM_SECTION] != null) {
+                try (DataInputStream itemIn = sectionStream(sections[ITEM_SECTION], compressed)) {
+                    saved = readItemTable(itemIn, items);
+                }
+            }
+            partyIn = sectionStream(sections[PARTY_SECTION], compressed);
+            boardIn = sectionStream(sections[BOARD_SECTION], compressed);
+            if (sections[MARKET_SECTION] != null) {
+                marketIn = sectionStream(sections[MARKET_SECTION], compressed);
+            }
+        } else {
+            partyIn = new DataInputStream(new ByteArrayInputStream(save, 6, save.length - 6));
+            boardIn = partyIn;
+        }
+
+        String difficulty;
+        Party party = new Party();
+        Board board;
+        Markets markets;
+        try {
+            difficulty = partyIn.readUTF();
+            int heroCount = partyIn.readUnsignedByte();
+            for (int i = 0; i < heroCount; i++) {
+                party.addHero(readHero(partyIn, saved, version));
+            }
+            board = readBoard(boardIn, version);
+            // Saves from before markets kept stock start with every market unvisited
+            markets = marketIn != null ? Markets.read(marketIn, saved, items.size()) : Markets.forOldSave(board);
+        } finally {
+            // Releases the inflaters of compressed sections
+            partyIn.close();
+            boardIn.close();
+            if (marketIn != null) marketIn.close();
+        }
+        Hero leader = party.getLeader();
+        if (board != null && leader != null) {
+            board.placeEntity(leader, leader.getX(), leader.getY());
+            if (board instanceof InfiniteBoard) {
+                ((InfiniteBoard) board).setFocus(leader);
+            }
+        }
+        return new SaveData(difficulty, party, board, markets, items);
+    }
+
+    /**
+     * Gets the items a save's item IDs refer to, for reading data recorded alongside it.
+     *
+     * @param save  The encoded save.
+     * @param items The item catalog, indexed by item ID.
+     * @return The current item for each saved ID, null where an item no longer exists.
+     * @throws IOException If the save is corrupt or from a newer version.
+     */
+    static List<Item> savedItems(byte[] save, List<Item> items) throws IOException {
+        if (readVersion(save) < 2) {
+            return items;
+        }
+        ByteBuffer[] sections = readSections(save);
+        if (sections[ITEM_SECTION] == null) {
+            return items;
+        }
+        try (DataInputStream in = sectionStream(sections[ITEM_SECTION], (save[6] & FLAG_COMPRESSED) != 0)) {
+            return readItemTable(in, items);
+        }
+    }
+
+    /**
+     * Checks a save's magic number and reads its format version.
+     *
+     * @param save The encoded save.
+     * @return The format version.
+     * @throws IOException If this is not a save, or it is from a newer version.
+     */
+    private static int readVersion(byte[] save) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(save);
+        if (save.length < 6 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a save file.");
+        }
+        int version = buffer.getShort() & 0xffff;
+        if (version > VERSION) {
+            throw new IOException("Save file is from a newer version of the game (format " + version + ").");
+        }
+        return version;
+    }
+
+    /**
+     * Finds the sections of a save, checking every one before any of them is decoded.
+     *
+     * @param save The encoded save, version 2 or later.
+     * @return The known sections' stored bytes, indexed by section ID; null for a missing section.
+     * @throws IOException If the save is truncated or a checksum does not match.
+     */
+    private static ByteBuffer[] readSections(byte[] save) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(save, 6, save.length - 6);
+        if (!buffer.hasRemaining()) {
+            throw new IOException("Save file is truncated.");
+        }
+        buffer.get(); // Flags
+        ByteBuffer[] sections = new ByteBuffer[ITEM_SECTION + 1];
+        while (buffer.hasRemaining()) {
+            byte id = buffer.get();
+            ByteBuffer section = checkedSection(buffer, id);
+            if (id > 0 && id < sections.length) {
+                sections[id] = section;
+            }
+        }
+        return sections;
+    }
+
+    /**
+     * Reads a section's frame and verifies its checksum.
+     *
+     * @param buffer The save, positioned after the section ID.
+     * @param id     The section ID.
+     * @return The section's stored bytes; the buffer is advanced past them.
+     * @throws IOException If the section is truncated or its checksum does not match.
+     */
+    private static ByteBuffer checkedSection(ByteBuffer buffer, byte id) throws IOException {
+        if (buffer.remaining() < SECTION_FRAME_SIZE - 1) {
+            throw new IOException("Save file is truncated.");
+        }
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Save file is truncated.");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Save file is corrupt (checksum mismatch in section " + id + ").");
+        }
+        ByteBuffer section = buffer.slice();
+        section.limit(length);
+        buffer.position(buffer.position() + length);
+        return section;
+    }
+
+    /**
+     * Opens a stream over a verified section.
+     *
+     * @param section    The section's stored bytes.
+     * @param compressed Whether the section is compressed.
+     * @return The stream of the section's contents.
+     */
+    private static DataInputStream sectionStream(ByteBuffer section, boolean compressed) {
+        InputStream in = new ByteArrayInputStream(section.array(), section.arrayOffset() + section.position(),
+                section.remaining());
+        return new DataInputStream(compressed ? new InflaterInputStream(in) : in);
+    }
+
+    /**
+     * Writes a hero's class, stats, position and items.
+     *
+     * @param out  The stream to write to.
+     * @param hero The hero.
+     * @throws IOException If writing fails.
+     */
+    static void writeHero(DataOutputStream out, Hero hero) throws IOException {
+        out.writeUTF(hero.getHeroClass());
+        out.writeUTF(hero.getName());
+        out.writeShort(hero.getLevel());
+        out.writeInt(hero.getHp());
+        out.writeInt(hero.getMana());
+        out.writeInt(hero.getStrength());
+        out.writeInt(hero.getAgility());
+        out.writeInt(hero.getDexterity());
+        out.writeInt(hero.getMoney());
+        out.writeInt(hero.getExperience());
+        out.writeInt(hero.getX());
+        out.writeInt(hero.getY());
+
+        out.writeInt(itemId(hero.getMainHandWeapon()));
+        out.writeBoolean(hero.isMainHandTwoHandedGrip());
+        out.writeInt(itemId(hero.getOffHandWeapon()));
+        out.writeInt(itemId(hero.getEquippedArmor()));
+
+        List<Item> inventory = hero.getInventory();
+        out.writeShort(inventory.size());
+        for (Item item : inventory) {
+            out.writeInt(itemId(item));
+        }
+    }
+
+    /**
+     * Reads a hero written by {@link #writeHero}.
+     *
+     * @param in      The stream to read from.
+     * @param items   The items the saved IDs refer to.
+     * @param version The format version of the save.
+     * @return The hero.
+     * @throws IOException If the data is corrupt.
+     */
+    static Hero readHero(DataInputStream in, List<Item> items, int version) throws IOException {
+        String heroClass = in.readUTF();
+        String name = in.readUTF();
+        int level = in.readUnsignedShort();
+        int hp = in.readInt();
+        int mana = in.readInt();
+        int strength = in.readInt();
+        int agility = in.readInt();
+        int dexterity = in.readInt();
+        int money = in.readInt();
+        int experience = in.readInt();
+
+        Hero hero = newHero(heroClass, name, mana, strength, agility, dexterity, money, experience);
+        if (hero == null) {
+            throw new IOException("Unknown hero class in save file: " + heroClass);
+        }
+        hero.setLevel(level);
+        hero.setHp(hp);
+        hero.setX(in.readInt());
+        hero.setY(in.readInt());
+
+        // Equip before filling the inventory: equipping removes the item from it
+        Weapon mainHand = item(items, in.readInt(), Weapon.class);
+        boolean twoHandedGrip = in.readBoolean();
+        Weapon offHand = item(items, in.readInt(), Weapon.class);
+        Armor armor = item(items, in.readInt(), Armor.class);
+        if (mainHand != null) hero.equipMainHand(mainHand, twoHandedGrip);
+        if (offHand != null) hero.equipOffHand(offHand, null);
+        if (armor != null) hero.equipArmor(armor);
+
+        int inventorySize = in.readUnsignedShort();
+        for (int i = 0; i < inventorySize; i++) {
+            Item item = item(items, in.readInt(), Item.class);
+            if (item != null) hero.addItem(item);
+        }
+        return hero;
+    }
+
+    /**
+     * Creates an independent copy of a hero's saved state.
+     * Items are shared, since catalog items are never modified.
+     *
+     * @param hero The hero to copy.
+     * @return The copy.
+     */
+    static Hero copyHero(Hero hero) {
+        Hero copy = newHero(hero.getHeroClass(), hero.getName(), hero.getMana(), hero.getStrength(),
+                hero.getAgility(), hero.getDexterity(), hero.getMoney(), hero.getExperience());
+        copy.setLevel(hero.getLevel());
+        copy.setHp(hero.getHp());
+        copy.setX(hero.getX());
+        copy.setY(hero.getY());
+        if (hero.getMainHandWeapon() != null) copy.equipMainHand(hero.getMainHandWeapon(), hero.isMainHandTwoHandedGrip());
+        if (hero.getOffHandWeapon() != null) copy.equipOffHand(hero.getOffHandWeapon(), null);
+        if (hero.getEquippedArmor() != null) copy.equipArmor(hero.getEquippedArmor());
+        for (Item item : hero.getInventory()) {
+            copy.addItem(item);
+        }
+        return copy;
+    }
+
+    /**
+     * Creates a hero of the named class.
+     *
+     * @param heroClass  The hero class (Paladin, Sorcerer, Warrior).
+     * @param name       The hero's name.
+     * @param mana       The mana.
+     * @param strength   The strength.
+     * @param agility    The agility.
+     * @param dexterity  The dexterity.
+     * @param money      The money.
+     * @param experience The experience.
+     * @return The hero, or null for an unknown class.
+     */
+    private static Hero newHero(String heroClass, String name, int mana, int strength, int agility,
+                                int dexterity, int money, int experience) {
+        if (heroClass.equals("Paladin")) {
+            return new Paladin(name, mana, strength, agility, dexterity, money, experience);
+        } else if (heroClass.equals("Sorcerer")) {
+            return new Sorcerer(name, mana, strength, agility, dexterity, money, experience);
+        } else if (heroClass.equals("Warrior")) {
+            return new Warrior(name, mana, strength, agility, dexterity, money, experience);
+        }
+        return null;
+    }
+
+    /**
+     * Writes the board layout.
+     *
+     * @param out   The stream to write to.
+     * @param board The board, or null.
+     * @throws IOException If writing fails.
+     */
+    private static void writeBoard(DataOutputStream out, Board board) throws IOException {
+        if (board instanceof InfiniteBoard) {
+            out.writeByte(ENDLESS_BOARD);
+            out.writeShort(board.getWidth());
+            out.writeShort(board.getHeight());
+            out.writeLong(((InfiniteBoard) board).getSeed());
+        } else if (board != null) {
+            out.writeByte(BOUNDED_BOARD);
+            out.writeShort(board.getWidth());
+            out.writeShort(board.getHeight());
+            out.write(board.getTiles());
+        } else {
+            out.writeByte(-1);
+        }
+    }
+
+    /**
+     * Reads a board written by {@link #writeBoard}.
+     *
+     * @param in      The stream to read from.
+     * @param version The format version of the save.
+     * @return The board, without occupants, or null if none was saved.
+     * @throws IOException If the data is corrupt.
+     */
+    private static Board readBoard(DataInputStream in, int version) throws IOException {
+        byte kind = in.readByte();
+        if (kind == -1) {
+            return null;
+        }
+        int width = in.readUnsignedShort();
+        int height = in.readUnsignedShort();
+        if (kind == ENDLESS_BOARD) {
+            return new InfiniteBoard(width, height, in.readLong());
+        } else if (kind != BOUNDED_BOARD) {
+            throw new IOException("Unknown board kind in save file: " + kind);
+        }
+        byte[] tiles = new byte[width * height];
+        in.readFully(tiles);
+        for (byte tile : tiles) {
+            if (tile < BoardGenerator.COMMON || tile > BoardGenerator.INACCESSIBLE) {
+                throw new IOException("Invalid tile type in save file: " + tile);
+            }
+        }
+        return new Board(width, height, tiles);
+    }
+
+    /**
+     * Writes the kind and name of every catalog item, in ID order.
+     *
+     * @param out   The stream to write to.
+     * @param items The item catalog, indexed by item ID.
+     * @throws IOException If writing fails.
+     */
+    private static void writeItemTable(DataOutputStream out, List<Item> items) throws IOException {
+        out.writeShort(items.size());
+        for (Item item : items) {
+            out.writeUTF(item.getClass().getSimpleName());
+            out.writeUTF(item.getName());
+        }
+    }
+
+    /**
+     * Reads a table written by {@link #writeItemTable} and matches it to the current catalog.
+     *
+     * @param in    The stream to read from.
+     * @param items The item catalog, indexed by item ID.
+     * @return The current item for each saved ID, null where an item no longer exists.
+     * @throws IOException If the data is corrupt.
+     */
+    private static List<Item> readItemTable(DataInputStream in, List<Item> items) throws IOException {
+        Map<String, Item> byKindAndName = new HashMap<>();
+        for (Item item : items) {
+            byKindAndName.put(item.getClass().getSimpleName() + '/' + item.getName(), item);
+        }
+        int count = in.readUnsignedShort();
+        List<Item> saved = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String kind = in.readUTF();
+            saved.add(byKindAndName.get(kind + '/' + in.readUTF()));
+        }
+        return saved;
+    }
+
+    /**
+     * Computes a checksum of the catalog's item kinds and names in ID order,
+     * to tell whether data keyed by item ID was recorded against the same catalog.
+     *
+     * @param items The item catalog, indexed by item ID.
+     * @return The checksum.
+     */
+    static int catalogChecksum(List<Item> items) {
+        CRC32 crc = new CRC32();
+        for (Item item : items) {
+            crc.update((item.getClass().getSimpleName() + '/' + item.getName() + '\n').getBytes(StandardCharsets.UTF_8));
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Gets the ID written for an item slot.
+     *
+     * @param item The item, or null for an empty slot.
+     * @return The item's catalog ID, or {@link #NO_ITEM}.
+     */
+    static int itemId(Item item) {
+        return item == null ? NO_ITEM : item.getId();
+    }
+
+    /**
+     * Looks up an item by saved ID.
+     *
+     * @param items The items the saved IDs refer to, null where an item no longer exists.
+     * @param id    The item ID.
+     * @param type  The kind of item expected in this slot.
+     * @param <T>   The item type.
+     * @return The item, or null for {@link #NO_ITEM}.
+     * @throws IOException If the ID is not a current item of the expected kind.
+     */
+    static <T extends Item> T item(List<Item> items, int id, Class<T> type) throws IOException {
+        if (id == NO_ITEM) {
+            return null;
+        }
+        if (id >= 0 && id < items.size() && items.get(id) == null) {
+            throw new IOException("Save file refers to an item that is no longer in the game (ID " + id + ").");
+        }
+        if (id < 0 || id >= items.size() || !type.isInstance(items.get(id))) {
+            throw new IOException("Save file refers to an unknown item (ID " + id + ").");
+        }
+        return type.cast(items.get(id));
+    }
+}
@@ -0,0 +1,56 @@
+package com.legends.game;
+
+import com.legends.model.Hero;
+import com.legends.model.Item;
+import com.legends.model.Party;
+
+import java.util.List;
+
+/**
+ * The session state kept in a save file: everything that is not reloaded
+ * from the game data catalogs.
+ */
+final class SaveData {
+    final String difficulty;
+    final Party party;
+    final Board board;
+    final Markets markets;
+    final List<Item> items;
+
+    /**
+     * Constructs a new SaveData.
+     *
+     * @param difficulty The game difficulty.
+     * @param party      The party, with the leader's position set.
+     * @param board      The board, with the party leader placed on it.
+     * @param markets    The visited markets.
+     * @param items      The item catalog the saved item IDs refer to.
+     */
+    SaveData(String difficulty, Party party, Board board, Markets markets, List<Item> items) {
+        this.difficulty = difficulty;
+        this.party = party;
+        this.board = board;
+        this.markets = markets;
+        this.items = items;
+    }
+
+    /**
+     * Takes a consistent copy of the session state that can be encoded on another thread
+     * while play continues. Heroes and markets are copied; the board is shared, since a
+     * saved board is only its layout or seed, which never change after creation.
+     *
+     * @param difficulty The game difficulty.
+     * @param party      The live party.
+     * @param board      The live board.
+     * @param markets    The live markets.
+     * @param items      The item catalog, which is shared since it never changes during a game.
+     * @return The snapshot.
+     */
+    static SaveData snapshot(String difficulty, Party party, Board board, Markets markets, List<Item> items) {
+        Party copy = new Party();
+        for (Hero hero : party.getHeroes()) {
+            copy.addHero(SaveCodec.copyHero(hero));
+        }
+        return new SaveData(difficulty, copy, board, markets.copy(), items);
+    }
+}
@@ -0,0 +1,199 @@
+package com.legends.game;
+
+import com.legends.model.Hero;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * A short description of a save slot, stored as a fixed-size record at the start
+ * of each save file and in the slot index, so saves can be listed without decoding them.
+ * <p>
+ * Layout (big-endian, zero-padded to {@link #SIZE} bytes): magic, format version,
+ * slot number, save time, play time, board kind and size, difficulty, then the level
+ * and name of each hero. Text is length-prefixed UTF-8, cut short if it does not fit.
+ */
+final class SaveHeader {
+    static final int SIZE = 256;
+    static final int MAGIC = 0x4C4D4848; // "LMHH"
+    static final int VERSION = 1;
+    private static final int MAX_HEROES = 3;
+    private static final int MAX_DIFFICULTY_BYTES = 16;
+    private static final int MAX_NAME_BYTES = 60;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    final int slot;
+    final long savedAt;
+    final long playTime;
+    final String difficulty;
+    final boolean endless;
+    final int boardWidth;
+    final int boardHeight;
+    final String[] heroNames;
+    final int[] heroLevels;
+
+    /**
+     * Constructs a new SaveHeader.
+     *
+     * @param slot        The slot number.
+     * @param savedAt     When the save was written, in milliseconds since the epoch.
+     * @param playTime    The total time played, in milliseconds.
+     * @param difficulty  The game difficulty.
+     * @param endless     Whether the board is an endless world.
+     * @param boardWidth  The board (or view) width.
+     * @param boardHeight The board (or view) height.
+     * @param heroNames   The names of the party's heroes.
+     * @param heroLevels  The levels of the party's heroes.
+     */
+    SaveHeader(int slot, long savedAt, long playTime, String difficulty, boolean endless,
+               int boardWidth, int boardHeight, String[] heroNames, int[] heroLevels) {
+        this.slot = slot;
+        this.savedAt = savedAt;
+        this.playTime = playTime;
+        this.difficulty = difficulty;
+        this.endless = endless;
+        this.boardWidth = boardWidth;
+        this.boardHeight = boardHeight;
+        this.heroNames = heroNames;
+        this.heroLevels = heroLevels;
+    }
+
+    /**
+     * Describes a session being saved.
+     *
+     * @param slot     The slot number.
+     * @param data     The session state.
+     * @param savedAt  When the save is written, in milliseconds since the epoch.
+     * @param playTime The total time played, in milliseconds.
+     * @return The header.
+     */
+    static SaveHeader describe(int slot, SaveData data, long savedAt, long playTime) {
+        List<Hero> heroes = data.party.getHeroes();
+        int count = Math.min(heroes.size(), MAX_HEROES);
+        String[] names = new String[count];
+        int[] levels = new int[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = heroes.get(i).getName();
+            levels[i] = heroes.get(i).getLevel();
+        }
+        Board board = data.board;
+        return new SaveHeader(slot, savedAt, playTime, data.difficulty, board instanceof InfiniteBoard,
+                board == null ? 0 : board.getWidth(), board == null ? 0 : board.getHeight(), names, levels);
+    }
+
+    /**
+     * Writes the header as a {@link #SIZE}-byte record.
+     *
+     * @param buffer The buffer to write to, with at least {@link #SIZE} bytes remaining.
+     */
+    void write(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.putInt(MAGIC).putShort((short) VERSION).putInt(slot);
+        buffer.putLong(savedAt).putLong(playTime);
+        buffer.put((byte) (endless ? 1 : 0)).putShort((short) boardWidth).putShort((short) boardHeight);
+        putText(buffer, difficulty, MAX_DIFFICULTY_BYTES);
+        buffer.put((byte) heroNames.length);
+        for (int i = 0; i < heroNames.length; i++) {
+            buffer.putShort((short) heroLevels[i]);
+            putText(buffer, heroNames[i], MAX_NAME_BYTES);
+        }
+        while (buffer.position() < start + SIZE) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    /**
+     * Reads a {@link #SIZE}-byte record written by {@link #write}.
+     *
+     * @param buffer The buffer to read from; its position is advanced past the record.
+     * @return The header.
+     * @throws IOException If the record is not a save header or is from a newer version.
+     */
+    static SaveHeader read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < SIZE) {
+            throw new IOException("Save header is truncated.");
+        }
+        int start = buffer.position();
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a save header.");
+        }
+        int version = buffer.getShort() & 0xffff;
+        if (version > VERSION) {
+            throw new IOException("Save is from a newer version of the game (header format " + version + ").");
+        }
+        int slot = buffer.getInt();
+        long savedAt = buffer.getLong();
+        long playTime = buffer.getLong();
+        boolean endless = buffer.get() != 0;
+        int width = buffer.getShort() & 0xffff;
+        int height = buffer.getShort() & 0xffff;
+        String difficulty = getText(buffer);
+        int count = Math.min(buffer.get() & 0xff, MAX_HEROES);
+        String[] names = new String[count];
+        int[] levels = new int[count];
+        for (int i = 0; i < count; i++) {
+            levels[i] = buffer.getShort() & 0xffff;
+            names[i] = getText(buffer);
+        }
+        buffer.position(start + SIZE);
+        return new SaveHeader(slot, savedAt, playTime, difficulty, endless, width, height, names, levels);
+    }
+
+    /**
+     * Gets a one-line summary for the save picker.
+     *
+     * @return The party, difficulty, board, save time and play time.
+     */
+    String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < heroNames.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(heroNames[i]).append(" (Lvl ").append(heroLevels[i]).append(")");
+        }
+        sb.append(" | ").append(difficulty);
+        sb.append(" | ").append(endless ? "Endless" : boardWidth + "x" + boardHeight);
+        sb.append(" | Saved ").append(DATE_FORMAT.format(Instant.ofEpochMilli(savedAt).atZone(ZoneId.systemDefault())));
+        long minutes = playTime / 60000;
+        sb.append(" | Played ").append(minutes / 60).append("h ").append(minutes % 60).append("m");
+        return sb.toString();
+    }
+
+    /**
+     * Writes length-prefixed UTF-8 text, shortened to fit the byte limit.
+     *
+     * @param buffer   The buffer to write to.
+     * @param text     The text.
+     * @param maxBytes The most bytes the text may take.
+     */
+    private static void putText(ByteBuffer buffer, String text, int maxBytes) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, maxBytes);
+        // Do not cut a multi-byte character in half
+        while (length < bytes.length && length > 0 && (bytes[length] & 0xC0) == 0x80) {
+            length--;
+        }
+        buffer.put((byte) length).put(bytes, 0, length);
+    }
+
+    /**
+     * Reads text written by {@link #putText}.
+     *
+     * @param buffer The buffer to read from.
+     * @return The text.
+     * @throws IOException If the text runs past the end of the buffer.
+     */
+    private static String getText(ByteBuffer buffer) throws IOException {
+        int length = buffer.get() & 0xff;
+        if (length > buffer.remaining()) {
+            throw new IOException("Save header is corrupt.");
+        }
+        String text = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return text;
+    }
+}
@@ -0,0 +1,318 @@
+package com.legends.game;
+
+import com.legends.model.Item;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The numbered save slots in the saves directory.
+ * <p>
+ * Each slot is a save file ({@code slot<N>.dat}) and, for journaled sessions, a
+ * journal ({@code slot<N>.journal}); both start with a {@link SaveHeader}.
+ * The index file holds a copy of every slot's header, so listing the slots reads
+ * one small file no matter how many saves there are. The index is rebuilt from the
+ * slot files' headers if it is missing or unreadable.
+ * <p>
+ * Methods are synchronized, since the background save writer and the game thread
+ * both use the slots.
+ */
+final class SaveSlots {
+    static final int INDEX_MAGIC = 0x4C4D4849; // "LMHI"
+    static final int INDEX_VERSION = 1;
+    private static final String INDEX_FILE = "index.dat";
+    private static final Pattern SLOT_FILE = Pattern.compile("slot(\\d+)\\.(dat|journal)");
+    private static final int INDEX_HEADER_SIZE = 10;
+
+    private final Path dir;
+    private List<SaveHeader> index;
+
+    /**
+     * Constructs a new SaveSlots. Nothing is read until the slots are first listed.
+     *
+     * @param dir The saves directory; it is created on the first save.
+     */
+    SaveSlots(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Checks whether the saves directory exists yet.
+     *
+     * @return True if anything has been saved to a slot.
+     */
+    boolean exists() {
+        return Files.isDirectory(dir);
+    }
+
+    /**
+     * Lists the saved slots, most recently saved first.
+     *
+     * @return The slot headers.
+     * @throws IOException If the saves cannot be read.
+     */
+    synchronized List<SaveHeader> list() throws IOException {
+        List<SaveHeader> sorted = new ArrayList<>(index());
+        sorted.sort(Comparator.comparingLong((SaveHeader h) -> h.savedAt).reversed());
+        return sorted;
+    }
+
+    /**
+     * Picks the number for a new slot.
+     *
+     * @return One more than the highest slot in use.
+     * @throws IOException If the saves cannot be read.
+     */
+    synchronized int newSlot() throws IOException {
+        int max = 0;
+        for (SaveHeader header : index()) {
+            max = Math.max(max, header.slot);
+        }
+        return max + 1;
+    }
+
+    /**
+     * Gets the journal file of a slot.
+     *
+     * @param slot The slot number.
+     * @return The journal file.
+     */
+    Path journalFile(int slot) {
+        return dir.resolve("slot" + slot + ".journal");
+    }
+
+    /**
+     * Writes a save to its slot and records its header in the index.
+     *
+     * @param header The save's header.
+     * @param save   The encoded save.
+     * @throws IOException If the save cannot be written.
+     */
+    synchronized void write(SaveHeader header, byte[] save) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SaveHeader.SIZE + save.length);
+        header.write(buffer);
+        buffer.put(save);
+        buffer.flip();
+        Files.createDirectories(dir);
+        writeAtomically(saveFile(header.slot), buffer);
+        updateIndex(header);
+    }
+
+    /**
+     * Records a newer header for a slot whose save is kept elsewhere, such as in its journal.
+     *
+     * @param header The slot's header.
+     * @throws IOException If the index cannot be written.
+     */
+    synchronized void updateIndex(SaveHeader header) throws IOException {
+        List<SaveHeader> headers = index();
+        headers.removeIf(h -> h.slot == header.slot);
+        headers.add(header);
+        writeIndex();
+    }
+
+    /**
+     * Reads the session state saved in a slot, from its save file or its journal,
+     * whichever was written last.
+     *
+     * @param slot  The slot number.
+     * @param items The item catalog, indexed by item ID.
+     * @return The saved state.
+     * @throws IOException If the slot does not exist or its save is unreadable.
+     */
+    synchronized SaveData read(int slot, List<Item> items) throws IOException {
+        File file = newest(slot);
+        if (file == null) {
+            throw new NoSuchFileException("slot" + slot);
+        }
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        SaveHeader.read(ByteBuffer.wrap(bytes));
+        byte[] save = Arrays.copyOfRange(bytes, SaveHeader.SIZE, bytes.length);
+        return file.getName().endsWith(".journal") ? Journal.replay(save, items) : SaveCodec.decode(save, items);
+    }
+
+    /**
+     * Deletes a slot's save and journal.
+     *
+     * @param slot The slot number.
+     * @return True if the slot existed.
+     * @throws IOException If a file cannot be deleted or the index cannot be updated.
+     */
+    synchronized boolean delete(int slot) throws IOException {
+        boolean deleted = Files.deleteIfExists(saveFile(slot)) | Files.deleteIfExists(journalFile(slot));
+        if (index().removeIf(h -> h.slot == slot)) {
+            writeIndex();
+            deleted = true;
+        }
+        return deleted;
+    }
+
+    /**
+     * Atomically replaces a file: the contents are written to a temporary file beside it,
+     * synced to disk and renamed over it, so a crash never leaves a half-written file.
+     *
+     * @param file     The file to replace.
+     * @param contents The new contents.
+     * @throws IOException If the file cannot be written.
+     */
+    static void writeAtomically(Path file, ByteBuffer contents) throws IOException {
+        // Each file has a single writer, so a fixed temporary name is safe
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (contents.hasRemaining()) {
+                    channel.write(contents);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Gets the save file of a slot.
+     *
+     * @param slot The slot number.
+     * @return The save file.
+     */
+    private Path saveFile(int slot) {
+        return dir.resolve("slot" + slot + ".dat");
+    }
+
+    /**
+     * Gets whichever of a slot's save file and journal was written last.
+     *
+     * @param slot The slot number.
+     * @return The file, or null if the slot has neither.
+     */
+    private File newest(int slot) {
+        File save = saveFile(slot).toFile();
+        File journal = journalFile(slot).toFile();
+        if (!journal.exists()) {
+            return save.exists() ? save : null;
+        }
+        return save.exists() && save.lastModified() > journal.lastModified() ? save : journal;
+    }
+
+    /**
+     * Gets the index, reading it on first use.
+     *
+     * @return The headers of every slot, in no particular order.
+     * @throws IOException If the slot files cannot be read.
+     */
+    private List<SaveHeader> index() throws IOException {
+        if (index == null) {
+            try {
+                index = readIndex();
+            } catch (IOException e) {
+                index = rebuildIndex();
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Reads the index file.
+     *
+     * @return The headers it holds.
+     * @throws IOException If the index is missing or corrupt.
+     */
+    private List<SaveHeader> readIndex() throws IOException {
+        Path file = dir.resolve(INDEX_FILE);
+        if (!Files.exists(file)) {
+            if (!exists()) return new ArrayList<>();
+            throw new NoSuchFileException(file.toString());
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < INDEX_HEADER_SIZE || buffer.getInt() != INDEX_MAGIC
+                || (buffer.getShort() & 0xffff) > INDEX_VERSION) {
+            throw new IOException("Save index is corrupt.");
+        }
+        int count = buffer.getInt();
+        if (count < 0 || (long) count * SaveHeader.SIZE != buffer.remaining()) {
+            throw new IOException("Save index is corrupt.");
+        }
+        List<SaveHeader> headers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            headers.add(SaveHeader.read(buffer));
+        }
+        return headers;
+    }
+
+    /**
+     * Rebuilds the index from the headers of the slot files, skipping unreadable ones.
+     *
+     * @return The headers found.
+     * @throws IOException If the saves directory cannot be listed.
+     */
+    private List<SaveHeader> rebuildIndex() throws IOException {
+        List<SaveHeader> headers = new ArrayList<>();
+        String[] names = dir.toFile().list();
+        if (names == null) {
+            return headers;
+        }
+        List<Integer> slots = new ArrayList<>();
+        for (String name : names) {
+            Matcher m = SLOT_FILE.matcher(name);
+            if (m.matches()) {
+                int slot = Integer.parseInt(m.group(1));
+                if (!slots.contains(slot)) slots.add(slot);
+            }
+        }
+        Collections.sort(slots);
+        ByteBuffer buffer = ByteBuffer.allocate(SaveHeader.SIZE);
+        for (int slot : slots) {
+            try (FileChannel channel = FileChannel.open(newest(slot).toPath(), StandardOpenOption.READ)) {
+                buffer.clear();
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // Keep reading until the header is complete or the file ends
+                }
+                buffer.flip();
+                headers.add(SaveHeader.read(buffer));
+            } catch (IOException e) {
+                // Leave out a slot whose header cannot be read
+            }
+        }
+        index = headers;
+        writeIndex();
+        return headers;
+    }
+
+    /**
+     * Writes the in-memory index to the index file.
+     *
+     * @throws IOException If the index cannot be written.
+     */
+    private void writeIndex() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(INDEX_HEADER_SIZE + index.size() * SaveHeader.SIZE);
+        buffer.putInt(INDEX_MAGIC).putShort((short) INDEX_VERSION).putInt(index.size());
+        for (SaveHeader header : index) {
+            header.write(buffer);
+        }
+        buffer.flip();
+        Files.createDirectories(dir);
+        writeAtomically(dir.resolve(INDEX_FILE), buffer);
+    }
+}
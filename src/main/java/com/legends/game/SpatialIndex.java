@@ -0,0 +1,509 @@
+package com.legends.game;
+
+import com.legends.model.Entity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid hash over a board, for finding what is near a position.
+ * <p>
+ * The board is divided into square cells of {@link #CELL_SIZE} tiles. Each cell
+ * lists the entities standing in it, kept in step with the board's occupants, and
+ * the market tiles in it, found from the terrain when the cell is searched. Cells
+ * are dropped once empty, and only the most recently searched cells' markets are
+ * kept, so the index stays small however far the party travels on an endless board.
+ * A query only looks at the cells its radius overlaps, or at rings of cells around
+ * the position until the nearest matches are known, so its cost depends on how far
+ * it looks and not on the size of the board.
+ * <p>
+ * Distances are in steps, ignoring obstacles: the sum of the horizontal and
+ * vertical distances.
+ */
+final class SpatialIndex {
+    static final int CELL_SIZE = 8;
+    // How far an endless board is searched for markets, in cells
+    private static final int ENDLESS_MARKET_SEARCH = 32;
+    // Enough cells for two full endless-board market searches
+    private static final int MAX_CACHED_MARKET_CELLS = 2 * (2 * ENDLESS_MARKET_SEARCH + 1) * (2 * ENDLESS_MARKET_SEARCH + 1);
+    private static final int[] NO_MARKETS = new int[0];
+
+    private final Board board;
+    private final Map<Long, Bucket> entities = new HashMap<>();
+    private final LinkedHashMap<Long, int[]> markets;
+    private int entityCount;
+    // The cells holding entities lie within these bounds; they are worked out again after a cell empties
+    private int minCellX = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int minCellY = Integer.MAX_VALUE;
+    private int maxCellY = Integer.MIN_VALUE;
+    private boolean boundsStale;
+
+    /**
+     * The entities standing in one cell, with their positions.
+     */
+    private static final class Bucket {
+        Entity[] entities = new Entity[4];
+        int[] xs = new int[4];
+        int[] ys = new int[4];
+        int size;
+    }
+
+    /**
+     * Something found by a query, with its position and distance.
+     */
+    private static final class Hit {
+        final Object found;
+        final int x;
+        final int y;
+        final int distance;
+
+        /**
+         * Constructs a Hit.
+         *
+         * @param found    The entity, or null for a market tile.
+         * @param x        The x-coordinate.
+         * @param y        The y-coordinate.
+         * @param distance The distance from the query position.
+         */
+        Hit(Object found, int x, int y, int distance) {
+            this.found = found;
+            this.x = x;
+            this.y = y;
+            this.distance = distance;
+        }
+    }
+
+    // Nearest first; ties are broken by position so results do not depend on insertion order
+    private static final Comparator<Hit> NEAREST_FIRST = Comparator.<Hit>comparingInt(h -> h.distance)
+            .thenComparingInt(h -> h.y).thenComparingInt(h -> h.x);
+
+    /**
+     * Constructs an empty index.
+     *
+     * @param board The board whose terrain markets are found in.
+     */
+    SpatialIndex(Board board) {
+        this.board = board;
+        this.markets = new LinkedHashMap<Long, int[]>(MAX_CACHED_MARKET_CELLS * 2, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+                return size() > MAX_CACHED_MARKET_CELLS;
+            }
+        };
+    }
+
+    /**
+     * Records an entity standing at a position.
+     *
+     * @param entity The entity.
+     * @param x      The x-coordinate.
+     * @param y      The y-coordinate.
+     */
+    void add(Entity entity, int x, int y) {
+        int cellX = Math.floorDiv(x, CELL_SIZE);
+        int cellY = Math.floorDiv(y, CELL_SIZE);
+        Bucket bucket = entities.get(key(cellX, cellY));
+        if (bucket == null) {
+            bucket = new Bucket();
+            entities.put(key(cellX, cellY), bucket);
+        }
+        if (bucket.size == bucket.entities.length) {
+            int capacity = bucket.size * 2;
+            bucket.entities = Arrays.copyOf(bucket.entities, capacity);
+            bucket.xs = Arrays.copyOf(bucket.xs, capacity);
+            bucket.ys = Arrays.copyOf(bucket.ys, capacity);
+        }
+        bucket.entities[bucket.size] = entity;
+        bucket.xs[bucket.size] = x;
+        bucket.ys[bucket.size] = y;
+        bucket.size++;
+        entityCount++;
+        minCellX = Math.min(minCellX, cellX);
+        maxCellX = Math.max(maxCellX, cellX);
+        minCellY = Math.min(minCellY, cellY);
+        maxCellY = Math.max(maxCellY, cellY);
+    }
+
+    /**
+     * Forgets the entity standing at a position, if any.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     */
+    void remove(int x, int y) {
+        long cellKey = key(Math.floorDiv(x, CELL_SIZE), Math.floorDiv(y, CELL_SIZE));
+        Bucket bucket = entities.get(cellKey);
+        if (bucket == null) return;
+        for (int i = 0; i < bucket.size; i++) {
+            if (bucket.xs[i] == x && bucket.ys[i] == y) {
+                int last = --bucket.size;
+                bucket.entities[i] = bucket.entities[last];
+                bucket.xs[i] = bucket.xs[last];
+                bucket.ys[i] = bucket.ys[last];
+                bucket.entities[last] = null;
+                entityCount--;
+                if (bucket.size == 0) {
+                    entities.remove(cellKey);
+                    boundsStale = true;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records an entity moving, updating its cell only if it has left it.
+     *
+     * @param fromX The starting x-coordinate.
+     * @param fromY The starting y-coordinate.
+     * @param toX   The destination x-coordinate.
+     * @param toY   The destination y-coordinate.
+     */
+    void move(int fromX, int fromY, int toX, int toY) {
+        int cellX = Math.floorDiv(fromX, CELL_SIZE);
+        int cellY = Math.floorDiv(fromY, CELL_SIZE);
+        Bucket bucket = entities.get(key(cellX, cellY));
+        if (bucket == null) return;
+        for (int i = 0; i < bucket.size; i++) {
+            if (bucket.xs[i] == fromX && bucket.ys[i] == fromY) {
+                if (cellX == Math.floorDiv(toX, CELL_SIZE) && cellY == Math.floorDiv(toY, CELL_SIZE)) {
+                    bucket.xs[i] = toX;
+                    bucket.ys[i] = toY;
+                } else {
+                    Entity entity = bucket.entities[i];
+                    remove(fromX, fromY);
+                    add(entity, toX, toY);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finds the entities of a kind within a distance of a position.
+     *
+     * @param x      The x-coordinate.
+     * @param y      The y-coordinate.
+     * @param radius The greatest distance, in steps.
+     * @param kind   The kind of entity, such as {@code Monster.class}.
+     * @param <T>    The kind of entity.
+     * @return The entities, nearest first.
+     */
+    <T extends Entity> List<T> findWithin(int x, int y, int radius, Class<T> kind) {
+        List<Hit> hits = new ArrayList<>();
+        if (entityCount > 0 && radius >= 0) {
+            updateBounds();
+            int fromX = Math.max(minCellX, Math.floorDiv(x - radius, CELL_SIZE));
+            int toX = Math.min(maxCellX, Math.floorDiv(x + radius, CELL_SIZE));
+            int fromY = Math.max(minCellY, Math.floorDiv(y - radius, CELL_SIZE));
+            int toY = Math.min(maxCellY, Math.floorDiv(y + radius, CELL_SIZE));
+            for (int cellY = fromY; cellY <= toY; cellY++) {
+                for (int cellX = fromX; cellX <= toX; cellX++) {
+                    collectEntities(cellX, cellY, x, y, radius, kind, hits);
+                }
+            }
+        }
+        hits.sort(NEAREST_FIRST);
+        return entitiesOf(hits, hits.size(), kind);
+    }
+
+    /**
+     * Finds the entities of a kind nearest to a position.
+     *
+     * @param x    The x-coordinate.
+     * @param y    The y-coordinate.
+     * @param k    The most entities to find.
+     * @param kind The kind of entity, such as {@code Hero.class}.
+     * @param <T>  The kind of entity.
+     * @return Up to {@code k} entities, nearest first.
+     */
+    <T extends Entity> List<T> findNearest(int x, int y, int k, Class<T> kind) {
+        List<Hit> hits = new ArrayList<>();
+        if (entityCount > 0 && k > 0) {
+            updateBounds();
+            int cellX = Math.floorDiv(x, CELL_SIZE);
+            int cellY = Math.floorDiv(y, CELL_SIZE);
+            int lastRing = Math.max(Math.max(cellX - minCellX, maxCellX - cellX),
+                    Math.max(cellY - minCellY, maxCellY - cellY));
+            for (int ring = 0; ring <= lastRing && !isSettled(hits, k, ring); ring++) {
+                for (int cell = 0, cells = ringSize(ring); cell < cells; cell++) {
+                    int cx = cellX + ringX(ring, cell);
+                    int cy = cellY + ringY(ring, cell);
+                    collectEntities(cx, cy, x, y, Integer.MAX_VALUE, kind, hits);
+                }
+            }
+        }
+        hits.sort(NEAREST_FIRST);
+        return entitiesOf(hits, Math.min(k, hits.size()), kind);
+    }
+
+    /**
+     * Works out the bounds of the cells holding entities again, if a cell has emptied since.
+     * This looks at each occupied cell, of which there are at most as many as entities.
+     */
+    private void updateBounds() {
+        if (!boundsStale) return;
+        boundsStale = false;
+        minCellX = Integer.MAX_VALUE;
+        maxCellX = Integer.MIN_VALUE;
+        minCellY = Integer.MAX_VALUE;
+        maxCellY = Integer.MIN_VALUE;
+        for (long cellKey : entities.keySet()) {
+            int cellX = (int) cellKey;
+            int cellY = (int) (cellKey >> 32);
+            minCellX = Math.min(minCellX, cellX);
+            maxCellX = Math.max(maxCellX, cellX);
+            minCellY = Math.min(minCellY, cellY);
+            maxCellY = Math.max(maxCellY, cellY);
+        }
+    }
+
+    /**
+     * Finds the market tiles within a distance of a position.
+     *
+     * @param x      The x-coordinate.
+     * @param y      The y-coordinate.
+     * @param radius The greatest distance, in steps.
+     * @return The markets' positions as {x, y} pairs, nearest first.
+     */
+    List<int[]> findMarketsWithin(int x, int y, int radius) {
+        List<Hit> hits = new ArrayList<>();
+        if (radius >= 0) {
+            int fromX = Math.floorDiv(x - radius, CELL_SIZE);
+            int toX = Math.floorDiv(x + radius, CELL_SIZE);
+            int fromY = Math.floorDiv(y - radius, CELL_SIZE);
+            int toY = Math.floorDiv(y + radius, CELL_SIZE);
+            if (!(board instanceof InfiniteBoard)) {
+                fromX = Math.max(fromX, 0);
+                toX = Math.min(toX, (board.getWidth() - 1) / CELL_SIZE);
+                fromY = Math.max(fromY, 0);
+                toY = Math.min(toY, (board.getHeight() - 1) / CELL_SIZE);
+            }
+            for (int cellY = fromY; cellY <= toY; cellY++) {
+                for (int cellX = fromX; cellX <= toX; cellX++) {
+                    collectMarkets(cellX, cellY, x, y, radius, hits);
+                }
+            }
+        }
+        hits.sort(NEAREST_FIRST);
+        return positionsOf(hits, hits.size());
+    }
+
+    /**
+     * Finds the market tiles nearest to a position. On an endless board only the
+     * markets within {@link #ENDLESS_MARKET_SEARCH} cells are considered.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @param k The most markets to find.
+     * @return Up to {@code k} market positions as {x, y} pairs, nearest first.
+     */
+    List<int[]> findNearestMarkets(int x, int y, int k) {
+        List<Hit> hits = new ArrayList<>();
+        if (k > 0) {
+            int cellX = Math.floorDiv(x, CELL_SIZE);
+            int cellY = Math.floorDiv(y, CELL_SIZE);
+            int lastRing = ENDLESS_MARKET_SEARCH;
+            if (!(board instanceof InfiniteBoard)) {
+                int lastCellX = (board.getWidth() - 1) / CELL_SIZE;
+                int lastCellY = (board.getHeight() - 1) / CELL_SIZE;
+                lastRing = Math.max(Math.max(cellX, lastCellX - cellX), Math.max(cellY, lastCellY - cellY));
+            }
+            for (int ring = 0; ring <= lastRing && !isSettled(hits, k, ring); ring++) {
+                for (int cell = 0, cells = ringSize(ring); cell < cells; cell++) {
+                    collectMarkets(cellX + ringX(ring, cell), cellY + ringY(ring, cell), x, y, Integer.MAX_VALUE, hits);
+                }
+            }
+        }
+        hits.sort(NEAREST_FIRST);
+        return positionsOf(hits, Math.min(k, hits.size()));
+    }
+
+    /**
+     * Adds the entities of a kind in one cell that are within a distance.
+     *
+     * @param cellX  The cell's x-index.
+     * @param cellY  The cell's y-index.
+     * @param x      The query x-coordinate.
+     * @param y      The query y-coordinate.
+     * @param radius The greatest distance.
+     * @param kind   The kind of entity.
+     * @param hits   The list to add to.
+     */
+    private void collectEntities(int cellX, int cellY, int x, int y, int radius, Class<?> kind, List<Hit> hits) {
+        Bucket bucket = entities.get(key(cellX, cellY));
+        if (bucket == null) return;
+        for (int i = 0; i < bucket.size; i++) {
+            if (!kind.isInstance(bucket.entities[i])) continue;
+            int distance = Math.abs(bucket.xs[i] - x) + Math.abs(bucket.ys[i] - y);
+            if (distance <= radius) {
+                hits.add(new Hit(bucket.entities[i], bucket.xs[i], bucket.ys[i], distance));
+            }
+        }
+    }
+
+    /**
+     * Adds the market tiles in one cell that are within a distance.
+     *
+     * @param cellX  The cell's x-index.
+     * @param cellY  The cell's y-index.
+     * @param x      The query x-coordinate.
+     * @param y      The query y-coordinate.
+     * @param radius The greatest distance.
+     * @param hits   The list to add to.
+     */
+    private void collectMarkets(int cellX, int cellY, int x, int y, int radius, List<Hit> hits) {
+        int[] found = marketsIn(cellX, cellY);
+        for (int i = 0; i < found.length; i += 2) {
+            int distance = Math.abs(found[i] - x) + Math.abs(found[i + 1] - y);
+            if (distance <= radius) {
+                hits.add(new Hit(null, found[i], found[i + 1], distance));
+            }
+        }
+    }
+
+    /**
+     * Gets the market tiles in a cell, scanning its terrain if the cell is not cached.
+     * Terrain never changes, so the scan is kept until the cell is among the least
+     * recently searched.
+     *
+     * @param cellX The cell's x-index.
+     * @param cellY The cell's y-index.
+     * @return The markets' positions as consecutive x, y values.
+     */
+    private int[] marketsIn(int cellX, int cellY) {
+        long cellKey = key(cellX, cellY);
+        int[] found = markets.get(cellKey);
+        if (found != null) return found;
+
+        int[] scan = new int[2 * CELL_SIZE * CELL_SIZE];
+        int length = 0;
+        for (int y = cellY * CELL_SIZE; y < (cellY + 1) * CELL_SIZE; y++) {
+            for (int x = cellX * CELL_SIZE; x < (cellX + 1) * CELL_SIZE; x++) {
+                if (board.isValidCoordinate(x, y) && board.getTileType(x, y) == BoardGenerator.MARKET) {
+                    scan[length++] = x;
+                    scan[length++] = y;
+                }
+            }
+        }
+        found = length == 0 ? NO_MARKETS : Arrays.copyOf(scan, length);
+        markets.put(cellKey, found);
+        return found;
+    }
+
+    /**
+     * Checks if the nearest matches are known before searching a ring of cells.
+     * Everything in ring {@code r} is at least {@code (r - 1) * CELL_SIZE + 1} steps away.
+     *
+     * @param hits The matches so far.
+     * @param k    The number of matches wanted.
+     * @param ring The ring about to be searched.
+     * @return True if no match in this ring or beyond can be among the nearest.
+     */
+    private static boolean isSettled(List<Hit> hits, int k, int ring) {
+        if (ring == 0 || hits.size() < k) return false;
+        hits.sort(NEAREST_FIRST);
+        return hits.get(k - 1).distance < (ring - 1) * CELL_SIZE + 1;
+    }
+
+    /**
+     * Counts the cells in a ring around a cell.
+     *
+     * @param ring The ring's distance in cells.
+     * @return The number of cells.
+     */
+    private static int ringSize(int ring) {
+        return ring == 0 ? 1 : 8 * ring;
+    }
+
+    /**
+     * Gets the x-offset of a cell in a ring, going round the square's edges.
+     *
+     * @param ring The ring's distance in cells.
+     * @param cell The cell's position in the ring.
+     * @return The x-offset from the centre cell.
+     */
+    private static int ringX(int ring, int cell) {
+        if (ring == 0) return 0;
+        int side = 2 * ring;
+        int edge = cell / side;
+        int step = cell % side;
+        switch (edge) {
+            case 0: return -ring + step;  // top, left to right
+            case 1: return ring;          // right, top to bottom
+            case 2: return ring - step;   // bottom, right to left
+            default: return -ring;        // left, bottom to top
+        }
+    }
+
+    /**
+     * Gets the y-offset of a cell in a ring, going round the square's edges.
+     *
+     * @param ring The ring's distance in cells.
+     * @param cell The cell's position in the ring.
+     * @return The y-offset from the centre cell.
+     */
+    private static int ringY(int ring, int cell) {
+        if (ring == 0) return 0;
+        int side = 2 * ring;
+        int edge = cell / side;
+        int step = cell % side;
+        switch (edge) {
+            case 0: return -ring;         // top
+            case 1: return -ring + step;  // right
+            case 2: return ring;          // bottom
+            default: return ring - step;  // left
+        }
+    }
+
+    /**
+     * Takes the entities from the first hits.
+     *
+     * @param hits  The hits, in order.
+     * @param count The number to take.
+     * @param kind  The kind of entity.
+     * @param <T>   The kind of entity.
+     * @return The entities.
+     */
+    private static <T extends Entity> List<T> entitiesOf(List<Hit> hits, int count, Class<T> kind) {
+        List<T> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(kind.cast(hits.get(i).found));
+        }
+        return result;
+    }
+
+    /**
+     * Takes the positions of the first hits.
+     *
+     * @param hits  The hits, in order.
+     * @param count The number to take.
+     * @return The positions as {x, y} pairs.
+     */
+    private static List<int[]> positionsOf(List<Hit> hits, int count) {
+        List<int[]> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(new int[] {hits.get(i).x, hits.get(i).y});
+        }
+        return result;
+    }
+
+    /**
+     * Packs a cell's indices into a map key.
+     *
+     * @param cellX The cell's x-index.
+     * @param cellY The cell's y-index.
+     * @return The key.
+     */
+    private static long key(int cellX, int cellY) {
+        return ((long) cellY << 32) | (cellX & 0xffffffffL);
+    }
+}
@@ -6,12 +6,15 @@ import java.io.Serializable;
 /**
  * Abstract base class for all tiles on the game board.
  * Manages entity placement and coordinates.
+ * Tiles returned by a {@link Board} are lightweight views: the board only stores
+ * tile types and occupants, and a view reads and writes its occupant through the board.
  */
 public abstract class Tile implements Serializable {
     private static final long serialVersionUID = 1L;
     protected Entity entity;
     protected int x;
     protected int y;
+    private transient Board board;
 
     /**
      * Constructs a new Tile at the specified coordinates.
@@ -24,13 +27,24 @@ public abstract class Tile implements Serializable {
         this.y = y;
     }
 
+    /**
+     * Binds this tile to a board so that its occupant lives on the board.
+     *
+     * @param board The board this tile is a view of.
+     * @return This tile.
+     */
+    Tile attach(Board board) {
+        this.board = board;
+        return this;
+    }
+
     /**
      * Gets the entity currently on this tile.
      *
      * @return The entity, or null if empty.
      */
     public Entity getEntity() {
-        return entity;
+        return board != null ? board.getEntityAt(x, y) : entity;
     }
 
     /**
@@ -39,7 +53,11 @@ public abstract class Tile implements Serializable {
      * @param entity The entity to place.
      */
     public void setEntity(Entity entity) {
-        this.entity = entity;
+        if (board != null) {
+            board.setOccupant(x, y, entity);
+        } else {
+            this.entity = entity;
+        }
     }
 
     /**
@@ -48,7 +66,7 @@ public abstract class Tile implements Serializable {
      * @return True if occupied, false otherwise.
      */
     public boolean isOccupied() {
-        return entity != null;
+        return getEntity() != null;
     }
 
     /**
@@ -0,0 +1,113 @@
+package com.legends.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Schedules entries to expire at a given round.
+ * Rounds map onto a fixed ring of buckets, so advancing a round only visits the
+ * bucket for that round: the work done is proportional to what expires, not to
+ * everything scheduled. An entry scheduled a full turn of the wheel or more ahead
+ * waits in its bucket until its round comes around.
+ *
+ * @param <T> The type of entry scheduled.
+ */
+final class TimingWheel<T> {
+    private final List<List<Scheduled<T>>> buckets;
+    private final int mask;
+    private int size;
+
+    /**
+     * Constructs a new TimingWheel.
+     *
+     * @param span The number of rounds ahead that entries are usually scheduled;
+     *             rounded up to a power of two.
+     */
+    TimingWheel(int span) {
+        int slots = Integer.highestOneBit(Math.max(1, span - 1)) << 1;
+        this.buckets = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Schedules an entry.
+     *
+     * @param entry The entry.
+     * @param round The round at which it expires.
+     */
+    void schedule(T entry, int round) {
+        buckets.get(round & mask).add(new Scheduled<>(entry, round));
+        size++;
+    }
+
+    /**
+     * Expires every entry scheduled for a round.
+     *
+     * @param round    The round that has ended.
+     * @param onExpire Called with each expired entry, in the order scheduled.
+     */
+    void expire(int round, Consumer<T> onExpire) {
+        List<Scheduled<T>> bucket = buckets.get(round & mask);
+        int kept = 0;
+        for (int i = 0; i < bucket.size(); i++) {
+            Scheduled<T> scheduled = bucket.get(i);
+            if (scheduled.round <= round) {
+                onExpire.accept(scheduled.entry);
+                size--;
+            } else {
+                // Due on a later turn of the wheel
+                bucket.set(kept++, scheduled);
+            }
+        }
+        bucket.subList(kept, bucket.size()).clear();
+    }
+
+    /**
+     * Expires every scheduled entry, whatever its round.
+     *
+     * @param onExpire Called with each entry.
+     */
+    void clear(Consumer<T> onExpire) {
+        for (List<Scheduled<T>> bucket : buckets) {
+            for (Scheduled<T> scheduled : bucket) {
+                onExpire.accept(scheduled.entry);
+            }
+            bucket.clear();
+        }
+        size = 0;
+    }
+
+    /**
+     * Gets the number of entries scheduled.
+     *
+     * @return The number of entries waiting to expire.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * An entry with the round it expires at.
+     *
+     * @param <T> The type of entry.
+     */
+    private static final class Scheduled<T> {
+        final T entry;
+        final int round;
+
+        /**
+         * Constructs a new Scheduled entry.
+         *
+         * @param entry The entry.
+         * @param round The round at which it expires.
+         */
+        Scheduled(T entry, int round) {
+            this.entry = entry;
+            this.round = round;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.legends.game;
+
+import com.legends.model.Monster;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Monsters roaming a bounded board.
+ * <p>
+ * Roaming monsters are entities on the board and move once per tick: towards the
+ * party when it is close, otherwise wandering at random. They keep to common land,
+ * so markets are safe. A monster that steps onto the party starts an encounter,
+ * and defeated monsters are replaced one per tick somewhere out of the party's way.
+ * <p>
+ * The board is divided into bands of rows, each with its own monsters and random
+ * stream. Each tick, every band decides its monsters' moves from the terrain alone,
+ * in parallel once there are enough monsters to be worth it; the moves are then
+ * applied to the board on the calling thread, band by band. The board is only ever
+ * changed by one thread, and the outcome does not depend on how the work was scheduled.
+ */
+final class WorldSimulation {
+    static final int BAND_HEIGHT = 16;
+    static final int CHASE_RADIUS = 4; // Steps at which monsters notice the party
+    private static final int CELLS_PER_MONSTER = 10; // Common tiles for each roaming monster
+    private static final int PARALLEL_THRESHOLD = 4096; // Fewer monsters are moved on the calling thread
+    private static final int MIN_SPAWN_DISTANCE = 3;
+    private static final int SPAWN_ATTEMPTS = 16;
+
+    private static final byte STAY = 0;
+    private static final byte UP = 1;
+    private static final byte DOWN = 2;
+    private static final byte LEFT = 3;
+    private static final byte RIGHT = 4;
+    private static final int[] DX = {0, 0, 0, -1, 1};
+    private static final int[] DY = {0, -1, 1, 0, 0};
+
+    private static ExecutorService workers; // Shared by every simulation, created on first use
+
+    private final Board board;
+    private final MonsterCatalog catalog;
+    private final SplittableRandom rand;
+    private final Band[] bands;
+    private final int population;
+    private int count;
+
+    /**
+     * The monsters in one band of rows and the moves decided for them this tick.
+     */
+    private static final class Band {
+        final List<Monster> monsters = new ArrayList<>();
+        final SplittableRandom rand;
+        byte[] moves = new byte[16];
+
+        /**
+         * Constructs an empty band.
+         *
+         * @param rand The band's random stream.
+         */
+        Band(SplittableRandom rand) {
+            this.rand = rand;
+        }
+    }
+
+    /**
+     * Constructs a WorldSimulation with one roaming monster for every
+     * {@link #CELLS_PER_MONSTER} common tiles. No monsters are placed until {@link #populate}.
+     *
+     * @param board   The board, which must be bounded.
+     * @param catalog The monster templates to spawn from.
+     * @param seed    The seed for placing and moving monsters.
+     */
+    WorldSimulation(Board board, MonsterCatalog catalog, long seed) {
+        this(board, catalog, seed, Math.max(1, countCommon(board) / CELLS_PER_MONSTER));
+    }
+
+    /**
+     * Constructs a WorldSimulation with a given number of roaming monsters.
+     * No monsters are placed until {@link #populate}.
+     *
+     * @param board      The board, which must be bounded.
+     * @param catalog    The monster templates to spawn from.
+     * @param seed       The seed for placing and moving monsters.
+     * @param population The number of monsters to keep roaming.
+     */
+    WorldSimulation(Board board, MonsterCatalog catalog, long seed, int population) {
+        this.board = board;
+        this.catalog = catalog;
+        this.rand = new SplittableRandom(seed);
+        this.population = population;
+        this.bands = new Band[(board.getHeight() + BAND_HEIGHT - 1) / BAND_HEIGHT];
+        for (int i = 0; i < bands.length; i++) {
+            bands[i] = new Band(rand.split());
+        }
+    }
+
+    /**
+     * Gets the number of monsters roaming.
+     *
+     * @return The number of monsters on the board.
+     */
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * Places monsters until the population is reached or no room is left.
+     *
+     * @param partyX The party's x-coordinate.
+     * @param partyY The party's y-coordinate.
+     * @param level  The level of monster to spawn.
+     */
+    void populate(int partyX, int partyY, int level) {
+        while (count < population) {
+            if (!spawn(partyX, partyY, level)) return;
+        }
+    }
+
+    /**
+     * Advances the world by one tick: moves every monster and replaces one that is missing.
+     *
+     * @param partyX The party's x-coordinate.
+     * @param partyY The party's y-coordinate.
+     * @param level  The level of monster to spawn.
+     * @return The monsters that reached the party, in the order they moved.
+     */
+    List<Monster> tick(int partyX, int partyY, int level) {
+        // Monsters cannot follow the party into a market
+        boolean exposed = board.getTileType(partyX, partyY) == BoardGenerator.COMMON;
+        decideMoves(partyX, partyY, exposed);
+
+        List<Monster> reached = new ArrayList<>();
+        List<Monster> crossed = new ArrayList<>();
+        for (Band band : bands) {
+            List<Monster> monsters = band.monsters;
+            int kept = 0;
+            for (int i = 0; i < monsters.size(); i++) {
+                Monster monster = monsters.get(i);
+                byte move = band.moves[i];
+                if (move != STAY) {
+                    int x = monster.getX();
+                    int y = monster.getY();
+                    int toX = x + DX[move];
+                    int toY = y + DY[move];
+                    if (toX == partyX && toY == partyY) {
+                        reached.add(monster);
+                    } else if (board.moveEntity(x, y, toX, toY, null) && toY / BAND_HEIGHT != y / BAND_HEIGHT) {
+                        // Handed to its new band once every band has moved
+                        crossed.add(monster);
+                        continue;
+                    }
+                }
+                monsters.set(kept++, monster);
+            }
+            monsters.subList(kept, monsters.size()).clear();
+        }
+        for (Monster monster : crossed) {
+            bands[monster.getY() / BAND_HEIGHT].monsters.add(monster);
+        }
+
+        if (count < population) {
+            spawn(partyX, partyY, level);
+        }
+        return reached;
+    }
+
+    /**
+     * Takes a monster off the board, after it has been fought.
+     *
+     * @param monster The monster.
+     */
+    void remove(Monster monster) {
+        List<Monster> monsters = bands[monster.getY() / BAND_HEIGHT].monsters;
+        for (int i = 0; i < monsters.size(); i++) {
+            if (monsters.get(i) == monster) {
+                monsters.remove(i);
+                board.removeEntity(monster.getX(), monster.getY());
+                count--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Decides every monster's move, one task per band when there are enough monsters.
+     *
+     * @param partyX  The party's x-coordinate.
+     * @param partyY  The party's y-coordinate.
+     * @param exposed Whether monsters can reach the party where it stands.
+     */
+    private void decideMoves(int partyX, int partyY, boolean exposed) {
+        if (count >= PARALLEL_THRESHOLD && bands.length > 1) {
+            List<Callable<Void>> tasks = new ArrayList<>(bands.length);
+            for (Band band : bands) {
+                tasks.add(() -> {
+                    decideMoves(band, partyX, partyY, exposed);
+                    return null;
+                });
+            }
+            try {
+                for (Future<Void> future : workers().invokeAll(tasks)) {
+                    future.get();
+                }
+                return;
+            } catch (InterruptedException e) {
+                // Finish the tick on this thread instead
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("World simulation failed", e.getCause());
+            }
+        }
+        for (Band band : bands) {
+            decideMoves(band, partyX, partyY, exposed);
+        }
+    }
+
+    /**
+     * Decides the moves of a band's monsters. Only reads the terrain and positions,
+     * so bands can decide at the same time.
+     *
+     * @param band    The band.
+     * @param partyX  The party's x-coordinate.
+     * @param partyY  The party's y-coordinate.
+     * @param exposed Whether monsters can reach the party where it stands.
+     */
+    private void decideMoves(Band band, int partyX, int partyY, boolean exposed) {
+        List<Monster> monsters = band.monsters;
+        if (band.moves.length < monsters.size()) {
+            band.moves = new byte[Math.max(monsters.size(), band.moves.length * 2)];
+        }
+        for (int i = 0; i < monsters.size(); i++) {
+            Monster monster = monsters.get(i);
+            int x = monster.getX();
+            int y = monster.getY();
+            int dx = partyX - x;
+            int dy = partyY - y;
+            if (exposed && Math.abs(dx) + Math.abs(dy) <= CHASE_RADIUS) {
+                band.moves[i] = chase(x, y, dx, dy);
+            } else {
+                band.moves[i] = wander(x, y, band.rand);
+            }
+        }
+    }
+
+    /**
+     * Picks a step towards the party, along the longer way first.
+     *
+     * @param x  The monster's x-coordinate.
+     * @param y  The monster's y-coordinate.
+     * @param dx The distance to the party along x.
+     * @param dy The distance to the party along y.
+     * @return The move.
+     */
+    private byte chase(int x, int y, int dx, int dy) {
+        byte across = dx < 0 ? LEFT : dx > 0 ? RIGHT : STAY;
+        byte along = dy < 0 ? UP : dy > 0 ? DOWN : STAY;
+        byte first = Math.abs(dx) >= Math.abs(dy) ? across : along;
+        byte second = first == across ? along : across;
+        if (canStep(x, y, first, dx, dy)) return first;
+        if (canStep(x, y, second, dx, dy)) return second;
+        return STAY;
+    }
+
+    /**
+     * Picks a random step, or none half of the time.
+     *
+     * @param x    The monster's x-coordinate.
+     * @param y    The monster's y-coordinate.
+     * @param rand The band's random stream.
+     * @return The move.
+     */
+    private byte wander(int x, int y, SplittableRandom rand) {
+        int roll = rand.nextInt(8);
+        if (roll >= 4) return STAY;
+        byte move = (byte) (roll + 1);
+        return isOpen(x + DX[move], y + DY[move]) ? move : STAY;
+    }
+
+    /**
+     * Checks if a chasing monster can take a step.
+     *
+     * @param x    The monster's x-coordinate.
+     * @param y    The monster's y-coordinate.
+     * @param move The step.
+     * @param dx   The distance to the party along x.
+     * @param dy   The distance to the party along y.
+     * @return True if the step leads onto common land or onto the party.
+     */
+    private boolean canStep(int x, int y, byte move, int dx, int dy) {
+        if (move == STAY) return false;
+        return (DX[move] == dx && DY[move] == dy) || isOpen(x + DX[move], y + DY[move]);
+    }
+
+    /**
+     * Checks if monsters may walk on a cell. Occupants are not considered.
+     *
+     * @param x The x-coordinate.
+     * @param y The y-coordinate.
+     * @return True if the cell is common land.
+     */
+    private boolean isOpen(int x, int y) {
+        return board.isValidCoordinate(x, y) && board.getTileType(x, y) == BoardGenerator.COMMON;
+    }
+
+    /**
+     * Places one monster on a free common tile away from the party.
+     *
+     * @param partyX The party's x-coordinate.
+     * @param partyY The party's y-coordinate.
+     * @param level  The level of monster to spawn.
+     * @return True if a monster was placed.
+     */
+    private boolean spawn(int partyX, int partyY, int level) {
+        for (int attempt = 0; attempt < SPAWN_ATTEMPTS; attempt++) {
+            int x = rand.nextInt(board.getWidth());
+            int y = rand.nextInt(board.getHeight());
+            if (!isOpen(x, y) || board.getEntityAt(x, y) != null
+                    || Math.abs(partyX - x) + Math.abs(partyY - y) < MIN_SPAWN_DISTANCE) {
+                continue;
+            }
+            Monster monster = catalog.spawn(level, rand);
+            if (monster == null) return false;
+            board.placeEntity(monster, x, y);
+            bands[y / BAND_HEIGHT].monsters.add(monster);
+            count++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Counts the common tiles of a board.
+     *
+     * @param board The board.
+     * @return The number of common tiles.
+     */
+    private static int countCommon(Board board) {
+        int common = 0;
+        for (byte tile : board.getTiles()) {
+            if (tile == BoardGenerator.COMMON) common++;
+        }
+        return common;
+    }
+
+    /**
+     * Gets the thread pool that bands decide their moves on.
+     *
+     * @return The pool, with one daemon thread per processor.
+     */
+    private static synchronized ExecutorService workers() {
+        if (workers == null) {
+            workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+                Thread thread = new Thread(r, "world");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return workers;
+    }
+}
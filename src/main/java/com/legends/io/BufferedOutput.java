@@ -0,0 +1,211 @@
+package com.legends.io;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Implementation of the Output interface that collects text in a reusable buffer.
+ * Nothing is written until {@link #flush()} is called or the buffer fills up,
+ * so a whole menu or battle round reaches the channel in a single write.
+ * Pair it with {@link ConsoleInput#ConsoleInput(Output)} to flush once per prompt.
+ */
+public class BufferedOutput implements Output {
+    public static final String ANSI_RESET = "\u001B[0m";
+    public static final String ANSI_RED = "\u001B[31m";
+    public static final String ANSI_GREEN = "\u001B[32m";
+    private static final int DEFAULT_CAPACITY = 16384;
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final char[] chars;
+    private final CharBuffer charView;
+    private final ByteBuffer bytes;
+    private int count;
+
+    /**
+     * Constructs a new BufferedOutput writing to the process's standard output.
+     */
+    public BufferedOutput() {
+        this(Channels.newChannel(new FileOutputStream(FileDescriptor.out)));
+    }
+
+    /**
+     * Constructs a new BufferedOutput writing to a channel, such as a FileChannel or SocketChannel.
+     *
+     * @param channel The channel to write to.
+     */
+    public BufferedOutput(WritableByteChannel channel) {
+        this(channel, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a new BufferedOutput writing to a channel.
+     *
+     * @param channel  The channel to write to.
+     * @param capacity The number of characters buffered before a write is forced.
+     */
+    public BufferedOutput(WritableByteChannel channel, int capacity) {
+        this.channel = channel;
+        // A lone surrogate, say from a name in the data files, is printed as '?' rather than stopping output
+        this.encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = new char[capacity];
+        this.charView = CharBuffer.wrap(chars);
+        this.bytes = ByteBuffer.allocate((int) (capacity * encoder.maxBytesPerChar()));
+    }
+
+    /**
+     * Buffers an object's text without a newline.
+     *
+     * @param s The object to print.
+     */
+    @Override
+    public void print(Object s) {
+        append(s instanceof CharSequence ? (CharSequence) s : String.valueOf(s));
+    }
+
+    /**
+     * Buffers an object's text followed by a newline.
+     *
+     * @param s The object to print.
+     */
+    @Override
+    public void println(Object s) {
+        print(s);
+        append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Buffers a newline.
+     */
+    @Override
+    public void println() {
+        append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Flushes buffered output, then prints an error message to the standard error stream.
+     *
+     * @param s The error message to print.
+     */
+    @Override
+    public void printError(Object s) {
+        flush();
+        System.err.println(s);
+    }
+
+    /**
+     * Buffers a message in green color.
+     *
+     * @param s The message to print.
+     */
+    @Override
+    public void printlnGreen(Object s) {
+        append(ANSI_GREEN);
+        print(s);
+        append(ANSI_RESET);
+        append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Buffers a message in red color.
+     *
+     * @param s The message to print.
+     */
+    @Override
+    public void printlnRed(Object s) {
+        append(ANSI_RED);
+        print(s);
+        append(ANSI_RESET);
+        append(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes all buffered text to the channel.
+     */
+    @Override
+    public void flush() {
+        if (count > 0) {
+            drain();
+        }
+    }
+
+    /**
+     * Copies characters into the buffer, draining it whenever it fills up.
+     *
+     * @param s The characters to append.
+     */
+    private void append(CharSequence s) {
+        int length = s.length();
+        int pos = 0;
+        while (pos < length) {
+            if (count == chars.length) {
+                drain();
+            }
+            int n = Math.min(length - pos, chars.length - count);
+            if (s instanceof String) {
+                ((String) s).getChars(pos, pos + n, chars, count);
+            } else if (s instanceof StringBuilder) {
+                ((StringBuilder) s).getChars(pos, pos + n, chars, count);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    chars[count + i] = s.charAt(pos + i);
+                }
+            }
+            count += n;
+            pos += n;
+        }
+    }
+
+    /**
+     * Encodes the buffered characters and writes them to the channel.
+     * A trailing half of a surrogate pair is kept for the next drain; any other
+     * characters the encoder rejects are skipped, so draining always frees the buffer.
+     */
+    private void drain() {
+        charView.clear();
+        charView.limit(count);
+        try {
+            while (true) {
+                CoderResult result = encoder.encode(charView, bytes, false);
+                writeBytes();
+                if (result.isError()) {
+                    charView.position(charView.position() + result.length());
+                } else if (!result.isOverflow()) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write output", e);
+        }
+
+        int leftover = charView.remaining();
+        System.arraycopy(chars, charView.position(), chars, 0, leftover);
+        count = leftover;
+    }
+
+    /**
+     * Writes the encoded bytes to the channel.
+     *
+     * @throws IOException If the write fails.
+     */
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
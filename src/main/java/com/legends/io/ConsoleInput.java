@@ -8,12 +8,24 @@ import com.legends.game.QuitGameException;
  */
 public class ConsoleInput implements Input {
     private Scanner scanner;
+    private Output output;
 
     /**
      * Constructs a new ConsoleInput.
      */
     public ConsoleInput() {
+        this(null);
+    }
+
+    /**
+     * Constructs a new ConsoleInput that flushes an output before waiting for input,
+     * so buffered prompts are visible when the player is asked to type.
+     *
+     * @param output The output to flush, or null.
+     */
+    public ConsoleInput(Output output) {
         this.scanner = new Scanner(System.in);
+        this.output = output;
     }
 
     /**
@@ -24,6 +36,7 @@ public class ConsoleInput implements Input {
      */
     @Override
     public String readLine() {
+        if (output != null) output.flush();
         String line = scanner.nextLine();
         if (line != null && line.trim().equalsIgnoreCase("q")) {
             throw new QuitGameException("Player quit the game.");
@@ -65,4 +65,12 @@ public class ConsoleOutput implements Output {
     public void printlnRed(Object s) {
         System.out.println(ANSI_RED + s + ANSI_RESET);
     }
+
+    /**
+     * Flushes the console output stream.
+     */
+    @Override
+    public void flush() {
+        System.out.flush();
+    }
 }
@@ -43,4 +43,9 @@ public interface Output {
      * @param s The message to print.
      */
     void printlnRed(Object s);
+
+    /**
+     * Writes out anything that has been printed but not yet delivered.
+     */
+    void flush();
 }
@@ -5,6 +5,7 @@ package com.legends.model;
  * Armor provides damage reduction to the wearer.
  */
 public class Armor extends Item {
+    private static final long serialVersionUID = -3549185247978078229L;
     private int damageReduction;
 
     /**
@@ -5,6 +5,8 @@ package com.legends.model;
  * Dragons have increased base damage.
  */
 public class Dragon extends Monster {
+    private static final long serialVersionUID = -4995438205392117152L;
+
     /**
      * Constructs a new Dragon.
      *
@@ -18,4 +20,9 @@ public class Dragon extends Monster {
         // Dragons have increased base damage
         super(name, level, (int)(damage * 1.1), defense, dodgeChance);
     }
+
+    @Override
+    public Monster spawn() {
+        return new Dragon(name, level, damage, defense, dodgeChance);
+    }
 }
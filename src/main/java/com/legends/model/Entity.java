@@ -44,6 +44,15 @@ public abstract class Entity implements Serializable {
         return level;
     }
 
+    /**
+     * Sets the level of the entity.
+     *
+     * @param level The new level.
+     */
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
     /**
      * Gets the current HP of the entity.
      *
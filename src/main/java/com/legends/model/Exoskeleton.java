@@ -5,6 +5,8 @@ package com.legends.model;
  * Exoskeletons have increased defense.
  */
 public class Exoskeleton extends Monster {
+    private static final long serialVersionUID = -8988110910467914750L;
+
     /**
      * Constructs a new Exoskeleton.
      *
@@ -18,4 +20,9 @@ public class Exoskeleton extends Monster {
         // Exoskeletons have increased defense
         super(name, level, damage, (int)(defense * 1.1), dodgeChance);
     }
+
+    @Override
+    public Monster spawn() {
+        return new Exoskeleton(name, level, damage, defense, dodgeChance);
+    }
 }
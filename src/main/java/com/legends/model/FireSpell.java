@@ -7,6 +7,8 @@ import com.legends.io.Output;
  * Reduces the target's defense.
  */
 public class FireSpell extends Spell {
+    private static final long serialVersionUID = -8969259694080858574L;
+
     /**
      * Constructs a new FireSpell.
      *
@@ -22,17 +24,19 @@ public class FireSpell extends Spell {
 
     /**
      * Applies the spell's effect to the target monster.
-     * Reduces the target's defense by 10%.
+     * Reduces the target's defense by 10% for the spell's duration.
      *
      * @param target The target monster.
      * @param output The output interface for messages.
+     * @return The effect applied.
      */
     @Override
-    public void applyEffect(Monster target, Output output) {
+    public StatusEffect applyEffect(Monster target, Output output) {
         int currentDefense = target.getDefense();
         int reduction = (int) (currentDefense * 0.1); // Reduce defense by 10%
         target.setDefense(currentDefense - reduction);
-        if (output != null) output.println(target.getName() + "'s defense was reduced by " + reduction + "!");
+        if (output != null) output.println(target.getName() + "'s defense was reduced by " + reduction + " for " + duration + " rounds!");
+        return new StatusEffect(target, "Defense", reduction, duration);
     }
 
     /**
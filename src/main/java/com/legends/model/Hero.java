@@ -1,7 +1,9 @@
 package com.legends.model;
 
 import com.legends.io.Output;
-import java.util.ArrayList;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.util.List;
 
 /**
@@ -9,19 +11,27 @@ import java.util.List;
  * Manages hero stats, inventory, and equipment.
  */
 public abstract class Hero extends Entity {
+    private static final long serialVersionUID = 1583172174429648232L; // As computed for the original release
     protected int mana;
     protected int strength;
     protected int agility;
     protected int dexterity;
     protected int money;
     protected int experience;
-    protected List<Item> inventory;
+    protected Inventory inventory;
     protected Weapon mainHandWeapon;
     protected Weapon offHandWeapon;
     protected Armor equippedArmor;
     protected String heroClass;
     protected boolean isMainHandTwoHandedGrip;
 
+    // Combat stats derived from attributes and equipment, recomputed after they change
+    private transient boolean combatStatsValid;
+    private transient double attack;
+    private transient double damageReduction;
+    private transient double dodgeChance;
+    private transient double dodgePenetration;
+
     /**
      * Constructs a new Hero.
      *
@@ -42,7 +52,7 @@ public abstract class Hero extends Entity {
         this.dexterity = dexterity;
         this.money = money;
         this.experience = experience;
-        this.inventory = new ArrayList<>();
+        this.inventory = new Inventory();
         this.heroClass = heroClass;
         this.level = 1; // Default
         this.hp = this.level * 100;
@@ -58,11 +68,11 @@ public abstract class Hero extends Entity {
     public int getMana() { return mana; }
     public void setMana(int mana) { this.mana = mana; }
     public int getStrength() { return strength; }
-    public void setStrength(int strength) { this.strength = strength; }
+    public void setStrength(int strength) { this.strength = strength; invalidateCombatStats(); }
     public int getAgility() { return agility; }
-    public void setAgility(int agility) { this.agility = agility; }
+    public void setAgility(int agility) { this.agility = agility; invalidateCombatStats(); }
     public int getDexterity() { return dexterity; }
-    public void setDexterity(int dexterity) { this.dexterity = dexterity; }
+    public void setDexterity(int dexterity) { this.dexterity = dexterity; invalidateCombatStats(); }
     public int getMoney() { return money; }
     public void setMoney(int money) { this.money = money; }
     public int getExperience() { return experience; }
@@ -105,19 +115,20 @@ public abstract class Hero extends Entity {
      */
     public boolean equipMainHand(Weapon weapon, boolean twoHandedGrip) {
         if (this.mainHandWeapon != null) {
-            this.inventory.add(this.mainHandWeapon);
+            this.inventory.put(this.mainHandWeapon);
         }
         
         if (weapon.getRequiredHands() == 2 || twoHandedGrip) {
             if (this.offHandWeapon != null) {
-                this.inventory.add(this.offHandWeapon);
+                this.inventory.put(this.offHandWeapon);
                 this.offHandWeapon = null;
             }
         }
         
         this.mainHandWeapon = weapon;
         this.isMainHandTwoHandedGrip = twoHandedGrip;
-        this.inventory.remove(weapon);
+        this.inventory.take(weapon);
+        invalidateCombatStats();
         return true;
     }
 
@@ -139,10 +150,11 @@ public abstract class Hero extends Entity {
         }
         
         if (this.offHandWeapon != null) {
-            this.inventory.add(this.offHandWeapon);
+            this.inventory.put(this.offHandWeapon);
         }
         this.offHandWeapon = weapon;
-        this.inventory.remove(weapon);
+        this.inventory.take(weapon);
+        invalidateCombatStats();
         return true;
     }
 
@@ -153,10 +165,11 @@ public abstract class Hero extends Entity {
      */
     public void equipArmor(Armor armor) {
         if (this.equippedArmor != null) {
-            this.inventory.add(this.equippedArmor);
+            this.inventory.put(this.equippedArmor);
         }
         this.equippedArmor = armor;
-        this.inventory.remove(armor);
+        this.inventory.take(armor);
+        invalidateCombatStats();
     }
 
     /**
@@ -195,12 +208,82 @@ public abstract class Hero extends Entity {
         return equippedArmor;
     }
 
+    /**
+     * Gets the hero's attack: strength plus main-hand weapon damage,
+     * with a 50% bonus for a one-handed weapon held in a two-handed grip.
+     *
+     * @return The attack value.
+     */
+    public double getAttack() {
+        if (!combatStatsValid) computeCombatStats();
+        return attack;
+    }
+
+    /**
+     * Gets the damage reduction of the equipped armor.
+     *
+     * @return The damage reduction, or 0 without armor.
+     */
+    public double getDamageReduction() {
+        if (!combatStatsValid) computeCombatStats();
+        return damageReduction;
+    }
+
+    /**
+     * Gets the hero's chance of dodging a monster's attack, based on agility.
+     *
+     * @return The dodge chance, out of 100.
+     */
+    public double getDodgeChance() {
+        if (!combatStatsValid) computeCombatStats();
+        return dodgeChance;
+    }
+
+    /**
+     * Gets how much the hero's dexterity reduces a monster's chance to dodge.
+     *
+     * @return The reduction, as a probability.
+     */
+    public double getDodgePenetration() {
+        if (!combatStatsValid) computeCombatStats();
+        return dodgePenetration;
+    }
+
+    /**
+     * Marks the derived combat stats as out of date.
+     * Called whenever an attribute or the equipment changes.
+     */
+    protected void invalidateCombatStats() {
+        combatStatsValid = false;
+    }
+
+    /**
+     * Recomputes the derived combat stats.
+     */
+    private void computeCombatStats() {
+        attack = strength;
+        if (mainHandWeapon != null) {
+            double weaponDamage = mainHandWeapon.getDamage();
+            if (isMainHandTwoHandedGrip && mainHandWeapon.getRequiredHands() == 1) {
+                weaponDamage *= 1.5; // 50% damage increase for 2-handed grip on 1-handed weapon
+            }
+            attack += weaponDamage;
+        }
+        damageReduction = equippedArmor != null ? equippedArmor.getDamageReduction() : 0;
+        // PDF mentions 0.002, but 0.01 gives better gameplay balance
+        dodgeChance = agility * 0.01;
+        // 400 dexterity reduces a monster's dodge chance by 10%
+        dodgePenetration = dexterity * 0.00025;
+        combatStatsValid = true;
+    }
+
     /**
      * Gets the hero's inventory.
+     * Items are added and removed with {@link #addItem} and {@link #removeItem}.
      *
-     * @return The list of items in the inventory.
+     * @return A read-only view of the items in the inventory, bucketed by kind.
      */
-    public List<Item> getInventory() {
+    public Inventory getInventory() {
         return inventory;
     }
 
@@ -210,7 +293,7 @@ public abstract class Hero extends Entity {
      * @param item The item to add.
      */
     public void addItem(Item item) {
-        inventory.add(item);
+        inventory.put(item);
     }
     
     /**
@@ -219,7 +302,7 @@ public abstract class Hero extends Entity {
      * @param item The item to remove.
      */
     public void removeItem(Item item) {
-        inventory.remove(item);
+        inventory.take(item);
     }
 
     /**
@@ -259,6 +342,7 @@ public abstract class Hero extends Entity {
             default:
                 break;
         }
+        invalidateCombatStats();
     }
 
     /**
@@ -271,6 +355,41 @@ public abstract class Hero extends Entity {
         removeItem(potion);
     }
 
+    /**
+     * Restores a hero after deserialization.
+     * Heroes saved by the original release kept their items in a plain list,
+     * which is sorted into an {@link Inventory}.
+     *
+     * @param in The stream to read from.
+     * @throws IOException            If an I/O error occurs.
+     * @throws ClassNotFoundException If a serialized class cannot be found.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        this.mana = fields.get("mana", 0);
+        this.strength = fields.get("strength", 0);
+        this.agility = fields.get("agility", 0);
+        this.dexterity = fields.get("dexterity", 0);
+        this.money = fields.get("money", 0);
+        this.experience = fields.get("experience", 0);
+        this.mainHandWeapon = (Weapon) fields.get("mainHandWeapon", null);
+        this.offHandWeapon = (Weapon) fields.get("offHandWeapon", null);
+        this.equippedArmor = (Armor) fields.get("equippedArmor", null);
+        this.heroClass = (String) fields.get("heroClass", null);
+        this.isMainHandTwoHandedGrip = fields.get("isMainHandTwoHandedGrip", false);
+        Object items = fields.get("inventory", null);
+        if (items instanceof Inventory) {
+            this.inventory = (Inventory) items;
+        } else {
+            this.inventory = new Inventory();
+            if (items instanceof List) {
+                for (Object item : (List<?>) items) {
+                    inventory.put((Item) item);
+                }
+            }
+        }
+    }
+
     @Override
     public String toString() {
         String weaponStr = (mainHandWeapon != null ? mainHandWeapon.getName() : "None");
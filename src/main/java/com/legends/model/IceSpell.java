@@ -7,6 +7,8 @@ import com.legends.io.Output;
  * Reduces the target's damage.
  */
 public class IceSpell extends Spell {
+    private static final long serialVersionUID = -8418953088635588394L;
+
     /**
      * Constructs a new IceSpell.
      *
@@ -22,17 +24,19 @@ public class IceSpell extends Spell {
 
     /**
      * Applies the spell's effect to the target monster.
-     * Reduces the target's damage by 10%.
+     * Reduces the target's damage by 10% for the spell's duration.
      *
      * @param target The target monster.
      * @param output The output interface for messages.
+     * @return The effect applied.
      */
     @Override
-    public void applyEffect(Monster target, Output output) {
+    public StatusEffect applyEffect(Monster target, Output output) {
         int currentDamage = target.getDamage();
         int reduction = (int) (currentDamage * 0.1); // Reduce damage by 10%
         target.setDamage(currentDamage - reduction);
-        if (output != null) output.println(target.getName() + "'s damage was reduced by " + reduction + "!");
+        if (output != null) output.println(target.getName() + "'s damage was reduced by " + reduction + " for " + duration + " rounds!");
+        return new StatusEffect(target, "Damage", reduction, duration);
     }
 
     /**
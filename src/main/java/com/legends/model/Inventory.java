@@ -0,0 +1,151 @@
+package com.legends.model;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A hero's carried items, kept in one bucket per kind of item.
+ * Each bucket keeps its items in the order they were added, so menus can list
+ * and index the spells, potions or equipment directly without scanning and
+ * filtering everything the hero carries.
+ * <p>
+ * As a list, the inventory is a read-only view of every item: weapons first,
+ * then armor, potions and spells. Items are added and removed through the hero.
+ */
+public class Inventory extends AbstractList<Item> implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private final List<Weapon> weapons = new ArrayList<>();
+    private final List<Armor> armor = new ArrayList<>();
+    private final List<Potion> potions = new ArrayList<>();
+    private final List<Spell> spells = new ArrayList<>();
+    private final List<Weapon> weaponsView = Collections.unmodifiableList(weapons);
+    private final List<Armor> armorView = Collections.unmodifiableList(armor);
+    private final List<Potion> potionsView = Collections.unmodifiableList(potions);
+    private final List<Spell> spellsView = Collections.unmodifiableList(spells);
+
+    /**
+     * Puts an item in its bucket.
+     *
+     * @param item The item to add.
+     * @throws IllegalArgumentException If the item is not a weapon, armor, potion or spell.
+     */
+    void put(Item item) {
+        if (item instanceof Weapon) {
+            weapons.add((Weapon) item);
+        } else if (item instanceof Armor) {
+            armor.add((Armor) item);
+        } else if (item instanceof Potion) {
+            potions.add((Potion) item);
+        } else if (item instanceof Spell) {
+            spells.add((Spell) item);
+        } else {
+            throw new IllegalArgumentException("Unknown kind of item: " + item);
+        }
+    }
+
+    /**
+     * Takes an item out of its bucket. Only the item's own bucket is searched.
+     *
+     * @param item The item to remove.
+     * @return True if the item was carried.
+     */
+    boolean take(Item item) {
+        if (item instanceof Weapon) {
+            return weapons.remove(item);
+        } else if (item instanceof Armor) {
+            return armor.remove(item);
+        } else if (item instanceof Potion) {
+            return potions.remove(item);
+        } else if (item instanceof Spell) {
+            return spells.remove(item);
+        }
+        return false;
+    }
+
+    /**
+     * Gets the weapons carried.
+     *
+     * @return An unmodifiable view of the weapons.
+     */
+    public List<Weapon> getWeapons() {
+        return weaponsView;
+    }
+
+    /**
+     * Gets the armor carried.
+     *
+     * @return An unmodifiable view of the armor.
+     */
+    public List<Armor> getArmor() {
+        return armorView;
+    }
+
+    /**
+     * Gets the potions carried.
+     *
+     * @return An unmodifiable view of the potions.
+     */
+    public List<Potion> getPotions() {
+        return potionsView;
+    }
+
+    /**
+     * Gets the spells carried.
+     *
+     * @return An unmodifiable view of the spells.
+     */
+    public List<Spell> getSpells() {
+        return spellsView;
+    }
+
+    /**
+     * Counts the weapons and armor carried.
+     *
+     * @return The number of items that can be equipped.
+     */
+    public int getEquipmentCount() {
+        return weapons.size() + armor.size();
+    }
+
+    /**
+     * Gets a weapon or armor by its position among the equipment: weapons first, then armor.
+     *
+     * @param index The position, from 0 to {@link #getEquipmentCount()} - 1.
+     * @return The item.
+     */
+    public Item getEquipment(int index) {
+        return index < weapons.size() ? weapons.get(index) : armor.get(index - weapons.size());
+    }
+
+    /**
+     * Gets an item by its position in the whole inventory.
+     *
+     * @param index The position.
+     * @return The item.
+     */
+    @Override
+    public Item get(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+        if (index < weapons.size()) return weapons.get(index);
+        index -= weapons.size();
+        if (index < armor.size()) return armor.get(index);
+        index -= armor.size();
+        if (index < potions.size()) return potions.get(index);
+        return spells.get(index - potions.size());
+    }
+
+    /**
+     * Counts every item carried.
+     *
+     * @return The number of items.
+     */
+    @Override
+    public int size() {
+        return weapons.size() + armor.size() + potions.size() + spells.size();
+    }
+}
@@ -11,6 +11,7 @@ public abstract class Item implements Serializable {
     protected String name;
     protected int cost;
     protected int requiredLevel;
+    private int id = -1;
 
     /**
      * Constructs a new Item.
@@ -25,6 +26,24 @@ public abstract class Item implements Serializable {
         this.requiredLevel = requiredLevel;
     }
 
+    /**
+     * Gets the item's catalog ID, its position in the game's item list.
+     *
+     * @return The ID, or -1 if the item is not in a catalog.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the item's catalog ID.
+     *
+     * @param id The new ID.
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
+
     /**
      * Gets the name of the item.
      *
@@ -7,6 +7,8 @@ import com.legends.io.Output;
  * Reduces the target's dodge chance.
  */
 public class LightningSpell extends Spell {
+    private static final long serialVersionUID = 3592636597020298592L;
+
     /**
      * Constructs a new LightningSpell.
      *
@@ -22,17 +24,19 @@ public class LightningSpell extends Spell {
 
     /**
      * Applies the spell's effect to the target monster.
-     * Reduces the target's dodge chance by 10%.
+     * Reduces the target's dodge chance by 10% for the spell's duration.
      *
      * @param target The target monster.
      * @param output The output interface for messages.
+     * @return The effect applied.
      */
     @Override
-    public void applyEffect(Monster target, Output output) {
+    public StatusEffect applyEffect(Monster target, Output output) {
         int currentDodge = target.getDodgeChance();
         int reduction = (int) (currentDodge * 0.1); // Reduce dodge chance by 10%
         target.setDodgeChance(currentDodge - reduction);
-        if (output != null) output.println(target.getName() + "'s dodge chance was reduced by " + reduction + "!");
+        if (output != null) output.println(target.getName() + "'s dodge chance was reduced by " + reduction + " for " + duration + " rounds!");
+        return new StatusEffect(target, "Dodge Chance", reduction, duration);
     }
 
     /**
@@ -5,6 +5,7 @@ package com.legends.model;
  * Monsters have damage, defense, and dodge chance stats.
  */
 public abstract class Monster extends Entity {
+    private static final long serialVersionUID = 5722180617919326103L;
     protected int damage;
     protected int defense;
     protected int dodgeChance;
@@ -79,6 +80,14 @@ public abstract class Monster extends Entity {
         this.dodgeChance = dodgeChance;
     }
 
+    /**
+     * Creates a new monster of the same kind from this monster's name, level and stats.
+     * The new monster goes through its constructor, so kind-specific bonuses are applied.
+     *
+     * @return The new monster.
+     */
+    public abstract Monster spawn();
+
     @Override
     public String toString() {
         return name + " (Lvl " + level + ") HP:" + hp + " Dmg:" + damage + " Def:" + defense;
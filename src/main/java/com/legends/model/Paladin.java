@@ -5,6 +5,8 @@ package com.legends.model;
  * Paladins favor strength and dexterity when leveling up.
  */
 public class Paladin extends Hero {
+    private static final long serialVersionUID = -5452251571877036900L;
+
     /**
      * Constructs a new Paladin.
      *
@@ -31,5 +33,6 @@ public class Paladin extends Hero {
         strength = (int) (strength * 1.1); // Paladins favor strength
         agility = (int) (agility * 1.05);
         dexterity = (int) (dexterity * 1.1); // And dexterity
+        invalidateCombatStats();
     }
 }
@@ -5,6 +5,7 @@ package com.legends.model;
  * Potions increase a specific attribute of a hero.
  */
 public class Potion extends Item {
+    private static final long serialVersionUID = -6824838657735500955L;
     private int attributeIncrease;
     private String attributeAffected;
 
@@ -5,6 +5,8 @@ package com.legends.model;
  * Sorcerers favor agility and dexterity when leveling up.
  */
 public class Sorcerer extends Hero {
+    private static final long serialVersionUID = -4051801046797682089L;
+
     /**
      * Constructs a new Sorcerer.
      *
@@ -31,5 +33,6 @@ public class Sorcerer extends Hero {
         strength = (int) (strength * 1.05);
         agility = (int) (agility * 1.1); // Sorcerers favor agility
         dexterity = (int) (dexterity * 1.1); // And dexterity
+        invalidateCombatStats();
     }
 }
@@ -4,9 +4,10 @@ import com.legends.io.Output;
 
 /**
  * Abstract base class for all spells.
- * Spells have damage, mana cost, and a duration (though duration is not fully utilized in this simplified version).
+ * Spells have damage, mana cost, and a duration: the number of battle rounds their effect lasts.
  */
 public abstract class Spell extends Item {
+    private static final long serialVersionUID = 3467595847766167468L;
     protected int damage;
     protected int manaCost;
     protected int duration;
@@ -56,11 +57,13 @@ public abstract class Spell extends Item {
 
     /**
      * Applies the spell's special effect to the target monster.
+     * The effect lasts for the spell's duration; the caller is responsible for removing it.
      *
      * @param target The target monster.
      * @param output The output interface for messages.
+     * @return The effect applied.
      */
-    public abstract void applyEffect(Monster target, Output output);
+    public abstract StatusEffect applyEffect(Monster target, Output output);
 
     /**
      * Gets the description of the spell's effect.
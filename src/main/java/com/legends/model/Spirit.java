@@ -5,6 +5,8 @@ package com.legends.model;
  * Spirits have increased dodge ability.
  */
 public class Spirit extends Monster {
+    private static final long serialVersionUID = -4563678655899381613L;
+
     /**
      * Constructs a new Spirit.
      *
@@ -18,4 +20,9 @@ public class Spirit extends Monster {
         // Spirits have increased dodge ability
         super(name, level, damage, defense, (int)(dodgeChance * 1.1));
     }
+
+    @Override
+    public Monster spawn() {
+        return new Spirit(name, level, damage, defense, dodgeChance);
+    }
 }
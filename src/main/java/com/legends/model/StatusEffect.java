@@ -0,0 +1,90 @@
+package com.legends.model;
+
+import com.legends.io.Output;
+
+/**
+ * A temporary reduction of one of a monster's stats, applied by a spell.
+ * Effects stack: each one remembers exactly how much it took away, so removing
+ * them in any order restores the monster's original stats.
+ */
+public class StatusEffect {
+    private final Monster target;
+    private final String stat;
+    private final int amount;
+    private final int duration;
+
+    /**
+     * Constructs a new StatusEffect. The reduction must already have been applied.
+     *
+     * @param target   The affected monster.
+     * @param stat     The stat reduced ("Defense", "Damage" or "Dodge Chance").
+     * @param amount   How much the stat was reduced by.
+     * @param duration The number of battle rounds the effect lasts.
+     */
+    public StatusEffect(Monster target, String stat, int amount, int duration) {
+        this.target = target;
+        this.stat = stat;
+        this.amount = amount;
+        this.duration = duration;
+    }
+
+    /**
+     * Gets the affected monster.
+     *
+     * @return The target.
+     */
+    public Monster getTarget() {
+        return target;
+    }
+
+    /**
+     * Gets the name of the stat reduced.
+     *
+     * @return The stat.
+     */
+    public String getStat() {
+        return stat;
+    }
+
+    /**
+     * Gets how much the stat was reduced by.
+     *
+     * @return The amount.
+     */
+    public int getAmount() {
+        return amount;
+    }
+
+    /**
+     * Gets the number of battle rounds the effect lasts.
+     *
+     * @return The duration.
+     */
+    public int getDuration() {
+        return duration;
+    }
+
+    /**
+     * Ends the effect, giving back the amount it took from the monster.
+     *
+     * @param output The output interface for messages, or null for none.
+     */
+    public void remove(Output output) {
+        switch (stat) {
+            case "Defense":
+                target.setDefense(target.getDefense() + amount);
+                break;
+            case "Damage":
+                target.setDamage(target.getDamage() + amount);
+                break;
+            case "Dodge Chance":
+                target.setDodgeChance(target.getDodgeChance() + amount);
+                break;
+            default:
+                break;
+        }
+        if (output != null && target.isAlive()) {
+            output.println(target.getName() + "'s " + stat.toLowerCase() + " is no longer reduced.");
+        }
+    }
+}
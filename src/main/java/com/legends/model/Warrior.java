@@ -5,6 +5,8 @@ package com.legends.model;
  * Warriors favor strength and agility when leveling up.
  */
 public class Warrior extends Hero {
+    private static final long serialVersionUID = 5015289583020580755L;
+
     /**
      * Constructs a new Warrior.
      *
@@ -31,5 +33,6 @@ public class Warrior extends Hero {
         strength = (int) (strength * 1.1); // Warriors favor strength
         agility = (int) (agility * 1.1); // And agility
         dexterity = (int) (dexterity * 1.05);
+        invalidateCombatStats();
     }
 }
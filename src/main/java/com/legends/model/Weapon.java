@@ -5,6 +5,7 @@ package com.legends.model;
  * Weapons have damage and a required number of hands to use.
  */
 public class Weapon extends Item {
+    private static final long serialVersionUID = -1140906248148441974L;
     private int damage;
     private int requiredHands;
 
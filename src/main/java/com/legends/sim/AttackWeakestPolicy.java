@@ -0,0 +1,45 @@
+package com.legends.sim;
+
+import com.legends.game.Battle;
+import com.legends.game.HeroPolicy;
+import com.legends.model.Hero;
+import com.legends.model.Monster;
+
+import java.util.List;
+
+/**
+ * A hero policy that always attacks the monster with the lowest HP.
+ */
+public class AttackWeakestPolicy implements HeroPolicy {
+
+    /**
+     * Attacks the weakest remaining monster.
+     *
+     * @param hero   The hero whose turn it is.
+     * @param battle The battle in progress.
+     */
+    @Override
+    public void takeTurn(Hero hero, Battle battle) {
+        Monster target = weakest(battle.getMonsters());
+        if (target != null) {
+            battle.attack(hero, target);
+        }
+    }
+
+    /**
+     * Finds the monster with the lowest HP.
+     *
+     * @param monsters The remaining monsters.
+     * @return The weakest monster, or null if none remain.
+     */
+    private static Monster weakest(List<Monster> monsters) {
+        Monster target = null;
+        for (int i = 0; i < monsters.size(); i++) {
+            Monster m = monsters.get(i);
+            if (target == null || m.getHp() < target.getHp()) {
+                target = m;
+            }
+        }
+        return target;
+    }
+}
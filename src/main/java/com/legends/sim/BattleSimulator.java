@@ -0,0 +1,166 @@
+package com.legends.sim;
+
+import com.legends.game.Battle;
+import com.legends.game.HeroPolicy;
+import com.legends.model.*;
+import com.legends.utils.DataLoader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs headless battles for every hero/monster matchup in parallel
+ * and collects win-rate statistics for balance testing.
+ */
+public class BattleSimulator {
+    private final List<Hero> heroes;
+    private final List<Monster> monsters;
+    private final HeroPolicy policy;
+    private final String difficulty;
+    private final long seed;
+    private final int threads;
+
+    /**
+     * Constructs a new BattleSimulator using all available processors.
+     *
+     * @param heroes     The hero templates to simulate.
+     * @param monsters   The monster templates to simulate.
+     * @param policy     The policy deciding hero actions.
+     * @param difficulty The difficulty level ("Normal" or "Hard").
+     * @param seed       The master seed; equal seeds produce identical reports.
+     */
+    public BattleSimulator(List<Hero> heroes, List<Monster> monsters, HeroPolicy policy, String difficulty, long seed) {
+        this(heroes, monsters, policy, difficulty, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a new BattleSimulator.
+     *
+     * @param heroes     The hero templates to simulate.
+     * @param monsters   The monster templates to simulate.
+     * @param policy     The policy deciding hero actions.
+     * @param difficulty The difficulty level ("Normal" or "Hard").
+     * @param seed       The master seed; equal seeds produce identical reports.
+     * @param threads    The number of worker threads.
+     */
+    public BattleSimulator(List<Hero> heroes, List<Monster> monsters, HeroPolicy policy, String difficulty, long seed, int threads) {
+        this.heroes = heroes;
+        this.monsters = monsters;
+        this.policy = policy;
+        this.difficulty = difficulty;
+        this.seed = seed;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Creates a simulator over the heroes and monsters shipped with the game.
+     *
+     * @param policy The policy deciding hero actions.
+     * @param seed   The master seed.
+     * @return The simulator.
+     * @throws IOException If the game data cannot be loaded.
+     */
+    public static BattleSimulator fromGameData(HeroPolicy policy, long seed) throws IOException {
+        List<Hero> heroes = new ArrayList<>();
+        heroes.addAll(DataLoader.loadHeroes("Paladins.csv", "Paladin"));
+        heroes.addAll(DataLoader.loadHeroes("Sorcerers.csv", "Sorcerer"));
+        heroes.addAll(DataLoader.loadHeroes("Warriors.csv", "Warrior"));
+
+        List<Monster> monsters = new ArrayList<>();
+        monsters.addAll(DataLoader.loadMonsters("Spirits.csv", "Spirit"));
+        monsters.addAll(DataLoader.loadMonsters("Dragons.csv", "Dragon"));
+        monsters.addAll(DataLoader.loadMonsters("Exoskeletons.csv", "Exoskeleton"));
+
+        return new BattleSimulator(heroes, monsters, policy, "Normal", seed);
+    }
+
+    /**
+     * Runs the given number of one-on-one battles for every hero/monster matchup.
+     * Each matchup draws from its own stream split from the master seed,
+     * so results do not depend on how work is scheduled across threads.
+     *
+     * @param battlesPerMatchup The number of battles per matchup.
+     * @return The simulation report.
+     * @throws InterruptedException If the run is interrupted.
+     */
+    public SimulationReport run(int battlesPerMatchup) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            SplittableRandom master = new SplittableRandom(seed);
+            List<Future<MatchupStats>> futures = new ArrayList<>();
+            for (Hero hero : heroes) {
+                for (Monster monster : monsters) {
+                    SplittableRandom rand = master.split();
+                    futures.add(executor.submit(() -> runMatchup(hero, monster, battlesPerMatchup, rand)));
+                }
+            }
+
+            List<MatchupStats> results = new ArrayList<>();
+            long total = 0;
+            for (Future<MatchupStats> future : futures) {
+                MatchupStats stats = future.get();
+                results.add(stats);
+                total += stats.getBattles();
+            }
+            return new SimulationReport(results, total, System.nanoTime() - start);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs repeated battles between fresh copies of a hero and a monster.
+     *
+     * @param heroTemplate    The hero template.
+     * @param monsterTemplate The monster template.
+     * @param battles         The number of battles to run.
+     * @param rand            The random stream for this matchup.
+     * @return The matchup statistics.
+     */
+    private MatchupStats runMatchup(Hero heroTemplate, Monster monsterTemplate, int battles, SplittableRandom rand) {
+        MatchupStats stats = new MatchupStats(heroTemplate.getName(), monsterTemplate.getName());
+        List<Monster> battleMonsters = new ArrayList<>(1);
+        for (int i = 0; i < battles; i++) {
+            Party party = new Party();
+            party.addHero(copyHero(heroTemplate));
+            battleMonsters.clear();
+            battleMonsters.add(monsterTemplate.spawn());
+
+            Battle battle = new Battle(party, battleMonsters, policy, difficulty, rand);
+            String result = battle.start();
+            stats.record(result.equals("Victory"), battle.getRounds());
+        }
+        return stats;
+    }
+
+    /**
+     * Creates a fresh hero with the template's starting stats.
+     *
+     * @param template The hero template.
+     * @return The new hero.
+     */
+    private static Hero copyHero(Hero template) {
+        String name = template.getName();
+        int mana = template.getMana();
+        int strength = template.getStrength();
+        int agility = template.getAgility();
+        int dexterity = template.getDexterity();
+        int money = template.getMoney();
+        int experience = template.getExperience();
+        if (template instanceof Paladin) {
+            return new Paladin(name, mana, strength, agility, dexterity, money, experience);
+        } else if (template instanceof Sorcerer) {
+            return new Sorcerer(name, mana, strength, agility, dexterity, money, experience);
+        }
+        return new Warrior(name, mana, strength, agility, dexterity, money, experience);
+    }
+}
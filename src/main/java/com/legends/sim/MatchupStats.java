@@ -0,0 +1,89 @@
+package com.legends.sim;
+
+/**
+ * Aggregated results of repeated battles between one hero and one monster.
+ */
+public class MatchupStats {
+    private final String heroName;
+    private final String monsterName;
+    private long battles;
+    private long wins;
+    private long totalRounds;
+
+    /**
+     * Constructs empty statistics for a matchup.
+     *
+     * @param heroName    The name of the hero.
+     * @param monsterName The name of the monster.
+     */
+    public MatchupStats(String heroName, String monsterName) {
+        this.heroName = heroName;
+        this.monsterName = monsterName;
+    }
+
+    /**
+     * Records the outcome of a single battle.
+     *
+     * @param won    Whether the hero won.
+     * @param rounds The number of rounds the battle lasted.
+     */
+    public void record(boolean won, int rounds) {
+        battles++;
+        if (won) wins++;
+        totalRounds += rounds;
+    }
+
+    /**
+     * Gets the hero name.
+     *
+     * @return The hero name.
+     */
+    public String getHeroName() {
+        return heroName;
+    }
+
+    /**
+     * Gets the monster name.
+     *
+     * @return The monster name.
+     */
+    public String getMonsterName() {
+        return monsterName;
+    }
+
+    /**
+     * Gets the number of battles fought.
+     *
+     * @return The battle count.
+     */
+    public long getBattles() {
+        return battles;
+    }
+
+    /**
+     * Gets the number of battles won by the hero.
+     *
+     * @return The win count.
+     */
+    public long getWins() {
+        return wins;
+    }
+
+    /**
+     * Gets the hero's win rate.
+     *
+     * @return The fraction of battles won, between 0 and 1.
+     */
+    public double getWinRate() {
+        return battles == 0 ? 0 : (double) wins / battles;
+    }
+
+    /**
+     * Gets the average battle length.
+     *
+     * @return The mean number of rounds per battle.
+     */
+    public double getAverageRounds() {
+        return battles == 0 ? 0 : (double) totalRounds / battles;
+    }
+}
@@ -0,0 +1,78 @@
+package com.legends.sim;
+
+import com.legends.io.Output;
+
+import java.util.List;
+
+/**
+ * The result of a simulation run: per-matchup statistics and overall throughput.
+ */
+public class SimulationReport {
+    private final List<MatchupStats> matchups;
+    private final long totalBattles;
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a new SimulationReport.
+     *
+     * @param matchups     The statistics for each matchup.
+     * @param totalBattles The total number of battles fought.
+     * @param elapsedNanos The wall-clock time of the run in nanoseconds.
+     */
+    public SimulationReport(List<MatchupStats> matchups, long totalBattles, long elapsedNanos) {
+        this.matchups = matchups;
+        this.totalBattles = totalBattles;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the statistics for each matchup.
+     *
+     * @return The matchup statistics.
+     */
+    public List<MatchupStats> getMatchups() {
+        return matchups;
+    }
+
+    /**
+     * Gets the total number of battles fought.
+     *
+     * @return The battle count.
+     */
+    public long getTotalBattles() {
+        return totalBattles;
+    }
+
+    /**
+     * Gets the wall-clock time of the run.
+     *
+     * @return The elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets the simulation throughput.
+     *
+     * @return The number of battles simulated per second.
+     */
+    public double getBattlesPerSecond() {
+        return elapsedNanos == 0 ? 0 : totalBattles / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Prints a win-rate table followed by the throughput summary.
+     *
+     * @param output The output interface.
+     */
+    public void print(Output output) {
+        output.println(String.format("%-22s %-22s %10s %8s %8s", "Hero", "Monster", "Battles", "Win %", "Rounds"));
+        for (MatchupStats m : matchups) {
+            output.println(String.format("%-22s %-22s %10d %7.1f%% %8.1f",
+                    m.getHeroName(), m.getMonsterName(), m.getBattles(), m.getWinRate() * 100, m.getAverageRounds()));
+        }
+        output.println(String.format("%nSimulated %d battles in %.2f s (%.0f battles/sec).",
+                totalBattles, elapsedNanos / 1e9, getBattlesPerSecond()));
+    }
+}
@@ -0,0 +1,108 @@
+package com.legends.utils;
+
+import java.util.SplittableRandom;
+
+/**
+ * Weighted random choice by the alias method.
+ * Building the table from a set of weights takes linear time; each draw then
+ * takes constant time and a single random number. The table's arrays are sized
+ * once and reused by every rebuild, so neither building nor sampling allocates.
+ */
+public class AliasTable {
+    private final double[] probability;
+    private final int[] alias;
+    private final int[] small;
+    private final int[] large;
+    private int size;
+
+    /**
+     * Constructs a new, empty AliasTable.
+     *
+     * @param capacity The largest number of weights the table will hold.
+     */
+    public AliasTable(int capacity) {
+        this.probability = new double[capacity];
+        this.alias = new int[capacity];
+        this.small = new int[capacity];
+        this.large = new int[capacity];
+    }
+
+    /**
+     * Rebuilds the table from a set of weights.
+     *
+     * @param weights The non-negative weights; only the first {@code count} are used.
+     * @param count   The number of weights, at most the table's capacity.
+     */
+    public void build(double[] weights, int count) {
+        size = count;
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += weights[i];
+        }
+        if (count == 0 || total <= 0) {
+            // No preference: every entry is equally likely
+            for (int i = 0; i < count; i++) {
+                probability[i] = 1.0;
+                alias[i] = i;
+            }
+            return;
+        }
+
+        // Scale so the average weight is 1, then pair each under-full entry with an over-full one
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < count; i++) {
+            probability[i] = weights[i] * count / total;
+            alias[i] = i;
+            if (probability[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            alias[less] = more;
+            probability[more] -= 1.0 - probability[less];
+            if (probability[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Whatever is left is full up to rounding error
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1.0;
+        }
+    }
+
+    /**
+     * Gets the number of entries in the table.
+     *
+     * @return The number of weights the table was last built from.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Draws an entry with probability proportional to its weight.
+     *
+     * @param rand The random stream to draw from.
+     * @return The index of the chosen weight.
+     * @throws IllegalStateException If the table is empty.
+     */
+    public int sample(SplittableRandom rand) {
+        if (size == 0) {
+            throw new IllegalStateException("Cannot sample from an empty table.");
+        }
+        // One draw picks both the column and the coin flip within it
+        double u = rand.nextDouble() * size;
+        int column = Math.min((int) u, size - 1);
+        return u - column < probability[column] ? column : alias[column];
+    }
+}
@@ -0,0 +1,261 @@
+package com.legends.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A memory-mapped, precompiled copy of the CSV game data, written by {@link CatalogCompiler}.
+ * <p>
+ * Layout (big-endian): a 16-byte header (magic, version, section count, string table offset),
+ * one 40-byte entry per source file (name, column count, string column mask, row count,
+ * records offset, source length and last-modified time), the fixed-width records of every
+ * section, and a string table of length-prefixed UTF-8 strings. Each record is the source
+ * line number followed by one int per column; string columns hold a string table offset.
+ * <p>
+ * A section is only used while its source CSV still has the length and modification
+ * time it was compiled from, so edited data files are never shadowed by a stale catalog.
+ */
+public class BinaryCatalog {
+    public static final String RESOURCE_NAME = "catalog.bin";
+    static final int MAGIC = 0x4C4D4843; // "LMHC"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int SECTION_SIZE = 40;
+    static final int MAX_COLUMNS = 32;
+
+    private static BinaryCatalog defaultCatalog;
+    private static boolean defaultLoaded;
+
+    private final ByteBuffer buffer;
+    private final int stringTableOffset;
+    private final Map<String, Integer> sections = new HashMap<>();
+
+    /**
+     * Constructs a catalog over mapped data and indexes its sections.
+     *
+     * @param buffer The catalog contents.
+     * @throws IOException If the data is not a catalog of this version.
+     */
+    BinaryCatalog(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a version " + VERSION + " game data catalog");
+        }
+        int sectionCount = buffer.getInt(8);
+        this.stringTableOffset = buffer.getInt(12);
+        for (int i = 0; i < sectionCount; i++) {
+            int entry = HEADER_SIZE + i * SECTION_SIZE;
+            sections.put(readString(buffer.getInt(entry)), entry);
+        }
+    }
+
+    /**
+     * Gets the catalog compiled next to the data files on the classpath.
+     * The file is mapped on first use; later calls return the same instance.
+     *
+     * @return The catalog, or null if there is none or it cannot be read.
+     */
+    public static synchronized BinaryCatalog getDefault() {
+        if (!defaultLoaded) {
+            defaultLoaded = true;
+            File file = resourceFile(RESOURCE_NAME);
+            if (file != null && file.isFile()) {
+                try {
+                    defaultCatalog = open(file);
+                } catch (IOException | RuntimeException e) {
+                    defaultCatalog = null;
+                }
+            }
+        }
+        return defaultCatalog;
+    }
+
+    /**
+     * Memory-maps a catalog file.
+     *
+     * @param file The catalog file.
+     * @return The catalog.
+     * @throws IOException If the file cannot be mapped or is not a catalog.
+     */
+    public static BinaryCatalog open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new BinaryCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads every row of a compiled data file into objects.
+     *
+     * @param filename The name of the source CSV file.
+     * @param columns  The minimum number of columns each row must have.
+     * @param mapper   Creates an object from each row.
+     * @param <T>      The type of object created.
+     * @return The objects in file order, or null if the catalog has no up-to-date copy
+     *         of the file and it should be parsed from CSV instead.
+     * @throws MalformedRowException If the mapper rejects a row.
+     */
+    public <T> List<T> read(String filename, int columns, RowMapper<T> mapper) throws MalformedRowException {
+        Integer entry = sections.get(filename);
+        if (entry == null || buffer.getInt(entry + 4) < columns || !isFresh(filename, entry)) {
+            return null;
+        }
+        BinaryRow row = new BinaryRow(filename, buffer.getInt(entry + 4), buffer.getInt(entry + 8));
+        int rowCount = buffer.getInt(entry + 12);
+        int recordSize = (row.columns + 1) * 4;
+        int offset = buffer.getInt(entry + 16);
+        List<T> results = new ArrayList<>(rowCount);
+        for (int i = 0; i < rowCount; i++, offset += recordSize) {
+            row.offset = offset;
+            T value = mapper.map(row);
+            if (value != null) {
+                results.add(value);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Checks that a section's source file has not changed since it was compiled.
+     * A source that is no longer on disk does not invalidate the catalog.
+     *
+     * @param filename The name of the source CSV file.
+     * @param entry    The offset of the section entry.
+     * @return True if the compiled section can be used.
+     */
+    private boolean isFresh(String filename, int entry) {
+        File source = resourceFile(filename);
+        if (source == null || !source.isFile()) {
+            return true;
+        }
+        return source.length() == buffer.getLong(entry + 24) && source.lastModified() == buffer.getLong(entry + 32);
+    }
+
+    /**
+     * Resolves a classpath resource to a file on disk.
+     *
+     * @param name The resource name, relative to the classpath root.
+     * @return The file, or null if the resource is missing or not a plain file.
+     */
+    static File resourceFile(String name) {
+        URL url = BinaryCatalog.class.getResource("/" + name);
+        if (url == null || !"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            return new File(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Decodes a string from the string table.
+     *
+     * @param offset The offset of the string within the table.
+     * @return The string.
+     */
+    private String readString(int offset) {
+        int position = stringTableOffset + offset;
+        int length = buffer.getShort(position) & 0xffff;
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A cursor over the fixed-width records of one section.
+     */
+    private class BinaryRow implements DataRow {
+        private final String source;
+        private final int columns;
+        private final int stringColumns;
+        private int offset;
+
+        /**
+         * Constructs a new row cursor.
+         *
+         * @param source        The name of the source CSV file.
+         * @param columns       The number of columns per record.
+         * @param stringColumns A bit mask of the columns holding strings.
+         */
+        BinaryRow(String source, int columns, int stringColumns) {
+            this.source = source;
+            this.columns = columns;
+            this.stringColumns = stringColumns;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns;
+        }
+
+        @Override
+        public String getString(int column) throws MalformedRowException {
+            int value = cell(column);
+            return isString(column) ? readString(value) : Integer.toString(value);
+        }
+
+        @Override
+        public int getInt(int column) throws MalformedRowException {
+            int value = cell(column);
+            if (!isString(column)) {
+                return value;
+            }
+            // Cells like "+5" or "05" are kept as text by the compiler
+            String text = readString(value);
+            try {
+                return Integer.parseInt(text);
+            } catch (NumberFormatException e) {
+                throw new MalformedRowException(source, getLineNumber(),
+                        "column " + (column + 1) + " is not an integer: '" + text + "'");
+            }
+        }
+
+        @Override
+        public String getSource() {
+            return source;
+        }
+
+        @Override
+        public int getLineNumber() {
+            return buffer.getInt(offset);
+        }
+
+        /**
+         * Checks whether a column holds string table offsets.
+         *
+         * @param column The zero-based column index.
+         * @return True for a string column.
+         */
+        private boolean isString(int column) {
+            return (stringColumns & (1 << column)) != 0;
+        }
+
+        /**
+         * Reads a raw cell of the current record.
+         *
+         * @param column The zero-based column index.
+         * @return The stored int.
+         * @throws MalformedRowException If the column does not exist.
+         */
+        private int cell(int column) throws MalformedRowException {
+            if (column < 0 || column >= columns) {
+                throw new MalformedRowException(source, getLineNumber(), "missing column " + (column + 1));
+            }
+            return buffer.getInt(offset + 4 + column * 4);
+        }
+    }
+}
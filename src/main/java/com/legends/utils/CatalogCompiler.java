@@ -0,0 +1,211 @@
+package com.legends.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Build step that compiles the CSV game data into a {@link BinaryCatalog}.
+ * Run it after copying the resources, e.g.
+ * {@code java -cp bin com.legends.utils.CatalogCompiler bin/catalog.bin}.
+ */
+public class CatalogCompiler {
+    static final String[] DATA_FILES = {
+            "Paladins.csv", "Sorcerers.csv", "Warriors.csv",
+            "Spirits.csv", "Dragons.csv", "Exoskeletons.csv",
+            "Weaponry.csv", "Armory.csv", "Potions.csv",
+            "FireSpells.csv", "IceSpells.csv", "LightningSpells.csv"
+    };
+
+    /**
+     * Compiles the game data files found on the classpath.
+     *
+     * @param args The output file (defaults to bin/catalog.bin).
+     * @throws IOException If a data file cannot be read or the catalog cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        File output = new File(args.length > 0 ? args[0] : "bin/" + BinaryCatalog.RESOURCE_NAME);
+        int rows = compile(DATA_FILES, output);
+        System.out.println("Compiled " + rows + " rows from " + DATA_FILES.length + " files into " + output);
+    }
+
+    /**
+     * Compiles CSV resources into a catalog file.
+     *
+     * @param filenames The resource names, relative to the classpath root.
+     * @param output    The catalog file to write.
+     * @return The total number of rows compiled.
+     * @throws IOException If a data file cannot be read or the catalog cannot be written.
+     */
+    public static int compile(String[] filenames, File output) throws IOException {
+        List<Section> sections = new ArrayList<>();
+        StringTable strings = new StringTable();
+        int totalRows = 0;
+        for (String filename : filenames) {
+            Section section = Section.parse(filename);
+            sections.add(section);
+            totalRows += section.lines.size();
+        }
+
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        DataOutputStream records = new DataOutputStream(recordBytes);
+        int recordsStart = BinaryCatalog.HEADER_SIZE + sections.size() * BinaryCatalog.SECTION_SIZE;
+        for (Section section : sections) {
+            section.recordsOffset = recordsStart + records.size();
+            section.nameOffset = strings.offsetOf(section.filename);
+            for (int r = 0; r < section.lines.size(); r++) {
+                records.writeInt(section.lines.get(r));
+                String[] cells = section.cells.get(r);
+                for (int c = 0; c < section.columns; c++) {
+                    if (section.isString(c)) {
+                        records.writeInt(strings.offsetOf(cells[c]));
+                    } else {
+                        records.writeInt(Integer.parseInt(cells[c]));
+                    }
+                }
+            }
+        }
+
+        try (OutputStream os = new FileOutputStream(output);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+            out.writeInt(BinaryCatalog.MAGIC);
+            out.writeInt(BinaryCatalog.VERSION);
+            out.writeInt(sections.size());
+            out.writeInt(recordsStart + records.size());
+            for (Section section : sections) {
+                out.writeInt(section.nameOffset);
+                out.writeInt(section.columns);
+                out.writeInt(section.stringColumns);
+                out.writeInt(section.lines.size());
+                out.writeInt(section.recordsOffset);
+                out.writeInt(0);
+                out.writeLong(section.sourceLength);
+                out.writeLong(section.sourceLastModified);
+            }
+            recordBytes.writeTo(out);
+            strings.bytes.writeTo(out);
+        }
+        return totalRows;
+    }
+
+    /**
+     * The string table being built, with each distinct string stored once.
+     */
+    private static class StringTable {
+        private final Map<String, Integer> offsets = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        /**
+         * Gets the offset of a string, adding it to the table if needed.
+         *
+         * @param s The string.
+         * @return The offset of the string within the table.
+         * @throws IOException If the string is too long for the table.
+         */
+        int offsetOf(String s) throws IOException {
+            Integer offset = offsets.get(s);
+            if (offset == null) {
+                byte[] encoded = s.getBytes(StandardCharsets.UTF_8);
+                if (encoded.length > 0xffff) {
+                    throw new IOException("String too long for catalog: " + s.substring(0, 40) + "...");
+                }
+                offset = out.size();
+                out.writeShort(encoded.length);
+                out.write(encoded);
+                offsets.put(s, offset);
+            }
+            return offset;
+        }
+    }
+
+    /**
+     * The parsed contents of one data file.
+     */
+    private static class Section {
+        private final String filename;
+        private final List<String[]> cells = new ArrayList<>();
+        private final List<Integer> lines = new ArrayList<>();
+        private int columns;
+        private int stringColumns;
+        private long sourceLength;
+        private long sourceLastModified;
+        private int nameOffset;
+        private int recordsOffset;
+
+        private Section(String filename) {
+            this.filename = filename;
+        }
+
+        /**
+         * Reads a data file and decides which columns hold strings.
+         * Records are as wide as the narrowest row; a column is stored as an int
+         * only if every cell in it is a canonical integer, so nothing is lost.
+         *
+         * @param filename The resource name.
+         * @return The parsed section.
+         * @throws IOException If the file cannot be read.
+         */
+        static Section parse(String filename) throws IOException {
+            Section section = new Section(filename);
+            File source = BinaryCatalog.resourceFile(filename);
+            if (source != null) {
+                section.sourceLength = source.length();
+                section.sourceLastModified = source.lastModified();
+            }
+
+            CsvReader reader = CsvReader.open(filename);
+            reader.nextRow(); // Header
+            int columns = BinaryCatalog.MAX_COLUMNS;
+            int intColumns = -1;
+            while (reader.nextRow()) {
+                String[] row = new String[reader.getColumnCount()];
+                for (int c = 0; c < row.length; c++) {
+                    row[c] = reader.getString(c);
+                    if (c < BinaryCatalog.MAX_COLUMNS && !isCanonicalInt(row[c])) {
+                        intColumns &= ~(1 << c);
+                    }
+                }
+                columns = Math.min(columns, row.length);
+                section.cells.add(row);
+                section.lines.add(reader.getLineNumber());
+            }
+            section.columns = section.cells.isEmpty() ? 0 : columns;
+            section.stringColumns = ~intColumns;
+            return section;
+        }
+
+        /**
+         * Checks whether text is exactly the decimal form of an int.
+         *
+         * @param s The text.
+         * @return True if the text round-trips through Integer.
+         */
+        private static boolean isCanonicalInt(String s) {
+            try {
+                return Integer.toString(Integer.parseInt(s)).equals(s);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Checks whether a column is stored as string table offsets.
+         *
+         * @param column The zero-based column index.
+         * @return True for a string column.
+         */
+        boolean isString(int column) {
+            return (stringColumns & (1 << column)) != 0;
+        }
+    }
+}
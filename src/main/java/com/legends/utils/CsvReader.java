@@ -0,0 +1,262 @@
+package com.legends.utils;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads comma-separated game data from a byte array.
+ * Columns are located in place and only converted when a mapper asks for them,
+ * so no line strings or split arrays are created per row.
+ * The first line of a file is a header and is skipped, as are blank lines.
+ */
+public class CsvReader implements DataRow {
+    private final String source;
+    private final byte[] data;
+    private final int length;
+    private int pos;
+    private int lineNumber;
+    private int columnCount;
+    private int[] columnStart = new int[8];
+    private int[] columnEnd = new int[8];
+
+    /**
+     * Constructs a new CsvReader over a buffer.
+     *
+     * @param source The name of the data, used in error messages.
+     * @param data   The buffer holding the file contents.
+     * @param length The number of valid bytes in the buffer.
+     */
+    public CsvReader(String source, byte[] data, int length) {
+        this.source = source;
+        this.data = data;
+        this.length = length;
+        // Skip the byte order mark some editors add
+        if (length >= 3 && data[0] == (byte) 0xEF && data[1] == (byte) 0xBB && data[2] == (byte) 0xBF) {
+            this.pos = 3;
+        }
+    }
+
+    /**
+     * Reads every row of a classpath resource into objects.
+     *
+     * @param filename The resource name, relative to the classpath root.
+     * @param columns  The minimum number of columns each row must have.
+     * @param mapper   Creates an object from each row.
+     * @param <T>      The type of object created.
+     * @return The objects, in file order, leaving out rows the mapper skipped.
+     * @throws IOException If the resource cannot be read or a row is malformed.
+     */
+    public static <T> List<T> read(String filename, int columns, RowMapper<T> mapper) throws IOException {
+        CsvReader reader = open(filename);
+        List<T> results = new ArrayList<>();
+        reader.nextRow(); // Header
+        while (reader.nextRow()) {
+            if (reader.getColumnCount() < columns) {
+                throw new MalformedRowException(filename, reader.getLineNumber(),
+                        "expected " + columns + " columns but found " + reader.getColumnCount());
+            }
+            T value = mapper.map(reader);
+            if (value != null) {
+                results.add(value);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Loads a classpath resource into memory and creates a reader for it.
+     *
+     * @param filename The resource name, relative to the classpath root.
+     * @return A reader positioned before the first line.
+     * @throws IOException If the resource is missing or cannot be read.
+     */
+    public static CsvReader open(String filename) throws IOException {
+        try (InputStream is = CsvReader.class.getResourceAsStream("/" + filename)) {
+            if (is == null) {
+                throw new FileNotFoundException("Data file not found: " + filename);
+            }
+            byte[] buffer = new byte[Math.max(is.available(), 4096)];
+            int length = 0;
+            int n;
+            while ((n = is.read(buffer, length, buffer.length - length)) != -1) {
+                length += n;
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+            }
+            return new CsvReader(filename, buffer, length);
+        }
+    }
+
+    /**
+     * Advances to the next non-blank line and locates its columns.
+     *
+     * @return True if a row was found, false at the end of the data.
+     */
+    public boolean nextRow() {
+        while (pos < length) {
+            int lineStart = pos;
+            int lineEnd = lineStart;
+            while (lineEnd < length && data[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            pos = lineEnd + 1;
+            lineNumber++;
+            if (splitColumns(lineStart, lineEnd)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records the trimmed bounds of each column of a line.
+     *
+     * @param start The index of the first byte of the line.
+     * @param end   The index just past the last byte of the line.
+     * @return True if the line has any content.
+     */
+    private boolean splitColumns(int start, int end) {
+        boolean blank = true;
+        columnCount = 0;
+        int columnFrom = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || data[i] == ',') {
+                int from = columnFrom;
+                int to = i;
+                while (from < to && isSpace(data[from])) from++;
+                while (to > from && isSpace(data[to - 1])) to--;
+                if (from < to) blank = false;
+                if (columnCount == columnStart.length) {
+                    columnStart = Arrays.copyOf(columnStart, columnCount * 2);
+                    columnEnd = Arrays.copyOf(columnEnd, columnCount * 2);
+                }
+                columnStart[columnCount] = from;
+                columnEnd[columnCount] = to;
+                columnCount++;
+                columnFrom = i + 1;
+            }
+        }
+        return !blank;
+    }
+
+    /**
+     * Checks whether a byte is whitespace, including the carriage return of CRLF files.
+     *
+     * @param b The byte to check.
+     * @return True if the byte should be trimmed.
+     */
+    private static boolean isSpace(byte b) {
+        return b >= 0 && b <= ' ';
+    }
+
+    /**
+     * Gets the number of columns in the current row.
+     *
+     * @return The column count.
+     */
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Gets a column of the current row as text.
+     *
+     * @param column The zero-based column index.
+     * @return The column text.
+     * @throws MalformedRowException If the column does not exist.
+     */
+    @Override
+    public String getString(int column) throws MalformedRowException {
+        checkColumn(column);
+        return new String(data, columnStart[column], columnEnd[column] - columnStart[column], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a column of the current row as a decimal integer, directly from the buffer.
+     *
+     * @param column The zero-based column index.
+     * @return The column value.
+     * @throws MalformedRowException If the column does not exist or is not an integer.
+     */
+    @Override
+    public int getInt(int column) throws MalformedRowException {
+        checkColumn(column);
+        int i = columnStart[column];
+        int end = columnEnd[column];
+        boolean negative = false;
+        if (i < end && (data[i] == '-' || data[i] == '+')) {
+            negative = data[i] == '-';
+            i++;
+        }
+        if (i == end) {
+            throw notAnInteger(column);
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw notAnInteger(column);
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw notAnInteger(column);
+            }
+        }
+        if (negative) value = -value;
+        if (value > Integer.MAX_VALUE) {
+            throw notAnInteger(column);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Gets the name of the data being read.
+     *
+     * @return The source name.
+     */
+    @Override
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the line number of the current row.
+     *
+     * @return The one-based line number.
+     */
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Ensures a column exists in the current row.
+     *
+     * @param column The zero-based column index.
+     * @throws MalformedRowException If the column does not exist.
+     */
+    private void checkColumn(int column) throws MalformedRowException {
+        if (column < 0 || column >= columnCount) {
+            throw new MalformedRowException(source, lineNumber, "missing column " + (column + 1));
+        }
+    }
+
+    /**
+     * Creates the exception for a column that is not a valid integer.
+     *
+     * @param column The zero-based column index.
+     * @return The exception to throw.
+     */
+    private MalformedRowException notAnInteger(int column) {
+        String text = new String(data, columnStart[column], columnEnd[column] - columnStart[column], StandardCharsets.UTF_8);
+        return new MalformedRowException(source, lineNumber,
+                "column " + (column + 1) + " is not an integer: '" + text + "'");
+    }
+}
@@ -1,17 +1,23 @@
 package com.legends.utils;
 
 import com.legends.model.*;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Utility class for loading game data from CSV files.
+ * Each kind of entity has a row mapper describing its columns. Files are read from
+ * the precompiled {@link BinaryCatalog} when it is present and up to date,
+ * and parsed with {@link CsvReader} otherwise.
  */
 public class DataLoader {
+    static final int HERO_COLUMNS = 7;
+    static final int MONSTER_COLUMNS = 5;
+    static final int WEAPON_COLUMNS = 5;
+    static final int ARMOR_COLUMNS = 4;
+    static final int POTION_COLUMNS = 5;
+    static final int SPELL_COLUMNS = 5;
 
     /**
      * Loads heroes from a CSV file.
@@ -19,35 +25,10 @@ public class DataLoader {
      * @param filename The name of the CSV file.
      * @param type     The type of hero (Paladin, Sorcerer, Warrior).
      * @return A list of loaded heroes.
-     * @throws IOException If an I/O error occurs.
+     * @throws IOException If an I/O error occurs or a row is malformed.
      */
     public static List<Hero> loadHeroes(String filename, String type) throws IOException {
-        List<Hero> heroes = new ArrayList<>();
-        try (InputStream is = DataLoader.class.getResourceAsStream("/" + filename);
-             BufferedReader br = new BufferedReader(new InputStreamReader(is))) {
-            String line;
-            br.readLine();
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                String[] parts = line.trim().split(",");
-                String name = parts[0].trim();
-                int mana = Integer.parseInt(parts[1].trim()) / 3;
-                int strength = Integer.parseInt(parts[2].trim());
-                int agility = Integer.parseInt(parts[3].trim());
-                int dexterity = Integer.parseInt(parts[4].trim());
-                int money = Integer.parseInt(parts[5].trim());
-                int experience = Integer.parseInt(parts[6].trim());
-
-                if (type.equals("Paladin")) {
-                    heroes.add(new Paladin(name, mana, strength, agility, dexterity, money, experience));
-                } else if (type.equals("Sorcerer")) {
-                    heroes.add(new Sorcerer(name, mana, strength, agility, dexterity, money, experience));
-                } else if (type.equals("Warrior")) {
-                    heroes.add(new Warrior(name, mana, strength, agility, dexterity, money, experience));
-                }
-            }
-        }
-        return heroes;
+        return read(filename, HERO_COLUMNS, heroMapper(type));
     }
 
     /**
@@ -56,33 +37,10 @@ public class DataLoader {
      * @param filename The name of the CSV file.
      * @param type     The type of monster (Spirit, Dragon, Exoskeleton).
      * @return A list of loaded monsters.
-     * @throws IOException If an I/O error occurs.
+     * @throws IOException If an I/O error occurs or a row is malformed.
      */
     public static List<Monster> loadMonsters(String filename, String type) throws IOException {
-        List<Monster> monsters = new ArrayList<>();
-        try (InputStream is = DataLoader.class.getResourceAsStream("/" + filename);
-             BufferedReader br = new BufferedReader(new InputStreamReader(is))) {
-            String line;
-            br.readLine();
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                String[] parts = line.trim().split(",");
-                String name = parts[0].trim();
-                int level = Integer.parseInt(parts[1].trim());
-                int damage = Integer.parseInt(parts[2].trim());
-                int defense = Integer.parseInt(parts[3].trim());
-                int dodgeChance = Integer.parseInt(parts[4].trim());
-
-                if (type.equals("Spirit")) {
-                    monsters.add(new Spirit(name, level, damage, defense, dodgeChance));
-                } else if (type.equals("Dragon")) {
-                    monsters.add(new Dragon(name, level, damage, defense, dodgeChance));
-                } else if (type.equals("Exoskeleton")) {
-                    monsters.add(new Exoskeleton(name, level, damage, defense, dodgeChance));
-                }
-            }
-        }
-        return monsters;
+        return read(filename, MONSTER_COLUMNS, monsterMapper(type));
     }
 
     /**
@@ -90,26 +48,10 @@ public class DataLoader {
      *
      * @param filename The name of the CSV file.
      * @return A list of loaded weapons.
-     * @throws IOException If an I/O error occurs.
+     * @throws IOException If an I/O error occurs or a row is malformed.
      */
     public static List<Weapon> loadWeapons(String filename) throws IOException {
-        List<Weapon> weapons = new ArrayList<>();
-        try (InputStream is = DataLoader.class.getResourceAsStream("/" + filename);
-             BufferedReader br = new BufferedReader(new InputStreamReader(is))) {
-            String line;
-            br.readLine();
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                String[] parts = line.trim().split(",");
-                String name = parts[0].trim();
-                int cost = Integer.parseInt(parts[1].trim());
-                int level = Integer.parseInt(parts[2].trim());
-                int damage = Integer.parseInt(parts[3].trim());
-                int hands = Integer.parseInt(parts[4].trim());
-                weapons.add(new Weapon(name, cost, level, damage, hands));
-            }
-        }
-        return weapons;
+        return read(filename, WEAPON_COLUMNS, weaponMapper());
     }
 
     /**
@@ -117,25 +59,10 @@ public class DataLoader {
      *
      * @param filename The name of the CSV file.
      * @return A list of loaded armor.
-     * @throws IOException If an I/O error occurs.
+     * @throws IOException If an I/O error occurs or a row is malformed.
      */
     public static List<Armor> loadArmor(String filename) throws IOException {
-        List<Armor> armors = new ArrayList<>();
-        try (InputStream is = DataLoader.class.getResourceAsStream("/" + filename);
-             BufferedReader br = new BufferedReader(new InputStreamReader(is))) {
-            String line;
-            br.readLine();
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                String[] parts = line.trim().split(",");
-                String name = parts[0].trim();
-                int cost = Integer.parseInt(parts[1].trim());
-                int level = Integer.parseInt(parts[2].trim());
-                int damageReduction = Integer.parseInt(parts[3].trim());
-                armors.add(new Armor(name, cost, level, damageReduction));
-            }
-        }
-        return armors;
+        return read(filename, ARMOR_COLUMNS, armorMapper());
     }
 
     /**
@@ -143,29 +70,10 @@ public class DataLoader {
      *
      * @param filename The name of the CSV file.
      * @return A list of loaded potions.
-     * @throws IOException If an I/O error occurs.
+     * @throws IOException If an I/O error occurs or a row is malformed.
      */
     public static List<Potion> loadPotions(String filename) throws IOException {
-        List<Potion> potions = new ArrayList<>();
-        try (InputStream is = DataLoader.class.getResourceAsStream("/" + filename);
-             BufferedReader br = new BufferedReader(new InputStreamReader(is))) {
-            String line;
-            br.readLine();
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                String[] parts = line.trim().split(",");
-                String name = parts[0].trim();
-                int cost = Integer.parseInt(parts[1].trim());
-                int level = Integer.parseInt(parts[2].trim());
-                int attributeIncrease = Integer.parseInt(parts[3].trim());
-                String attributeAffected = parts[4].trim();
-                if (attributeAffected.equals("Mana")) {
-                    attributeIncrease /= 3;
-                }
-                potions.add(new Potion(name, cost, level, attributeIncrease, attributeAffected));
-            }
-        }
-        return potions;
+        return read(filename, POTION_COLUMNS, potionMapper());
     }
 
     /**
@@ -174,32 +82,164 @@ public class DataLoader {
      * @param filename The name of the CSV file.
      * @param type     The type of spell (Fire, Ice, Lightning).
      * @return A list of loaded spells.
-     * @throws IOException If an I/O error occurs.
+     * @throws IOException If an I/O error occurs or a row is malformed.
      */
     public static List<Spell> loadSpells(String filename, String type) throws IOException {
-        List<Spell> spells = new ArrayList<>();
-        try (InputStream is = DataLoader.class.getResourceAsStream("/" + filename);
-             BufferedReader br = new BufferedReader(new InputStreamReader(is))) {
-            String line;
-            br.readLine();
-            while ((line = br.readLine()) != null) {
-                if (line.trim().isEmpty()) continue;
-                String[] parts = line.trim().split(",");
-                String name = parts[0].trim();
-                int cost = Integer.parseInt(parts[1].trim());
-                int level = Integer.parseInt(parts[2].trim());
-                int damage = Integer.parseInt(parts[3].trim()) / 10;
-                int manaCost = Integer.parseInt(parts[4].trim()) / 3;
-
-                if (type.equals("Fire")) {
-                    spells.add(new FireSpell(name, cost, level, damage, manaCost));
-                } else if (type.equals("Ice")) {
-                    spells.add(new IceSpell(name, cost, level, damage, manaCost));
-                } else if (type.equals("Lightning")) {
-                    spells.add(new LightningSpell(name, cost, level, damage, manaCost));
-                }
+        return read(filename, SPELL_COLUMNS, spellMapper(type));
+    }
+
+    /**
+     * Loads every item in the game: weapons, armor, potions, then fire, ice and lightning spells.
+     * Each item's ID is set to its index in the returned list, which is how saves refer to items;
+     * since IDs change when the data files do, saves also record each ID's kind and name.
+     *
+     * @return The item catalog.
+     * @throws IOException If an I/O error occurs or a row is malformed.
+     */
+    public static List<Item> loadItemCatalog() throws IOException {
+        List<Item> items = new ArrayList<>();
+        items.addAll(loadWeapons("Weaponry.csv"));
+        items.addAll(loadArmor("Armory.csv"));
+        items.addAll(loadPotions("Potions.csv"));
+        items.addAll(loadSpells("FireSpells.csv", "Fire"));
+        items.addAll(loadSpells("IceSpells.csv", "Ice"));
+        items.addAll(loadSpells("LightningSpells.csv", "Lightning"));
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setId(i);
+        }
+        return items;
+    }
+
+    /**
+     * Reads a data file, from the compiled catalog if it has an up-to-date copy
+     * and from the CSV file otherwise.
+     *
+     * @param filename The name of the CSV file.
+     * @param columns  The minimum number of columns each row must have.
+     * @param mapper   Creates an object from each row.
+     * @param <T>      The type of object created.
+     * @return The loaded objects.
+     * @throws IOException If an I/O error occurs or a row is malformed.
+     */
+    private static <T> List<T> read(String filename, int columns, RowMapper<T> mapper) throws IOException {
+        BinaryCatalog catalog = BinaryCatalog.getDefault();
+        if (catalog != null) {
+            List<T> results = catalog.read(filename, columns, mapper);
+            if (results != null) {
+                return results;
             }
         }
-        return spells;
+        return CsvReader.read(filename, columns, mapper);
+    }
+
+    /**
+     * Gets the mapper for hero rows: name, mana, strength, agility, dexterity, money, experience.
+     *
+     * @param type The type of hero (Paladin, Sorcerer, Warrior).
+     * @return The mapper; rows are skipped for an unknown type.
+     */
+    public static RowMapper<Hero> heroMapper(String type) {
+        return row -> {
+            String name = row.getString(0);
+            int mana = row.getInt(1) / 3;
+            int strength = row.getInt(2);
+            int agility = row.getInt(3);
+            int dexterity = row.getInt(4);
+            int money = row.getInt(5);
+            int experience = row.getInt(6);
+
+            if (type.equals("Paladin")) {
+                return new Paladin(name, mana, strength, agility, dexterity, money, experience);
+            } else if (type.equals("Sorcerer")) {
+                return new Sorcerer(name, mana, strength, agility, dexterity, money, experience);
+            } else if (type.equals("Warrior")) {
+                return new Warrior(name, mana, strength, agility, dexterity, money, experience);
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Gets the mapper for monster rows: name, level, damage, defense, dodge chance.
+     *
+     * @param type The type of monster (Spirit, Dragon, Exoskeleton).
+     * @return The mapper; rows are skipped for an unknown type.
+     */
+    public static RowMapper<Monster> monsterMapper(String type) {
+        return row -> {
+            String name = row.getString(0);
+            int level = row.getInt(1);
+            int damage = row.getInt(2);
+            int defense = row.getInt(3);
+            int dodgeChance = row.getInt(4);
+
+            if (type.equals("Spirit")) {
+                return new Spirit(name, level, damage, defense, dodgeChance);
+            } else if (type.equals("Dragon")) {
+                return new Dragon(name, level, damage, defense, dodgeChance);
+            } else if (type.equals("Exoskeleton")) {
+                return new Exoskeleton(name, level, damage, defense, dodgeChance);
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Gets the mapper for weapon rows: name, cost, level, damage, required hands.
+     *
+     * @return The mapper.
+     */
+    public static RowMapper<Weapon> weaponMapper() {
+        return row -> new Weapon(row.getString(0), row.getInt(1), row.getInt(2), row.getInt(3), row.getInt(4));
+    }
+
+    /**
+     * Gets the mapper for armor rows: name, cost, level, damage reduction.
+     *
+     * @return The mapper.
+     */
+    public static RowMapper<Armor> armorMapper() {
+        return row -> new Armor(row.getString(0), row.getInt(1), row.getInt(2), row.getInt(3));
+    }
+
+    /**
+     * Gets the mapper for potion rows: name, cost, level, attribute increase, attributes affected.
+     *
+     * @return The mapper.
+     */
+    public static RowMapper<Potion> potionMapper() {
+        return row -> {
+            String attributeAffected = row.getString(4);
+            int attributeIncrease = row.getInt(3);
+            if (attributeAffected.equals("Mana")) {
+                attributeIncrease /= 3;
+            }
+            return new Potion(row.getString(0), row.getInt(1), row.getInt(2), attributeIncrease, attributeAffected);
+        };
+    }
+
+    /**
+     * Gets the mapper for spell rows: name, cost, level, damage, mana cost.
+     *
+     * @param type The type of spell (Fire, Ice, Lightning).
+     * @return The mapper; rows are skipped for an unknown type.
+     */
+    public static RowMapper<Spell> spellMapper(String type) {
+        return row -> {
+            String name = row.getString(0);
+            int cost = row.getInt(1);
+            int level = row.getInt(2);
+            int damage = row.getInt(3) / 10;
+            int manaCost = row.getInt(4) / 3;
+
+            if (type.equals("Fire")) {
+                return new FireSpell(name, cost, level, damage, manaCost);
+            } else if (type.equals("Ice")) {
+                return new IceSpell(name, cost, level, damage, manaCost);
+            } else if (type.equals("Lightning")) {
+                return new LightningSpell(name, cost, level, damage, manaCost);
+            }
+            return null;
+        };
     }
 }
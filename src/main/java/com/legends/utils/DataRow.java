@@ -0,0 +1,45 @@
+package com.legends.utils;
+
+/**
+ * A single record of a game data file, with columns addressed by index.
+ */
+public interface DataRow {
+    /**
+     * Gets the number of columns in this row.
+     *
+     * @return The column count.
+     */
+    int getColumnCount();
+
+    /**
+     * Gets a column as text, without surrounding whitespace.
+     *
+     * @param column The zero-based column index.
+     * @return The column text.
+     * @throws MalformedRowException If the column does not exist.
+     */
+    String getString(int column) throws MalformedRowException;
+
+    /**
+     * Gets a column as an integer.
+     *
+     * @param column The zero-based column index.
+     * @return The column value.
+     * @throws MalformedRowException If the column does not exist or is not an integer.
+     */
+    int getInt(int column) throws MalformedRowException;
+
+    /**
+     * Gets the name of the file this row was read from.
+     *
+     * @return The source name.
+     */
+    String getSource();
+
+    /**
+     * Gets the one-based line number of this row in its file.
+     *
+     * @return The line number.
+     */
+    int getLineNumber();
+}
@@ -0,0 +1,94 @@
+package com.legends.utils;
+
+import java.util.SplittableRandom;
+
+/**
+ * Per-session source of randomness.
+ * A single master seed is split into independent streams for world generation,
+ * encounters, combat, markets and roaming monsters, so a session can be replayed bit-for-bit from its seed
+ * and drawing a number never allocates.
+ */
+public class GameRandom {
+    private final long seed;
+    private final SplittableRandom worldGen;
+    private final SplittableRandom encounters;
+    private final SplittableRandom combat;
+    private final SplittableRandom markets;
+    private final SplittableRandom roaming;
+
+    /**
+     * Constructs a new GameRandom with a randomly chosen master seed.
+     */
+    public GameRandom() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructs a new GameRandom from a master seed.
+     *
+     * @param seed The master seed.
+     */
+    public GameRandom(long seed) {
+        this.seed = seed;
+        SplittableRandom master = new SplittableRandom(seed);
+        this.worldGen = master.split();
+        this.encounters = master.split();
+        this.combat = master.split();
+        this.markets = master.split();
+        this.roaming = master.split();
+    }
+
+    /**
+     * Gets the master seed this session was created from.
+     *
+     * @return The master seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the stream used for board generation.
+     *
+     * @return The world generation stream.
+     */
+    public SplittableRandom getWorldGen() {
+        return worldGen;
+    }
+
+    /**
+     * Gets the stream used to roll and populate encounters.
+     *
+     * @return The encounter stream.
+     */
+    public SplittableRandom getEncounters() {
+        return encounters;
+    }
+
+    /**
+     * Gets the stream used for combat rolls.
+     *
+     * @return The combat stream.
+     */
+    public SplittableRandom getCombat() {
+        return combat;
+    }
+
+    /**
+     * Gets the stream used to stock markets.
+     *
+     * @return The market stream.
+     */
+    public SplittableRandom getMarkets() {
+        return markets;
+    }
+
+    /**
+     * Gets the stream used to place and move roaming monsters.
+     *
+     * @return The roaming stream.
+     */
+    public SplittableRandom getRoaming() {
+        return roaming;
+    }
+}
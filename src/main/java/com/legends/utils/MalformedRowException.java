@@ -0,0 +1,43 @@
+package com.legends.utils;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a row of a game data file cannot be parsed.
+ */
+public class MalformedRowException extends IOException {
+    private static final long serialVersionUID = 1L;
+    private final String source;
+    private final int lineNumber;
+
+    /**
+     * Constructs a new MalformedRowException.
+     *
+     * @param source     The name of the file containing the row.
+     * @param lineNumber The one-based line number of the row.
+     * @param message    A description of the problem.
+     */
+    public MalformedRowException(String source, int lineNumber, String message) {
+        super(source + ":" + lineNumber + ": " + message);
+        this.source = source;
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Gets the name of the file containing the row.
+     *
+     * @return The source name.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the line number of the row.
+     *
+     * @return The one-based line number.
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+}
@@ -0,0 +1,17 @@
+package com.legends.utils;
+
+/**
+ * Converts a data row into a game object.
+ *
+ * @param <T> The type of object created.
+ */
+public interface RowMapper<T> {
+    /**
+     * Creates an object from a row.
+     *
+     * @param row The row to read.
+     * @return The new object, or null to skip the row.
+     * @throws MalformedRowException If the row does not match the expected columns.
+     */
+    T map(DataRow row) throws MalformedRowException;
+}